@@ -18,6 +18,13 @@ public class ArgumentValue implements Value{
 		number = argNumber;
 	}
 
+	/**
+	 * @return The number n of the argument this ArgumentValue object refers to.
+	 */
+	int getNumber(){
+		return number;
+	}
+
 	public String getTypeName() {
 		return VALUE_TYPE_NAMES[0];
 	}
@@ -32,7 +39,20 @@ public class ArgumentValue implements Value{
 
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
-		return 0 < number && number <= args.length ? args[number-1].evaluate(environment, args, output) : new VoidValue();
+		Value argument = getArgument(args);
+		return argument != null ? argument.evaluate(environment, args, output) : VoidValue.VOID;
+	}
+
+	/**
+	 * Gives the argument this ArgumentValue object refers to, while recording that the given arguments are used.
+	 * Within an argument of a CompositeValue a missing argument is void, as it would have been replaced by VoidValue.VOID, see BoundArgument.
+	 * @param args The arguments that are given.
+	 * @return The n-th argument given, or null if it does not exist.
+	 */
+	private Value getArgument(Value[] args){
+		EvaluationCache.markArgumentsRead(args);
+		if(0 < number && number <= args.length) return args[number-1];
+		return BoundArgument.isBound(args) ? VoidValue.VOID : null;
 	}
 
 	public String toString(){
@@ -52,7 +72,8 @@ public class ArgumentValue implements Value{
 
 	@Override
 	public Value replaceArgumentsBy(Value[] args) {
-		return 0 < number && number <= args.length ? args[number-1] : new VoidValue();
+		EvaluationCache.markArgumentsRead(args);
+		return 0 < number && number <= args.length ? args[number-1] : VoidValue.VOID;
 	}
 
 	@Override
@@ -62,41 +83,59 @@ public class ArgumentValue implements Value{
 
 	@Override
 	public DataContainer evaluateToFirstDataContainer(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
-		if(0 < number && number <= args.length) return args[number-1].evaluateToFirstDataContainer(environment, args, output);
+		Value argument = getArgument(args);
+		if(argument != null) return argument.evaluateToFirstDataContainer(environment, args, output);
 		throw new EvaluationException(String.format("Argument \'%d\' does not exist",number));
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstAddable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		if(0 < number && number <= args.length) return args[number-1].evaluateToFirstAddable(environment, args, output);
+		Value argument = getArgument(args);
+		if(argument != null) return argument.evaluateToFirstAddable(environment, args, output);
 		throw new EvaluationException(String.format("Argument \'%d\' does not exist",number));
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstSubtractible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		if(0 < number && number <= args.length) return args[number-1].evaluateToFirstSubtractible(environment, args, output);
+		Value argument = getArgument(args);
+		if(argument != null) return argument.evaluateToFirstSubtractible(environment, args, output);
 		throw new EvaluationException(String.format("Argument \'%d\' does not exist",number));
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstMultiplicable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		if(0 < number && number <= args.length) return args[number-1].evaluateToFirstMultiplicable(environment, args, output);
+		Value argument = getArgument(args);
+		if(argument != null) return argument.evaluateToFirstMultiplicable(environment, args, output);
 		throw new EvaluationException(String.format("Argument \'%d\' does not exist",number));
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstDivisible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		if(0 < number && number <= args.length) return args[number-1].evaluateToFirstDivisible(environment, args, output);
+		Value argument = getArgument(args);
+		if(argument != null) return argument.evaluateToFirstDivisible(environment, args, output);
 		throw new EvaluationException(String.format("Argument \'%d\' does not exist",number));
 	}
 
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	/**
+	 * Returns UNKNOWN, since the arguments are only known during the evaluation.
+	 */
+	@Override
+	public int getPurity() {
+		return Purity.UNKNOWN;
 	}
 }
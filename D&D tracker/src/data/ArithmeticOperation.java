@@ -0,0 +1,218 @@
+package data;
+
+import java.io.PrintStream;
+
+/**
+ * An arithmetic operation on the evaluations of two Value objects, as performed by SumValue, SubtractionValue, ProductValue and DivisionValue objects.
+ * Each of these Value objects starts out with the uninitialized operation of its kind, which it replaces the first time it is evaluated, see specialize:
+ * - If both evaluations are IntValue objects, it is replaced by the integer operation, which computes on the integers directly.
+ * - Otherwise it is replaced by the generic operation, which uses the operations of PrimitiveValue.
+ * The integer operation only accepts IntValue objects and is replaced by the generic operation the first time it is given anything else.
+ * The generic operation accepts all evaluations, so the operation of a Value object is replaced at most twice.
+ * While a Value object has the integer operation, it evaluates its operands through evaluateOperand,
+ * such that nested arithmetic is computed on longs and no IntValue objects are created for intermediate results.
+ * Several threads may replace the operation of the same Value object at once while running a Simulation,
+ * which does no harm as all operations of a kind give the same result for the evaluations they accept.
+ */
+abstract class ArithmeticOperation {
+	static final int ADDITION = 0;
+	static final int SUBTRACTION = 1;
+	static final int MULTIPLICATION = 2;
+	static final int DIVISION = 3;
+
+	private static final ArithmeticOperation[] UNINITIALIZED = {new Uninitialized(ADDITION), new Uninitialized(SUBTRACTION), new Uninitialized(MULTIPLICATION), new Uninitialized(DIVISION)};
+	private static final ArithmeticOperation[] INTEGER = {new IntegerOperation(ADDITION), new IntegerOperation(SUBTRACTION), new IntegerOperation(MULTIPLICATION), new IntegerOperation(DIVISION)};
+	private static final ArithmeticOperation[] GENERIC = {new GenericOperation(ADDITION), new GenericOperation(SUBTRACTION), new GenericOperation(MULTIPLICATION), new GenericOperation(DIVISION)};
+
+	protected final int kind;
+
+	private ArithmeticOperation(int kind){
+		this.kind = kind;
+	}
+
+	/**
+	 * @param kind One of ADDITION, SUBTRACTION, MULTIPLICATION or DIVISION.
+	 * @return The operation of the given kind that a Value object should start with.
+	 */
+	static ArithmeticOperation uninitialized(int kind){
+		return UNINITIALIZED[kind];
+	}
+
+	/**
+	 * @return TRUE if this operation can be applied to the given evaluations, FALSE if it should be replaced first, see specialize.
+	 */
+	abstract boolean accepts(PrimitiveValue a, PrimitiveValue b);
+
+	/**
+	 * Gives the operation that should replace this operation, because it does not accept the given evaluations.
+	 * @return The integer operation if this operation is uninitialized and both evaluations are IntValue objects, the generic operation otherwise.
+	 */
+	ArithmeticOperation specialize(PrimitiveValue a, PrimitiveValue b){
+		if(this instanceof Uninitialized && a instanceof IntValue && b instanceof IntValue) return INTEGER[kind];
+		return GENERIC[kind];
+	}
+
+	/**
+	 * @return TRUE if this is the integer operation, FALSE otherwise.
+	 */
+	boolean isInteger(){
+		return this instanceof IntegerOperation;
+	}
+
+	/**
+	 * Performs this operation on two integers in the same way as the integer operation does on IntValue objects.
+	 * @throws ComputationException If the operation failed.
+	 */
+	long applyToLongs(long a, long b) throws ComputationException {
+		switch(kind){
+		case SUBTRACTION:
+			return IntValue.subtract(a, b);
+		case MULTIPLICATION:
+			return IntValue.multiply(a, b);
+		case DIVISION:
+			return IntValue.divide(a, b);
+		case ADDITION:
+		default:
+			return IntValue.add(a, b);
+		}
+	}
+
+	/**
+	 * Evaluates an operand of an operation of this kind to an integer.
+	 * Arithmetic Value objects are asked for their integer directly, which they compute without creating IntValue objects while they have the integer operation.
+	 * @param value The operand.
+	 * @param environment The DataContainer in which the operand must be evaluated.
+	 * @param args Arguments that are given for evaluating the operand.
+	 * @param output A PrintStream object that can be used to print information to the user about the evaluation.
+	 * @return The integer the operand evaluates to.
+	 * @throws EvaluationException If the evaluation did not succeed.
+	 * @throws NotAnIntegerException If the operand did not evaluate to an integer,
+	 * carrying its evaluation to the first value that can be part of an operation of this kind.
+	 */
+	long evaluateOperand(Value value, DataContainer environment, Value[] args, PrintStream output) throws EvaluationException, NotAnIntegerException {
+		if(value instanceof IntValue) return ((IntValue) value).getLong();
+		try{
+			if(value instanceof SumValue) return ((SumValue) value).evaluateLong(environment, args, output);
+			if(value instanceof SubtractionValue) return ((SubtractionValue) value).evaluateLong(environment, args, output);
+			if(value instanceof ProductValue) return ((ProductValue) value).evaluateLong(environment, args, output);
+			if(value instanceof DivisionValue) return ((DivisionValue) value).evaluateLong(environment, args, output);
+		} catch(NotAnIntegerException e){
+			throw new NotAnIntegerException(evaluateToFirstOfKind(e.getValue(), environment, args, output));
+		}
+		return toLong(evaluateToFirstOfKind(value, environment, args, output));
+	}
+
+	/**
+	 * Evaluates a Value object to the first value that can be part of an operation of this kind, such as evaluateToFirstAddable for an addition.
+	 */
+	PrimitiveValue evaluateToFirstOfKind(Value value, DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		switch(kind){
+		case SUBTRACTION:
+			return value.evaluateToFirstSubtractible(environment, args, output);
+		case MULTIPLICATION:
+			return value.evaluateToFirstMultiplicable(environment, args, output);
+		case DIVISION:
+			return value.evaluateToFirstDivisible(environment, args, output);
+		case ADDITION:
+		default:
+			return value.evaluateToFirstAddable(environment, args, output);
+		}
+	}
+
+	/**
+	 * @return The integer contained in an evaluation.
+	 * @throws NotAnIntegerException If the evaluation is not an IntValue object.
+	 */
+	static long toLong(PrimitiveValue value) throws NotAnIntegerException {
+		if(value instanceof IntValue) return ((IntValue) value).getLong();
+		throw new NotAnIntegerException(value);
+	}
+
+	/**
+	 * Performs this operation on two evaluations that it accepts.
+	 * @param a The first evaluation, already evaluated to the first value that can be part of the operation.
+	 * @param b The second evaluation, already evaluated to the first value that can be part of the operation.
+	 * @return The result of the operation.
+	 * @throws ComputationException If the operation failed.
+	 */
+	abstract PrimitiveValue apply(PrimitiveValue a, PrimitiveValue b) throws ComputationException;
+
+	/**
+	 * The operation of a Value object that was never evaluated, which accepts nothing.
+	 */
+	private static class Uninitialized extends ArithmeticOperation {
+		private Uninitialized(int kind){
+			super(kind);
+		}
+
+		@Override
+		boolean accepts(PrimitiveValue a, PrimitiveValue b){
+			return false;
+		}
+
+		@Override
+		PrimitiveValue apply(PrimitiveValue a, PrimitiveValue b) throws ComputationException {
+			return GENERIC[kind].apply(a, b);
+		}
+	}
+
+	/**
+	 * The operation on two IntValue objects.
+	 */
+	private static class IntegerOperation extends ArithmeticOperation {
+		private IntegerOperation(int kind){
+			super(kind);
+		}
+
+		@Override
+		boolean accepts(PrimitiveValue a, PrimitiveValue b){
+			return a instanceof IntValue && b instanceof IntValue;
+		}
+
+		@Override
+		PrimitiveValue apply(PrimitiveValue a, PrimitiveValue b) throws ComputationException {
+			IntValue first = (IntValue) a;
+			IntValue second = (IntValue) b;
+			switch(kind){
+			case SUBTRACTION:
+				return first.substractIntValue(second);
+			case MULTIPLICATION:
+				return first.multiplyIntValue(second);
+			case DIVISION:
+				return first.divideByIntValue(second);
+			case ADDITION:
+			default:
+				return first.addIntValue(second);
+			}
+		}
+	}
+
+	/**
+	 * The operation on any two evaluations, using the operations of PrimitiveValue.
+	 */
+	private static class GenericOperation extends ArithmeticOperation {
+		private GenericOperation(int kind){
+			super(kind);
+		}
+
+		@Override
+		boolean accepts(PrimitiveValue a, PrimitiveValue b){
+			return true;
+		}
+
+		@Override
+		PrimitiveValue apply(PrimitiveValue a, PrimitiveValue b) throws ComputationException {
+			switch(kind){
+			case SUBTRACTION:
+				return a.subtract(b);
+			case MULTIPLICATION:
+				return a.multiply(b);
+			case DIVISION:
+				return a.divideBy(b);
+			case ADDITION:
+			default:
+				return a.add(b);
+			}
+		}
+	}
+}
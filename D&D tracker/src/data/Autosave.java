@@ -0,0 +1,106 @@
+package data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically saves a DataContainer as a snapshot file on a background thread, see BinarySnapshot.
+ * The DataContainer is only saved if it was modified since it was last saved, see DataContainer.getLastModification().
+ * A ConsistentSnapshot of it is taken on the thread that modifies DataContainer objects, which only takes constant time,
+ * while the snapshot is written on the background thread.
+ */
+public final class Autosave {
+	private final DataContainer dataContainer;
+	private final String fileName;
+	private final PrintStream output;
+	private final Executor inputThread;
+	private final ScheduledExecutorService executor;
+	private long savedModification = -1;
+	private long snapshotModification;
+	private long snapshotTime;
+
+	/**
+	 * Initializes this Autosave object.
+	 * @param dataContainer The DataContainer to be saved.
+	 * @param fileName The name of the snapshot file.
+	 * @param output The PrintStream to which the result of each save is printed, which is only used on the input thread.
+	 * @param inputThread An Executor that runs tasks on the thread that modifies DataContainer objects, in between commands.
+	 */
+	public Autosave(DataContainer dataContainer, String fileName, PrintStream output, Executor inputThread){
+		this.dataContainer = dataContainer;
+		this.fileName = fileName;
+		this.output = output;
+		this.inputThread = inputThread;
+		this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread result = new Thread(runnable, "autosave");
+			result.setDaemon(true);
+			return result;
+		});
+	}
+
+	/**
+	 * Starts saving periodically.
+	 * @param interval The number of seconds between the end of a save and the start of the next one.
+	 */
+	public void start(long interval){
+		executor.scheduleWithFixedDelay(this::save, interval, interval, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * Stops saving, after finishing the save that is in progress if there is one.
+	 */
+	public void stop(){
+		executor.shutdown();
+	}
+
+	/**
+	 * @return The name of the snapshot file.
+	 */
+	public String getFileName(){
+		return fileName;
+	}
+
+	private void save(){
+		FutureTask<ConsistentSnapshot> task = new FutureTask<ConsistentSnapshot>(this::takeSnapshot);
+		inputThread.execute(task);
+		try{
+			ConsistentSnapshot snapshot = task.get();
+			if(snapshot == null) return;
+			long start = System.nanoTime();
+			snapshot.write(fileName, false);
+			savedModification = snapshotModification;
+			long duration = System.nanoTime() - start;
+			long size = new File(fileName).length();
+			report(String.format("Autosaved %d bytes to %s in %d ms, of which %.2f ms to take the snapshot.\n", size, fileName, TimeUnit.NANOSECONDS.toMillis(duration), snapshotTime / 1e6));
+		} catch(ExecutionException|IOException e){
+			Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+			report(String.format("Error: Could not autosave to %s, since: %s\n", fileName, cause.getMessage()));
+		} catch(InterruptedException e){
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the DataContainer if it was modified since it was last saved, which is done on the input thread.
+	 * @return The ConsistentSnapshot, or null if the DataContainer does not need to be saved.
+	 */
+	private ConsistentSnapshot takeSnapshot() throws DataException {
+		long start = System.nanoTime();
+		if(dataContainer.getLastModification() == savedModification) return null;
+		snapshotModification = dataContainer.getLastModification();
+		ConsistentSnapshot result = ConsistentSnapshot.take(dataContainer);
+		snapshotTime = System.nanoTime() - start;
+		return result;
+	}
+
+	private void report(String message){
+		inputThread.execute(() -> output.print(message));
+	}
+}
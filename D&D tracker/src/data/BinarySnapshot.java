@@ -0,0 +1,709 @@
+package data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import data.command.Command;
+import data.command.CommandValue;
+
+/**
+ * A class that saves Value objects in a compact binary format and loads them from it, as an alternative to saving their text.
+ * A snapshot consists of:
+ * - The bytes 'T', 'D', 'B' followed by the version of the format.
+ * - The number of names and texts and the position of the saved Value object, each in 8 bytes.
+ * - The position of each name and text in 8 bytes, such that any of them can be read without reading the others.
+ * - All names and texts, each as its length in bytes followed by its UTF-8 encoding.
+ * - The saved Value object, where each Value object is a tag that gives its type, followed by its contents.
+ * Integers are saved as variable length integers of 7 bits per byte, where signed integers are zig-zag encoded first.
+ * A DataContainer is saved with the number of bytes of its contents in 8 bytes, such that it can be skipped without reading it, see load.
+ * The size of a snapshot is not limited by the size of an array, since it is encoded in blocks, see Buffer, and read in segments, see SnapshotInput.
+ * Like the text of a Value object, a snapshot contains either the original or the simplified Value object of a SimplifiedValue object.
+ * System commands in a DataContainer are not saved, while a CommandValue elsewhere is saved by its name and loaded as a copy of the system command with that name.
+ * A DataContainer can also be saved as a separate snapshot file, in which case only the name of that file is saved, see SplitSnapshot.
+ */
+public final class BinarySnapshot {
+	public static final String FILE_EXTENSION = "tdb";
+	public static final int VERSION = 3;
+	private static final String TEMPORARY_FILE_SUFFIX = ".tmp";
+	/** A snapshot is read into memory in segments of 2^SEGMENT_BITS bytes, the largest power of two that fits in a ByteBuffer. */
+	private static final int SEGMENT_BITS = 30;
+
+	private static final byte[] HEADER = {'T','D','B'};
+
+	static final int VOID = 0;
+	static final int TRUE = 1;
+	static final int FALSE = 2;
+	static final int INTEGER = 3;
+	static final int TEXT = 4;
+	static final int NAME = 5;
+	static final int ARGUMENT = 6;
+	static final int GLOBAL = 7;
+	static final int CURRENT_DATA_CONTAINER = 8;
+	static final int SUM = 9;
+	static final int SUBTRACTION = 10;
+	static final int PRODUCT = 11;
+	static final int DIVISION = 12;
+	static final int COMPARISON = 13;
+	static final int COMPOSITE = 14;
+	static final int DICE = 15;
+	static final int SUB_VARIABLE = 16;
+	static final int PRE_EVALUATED = 17;
+	static final int INTERPRETED = 18;
+	static final int DATA_CONTAINER = 19;
+	static final int COMMAND = 20;
+	static final int PART = 21;
+
+	private static final int KEEP_ALL = 0;
+	private static final int KEEP_LOWEST = 1;
+	private static final int KEEP_HIGHEST = 2;
+
+	private BinarySnapshot(){
+	}
+
+	/**
+	 * Saves a Value object as a snapshot.
+	 * @param value The Value object to be saved.
+	 * @param output The OutputStream to which the snapshot is written. It is written in large blocks, so it need not be buffered.
+	 * @param saveSimplified TRUE if the simplification of a SimplifiedValue object should be saved, FALSE if its original Value object should be saved.
+	 * @throws IOException If writing to the OutputStream failed, or if the Value object contains a Value object that can not be saved.
+	 */
+	public static void write(Value value, OutputStream output, boolean saveSimplified) throws IOException {
+		for(Buffer result : encode(value, saveSimplified, new IdentityHashMap<DataContainer,String>(), null)) result.writeTo(output);
+	}
+
+	/**
+	 * Saves a Value object as a snapshot in a file.
+	 * The snapshot is completely encoded before it is written to a new file, which then replaces the file with the given name.
+	 * DataContainer objects that are still read lazily from the old file are not affected, since load reads the whole file into memory and closes it.
+	 * @param value The Value object to be saved.
+	 * @param fileName The name of the file.
+	 * @param saveSimplified TRUE if the simplification of a SimplifiedValue object should be saved, FALSE if its original Value object should be saved.
+	 * @throws IOException If writing the file failed, or if the Value object contains a Value object that can not be saved.
+	 */
+	public static void write(Value value, String fileName, boolean saveSimplified) throws IOException {
+		write(value, fileName, saveSimplified, new IdentityHashMap<DataContainer,String>(), null);
+	}
+
+	/**
+	 * Saves a Value object as a snapshot in a file like write, where some DataContainer objects are saved as a reference to another snapshot file.
+	 * @param parts The DataContainer objects that are saved as a reference, with the name of their file relative to the directory of the given file.
+	 * @param snapshot The ConsistentSnapshot from which the contents of DataContainer objects are obtained, or null if they are obtained directly.
+	 */
+	static void write(Value value, String fileName, boolean saveSimplified, Map<DataContainer,String> parts, ConsistentSnapshot snapshot) throws IOException {
+		Buffer[] result = encode(value, saveSimplified, parts, snapshot);
+		java.nio.file.Path file = Paths.get(fileName);
+		java.nio.file.Path temporaryFile = Paths.get(fileName + TEMPORARY_FILE_SUFFIX);
+		try{
+			try(OutputStream output = Files.newOutputStream(temporaryFile)){
+				for(Buffer buffer : result) buffer.writeTo(output);
+			}
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally{
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Encodes a Value object as a snapshot.
+	 * @return The Buffer objects that form the snapshot in order: the header and the table of names and texts, followed by the saved Value object.
+	 */
+	private static Buffer[] encode(Value value, boolean saveSimplified, Map<DataContainer,String> parts, ConsistentSnapshot snapshot) throws IOException {
+		SnapshotWriter writer = new SnapshotWriter(saveSimplified, parts, snapshot);
+		writer.writeValue(value);
+		Buffer result = new Buffer();
+		result.writeBytes(HEADER, HEADER.length);
+		result.writeVarLong(VERSION);
+		long tablePosition = result.size;
+		result.writeZeros(16 + 8L * writer.strings.size());
+		for(int i = 0; i < writer.strings.size(); i++){
+			byte[] string = writer.strings.get(i).getBytes(StandardCharsets.UTF_8);
+			result.writeLongAt(tablePosition + 16 + 8L * i, result.size);
+			result.writeVarLong(string.length);
+			result.writeBytes(string, string.length);
+		}
+		result.writeLongAt(tablePosition, writer.strings.size());
+		result.writeLongAt(tablePosition + 8, result.size);
+		return new Buffer[]{result, writer.buffer};
+	}
+
+	/**
+	 * Checks whether a file is a snapshot, by checking whether it starts with the header of a snapshot.
+	 * @param fileName The name of the file.
+	 * @return TRUE if the file starts with the header of a snapshot, FALSE otherwise.
+	 * @throws IOException If the file could not be read.
+	 */
+	public static boolean isSnapshot(String fileName) throws IOException {
+		try(InputStream input = new FileInputStream(fileName)){
+			for(int i = 0; i < HEADER.length; i++){
+				if(input.read() != HEADER[i]) return false;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Loads a Value object from a snapshot completely.
+	 * @param input The InputStream from which the snapshot is read completely.
+	 * @param environment A DataContainer whose top level contains the system commands, which are used to load saved CommandValue objects.
+	 * @return The Value object that was saved in the snapshot.
+	 * @throws IOException If reading from the InputStream failed.
+	 * @throws DataException If the snapshot is not valid.
+	 */
+	public static Value read(InputStream input, DataContainer environment) throws IOException, DataException {
+		List<ByteBuffer> segments = new ArrayList<ByteBuffer>();
+		long size = 0;
+		ByteArrayOutputStream segment = new ByteArrayOutputStream();
+		byte[] buffer = new byte[1 << 16];
+		for(int read = 0; read != -1; read = input.read(buffer, 0, Math.min(buffer.length, (1 << SEGMENT_BITS) - segment.size()))){
+			segment.write(buffer, 0, read);
+			if(segment.size() < 1 << SEGMENT_BITS) continue;
+			segments.add(ByteBuffer.wrap(segment.toByteArray()));
+			size += segment.size();
+			segment = new ByteArrayOutputStream();
+		}
+		segments.add(ByteBuffer.wrap(segment.toByteArray()));
+		size += segment.size();
+		return read(new SnapshotInput(segments.toArray(new ByteBuffer[segments.size()]), SEGMENT_BITS, size), environment, null);
+	}
+
+	/**
+	 * Loads a Value object from a snapshot file without decoding the DataContainer objects in it.
+	 * The file is read into memory, in several segments if it is bigger than a ByteBuffer, and closed again.
+	 * Each DataContainer object only decodes its DataPairs when they are first needed, simplifying their Value objects like ValueSimplifier.simplify.
+	 * DataContainer objects that were saved as separate snapshot files are only read once they are needed, and are then decoded in the same way, see SplitSnapshot.
+	 * The file is not mapped into memory, because Java never unmaps a file before the mapping is garbage collected,
+	 * and on some systems a file that is still mapped can not be replaced, as save and Journal.checkpoint do.
+	 * @param fileName The name of the file.
+	 * @param environment A DataContainer whose top level contains the system commands, which are used to load saved CommandValue objects.
+	 * @return The Value object that was saved in the snapshot, which is simplified unless it is a DataContainer.
+	 * @throws IOException If the file could not be read.
+	 * @throws DataException If the snapshot is not valid.
+	 */
+	public static Value load(String fileName, DataContainer environment) throws IOException, DataException {
+		return load(fileName, environment, SEGMENT_BITS);
+	}
+
+	/**
+	 * Loads a Value object from a snapshot file like load, where the file and its separate files are read into memory in segments of the given size.
+	 * @param segmentBits The size of each segment is 2^segmentBits bytes, which can be at most 2^SEGMENT_BITS bytes.
+	 */
+	static Value load(String fileName, DataContainer environment, int segmentBits) throws IOException, DataException {
+		java.nio.file.Path file = Paths.get(fileName);
+		Value result = read(readFile(file, segmentBits), environment, file.toAbsolutePath().getParent());
+		return result instanceof DataContainer ? result : ValueSimplifier.simplify(result);
+	}
+
+	private static SnapshotInput readFile(java.nio.file.Path file, int segmentBits) throws IOException {
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)){
+			long size = channel.size();
+			ByteBuffer[] segments = new ByteBuffer[(int) Math.max(1, (size + (1L << segmentBits) - 1) >>> segmentBits)];
+			long read = 0;
+			for(int i = 0; i < segments.length; i++){
+				segments[i] = ByteBuffer.allocate((int) Math.min(1L << segmentBits, size - ((long) i << segmentBits)));
+				while(segments[i].hasRemaining() && channel.read(segments[i]) != -1);
+				segments[i].flip();
+				read += segments[i].limit();
+			}
+			return new SnapshotInput(segments, segmentBits, read);
+		}
+	}
+
+	private static Value read(SnapshotInput input, DataContainer environment, java.nio.file.Path directory) throws DataException {
+		try{
+			return open(input, environment, directory).readValue();
+		} catch(RuntimeException e){
+			throw new DataException(String.format("The snapshot is damaged, since: %s", e.toString()), e);
+		}
+	}
+
+	/**
+	 * Reads the header and the table of names and texts of a snapshot.
+	 * @return A SnapshotReader that reads the saved Value object of the snapshot.
+	 */
+	private static SnapshotReader open(SnapshotInput input, DataContainer environment, java.nio.file.Path directory) throws DataException {
+		for(int i = 0; i < HEADER.length; i++){
+			if(input.get() != HEADER[i]) throw new DataException("The file is not a snapshot.");
+		}
+		SnapshotReader reader = new SnapshotReader(input, null, environment, directory);
+		long version = reader.readVarLong();
+		if(version != VERSION) throw new DataException(String.format("Can not load snapshots of version %d, only of version %d.", version, VERSION));
+		long numberOfStrings = input.getLong();
+		long rootPosition = input.getLong();
+		if(numberOfStrings < 0 || numberOfStrings > input.remaining() / 8 || numberOfStrings > Integer.MAX_VALUE) throw new DataException("The snapshot is damaged, since its table of texts is too big.");
+		return reader.at(input.position(), (int) numberOfStrings).at(rootPosition);
+	}
+
+	/**
+	 * The DataPairs of a DataContainer in a snapshot that have not been read yet, see load.
+	 * These are either part of a snapshot that is already opened, or form a separate snapshot file that is opened once they are read, see SplitSnapshot.
+	 */
+	static final class LazyContents {
+		private final SnapshotReader reader;
+		private final java.nio.file.Path part;
+		private final DataContainer environment;
+		private final int segmentBits;
+
+		private LazyContents(SnapshotReader reader){
+			this.reader = reader;
+			this.part = null;
+			this.environment = null;
+			this.segmentBits = 0;
+		}
+
+		private LazyContents(java.nio.file.Path part, DataContainer environment, int segmentBits){
+			this.reader = null;
+			this.part = part;
+			this.environment = environment;
+			this.segmentBits = segmentBits;
+		}
+
+		private SnapshotReader openPart() throws DataException {
+			try{
+				SnapshotReader result = open(readFile(part, segmentBits), environment, part.getParent());
+				if(result.input.get() != DATA_CONTAINER) throw new DataException(String.format("The separate file \'%s\' does not contain a collection.", part));
+				result.input.getLong();
+				return result;
+			} catch(IOException e){
+				throw new DataException(String.format("Could not load the separate file \'%s\', since: %s", part, e.getMessage()), e);
+			}
+		}
+
+		/**
+		 * Reads the DataPairs and puts them in the DataContainer they belong to.
+		 * @param dataContainer The DataContainer object that is read lazily.
+		 * @param dataSet The map in which the aforementioned DataContainer object stores its DataPairs by name.
+		 * @throws IllegalStateException If the snapshot turns out to be damaged.
+		 */
+		void readInto(DataContainer dataContainer, Map<String,DataPair> dataSet){
+			try{
+				SnapshotReader contents = part == null ? reader : openPart();
+				int numberOfEntries = contents.readCount();
+				for(int i = 0; i < numberOfEntries; i++){
+					String name = contents.readString();
+					Value value = contents.readValue();
+					if(!(value instanceof DataContainer)) value = ValueSimplifier.simplify(value);
+					dataSet.put(name, new DataPair(name, value, dataContainer));
+				}
+			} catch(DataException|RuntimeException e){
+				throw new IllegalStateException(String.format("The snapshot that %s was loaded from is damaged, since: %s", dataContainer.getPath(), e.getMessage()), e);
+			}
+		}
+	}
+
+	/**
+	 * A growable sequence of bytes, in which some bytes can be overwritten after they have been written.
+	 * The bytes are kept in blocks of 2^BLOCK_BITS bytes, such that the size is not limited by the size of an array and no bytes are copied as it grows.
+	 */
+	private static class Buffer {
+		private static final int BLOCK_BITS = 16;
+		private final List<byte[]> blocks = new ArrayList<byte[]>();
+		private long size = 0;
+
+		/**
+		 * @return The block in which the next byte is written, which is added if the last block is full.
+		 */
+		private byte[] lastBlock(){
+			if(size == (long) blocks.size() << BLOCK_BITS) blocks.add(new byte[1 << BLOCK_BITS]);
+			return blocks.get(blocks.size() - 1);
+		}
+
+		private void writeByte(int b){
+			lastBlock()[(int) (size & ((1 << BLOCK_BITS) - 1))] = (byte) b;
+			size++;
+		}
+
+		private void writeBytes(byte[] b, int length){
+			for(int written = 0; written < length;){
+				byte[] block = lastBlock();
+				int offset = (int) (size & ((1 << BLOCK_BITS) - 1));
+				int count = Math.min(length - written, block.length - offset);
+				System.arraycopy(b, written, block, offset, count);
+				written += count;
+				size += count;
+			}
+		}
+
+		private void writeZeros(long length){
+			for(long i = 0; i < length; i++) writeByte(0);
+		}
+
+		private void writeVarLong(long number){
+			while((number & ~0x7FL) != 0){
+				writeByte((int) ((number & 0x7F) | 0x80));
+				number >>>= 7;
+			}
+			writeByte((int) number);
+		}
+
+		private void writeLongAt(long position, long number){
+			for(int i = 0; i < 8; i++){
+				long at = position + i;
+				blocks.get((int) (at >>> BLOCK_BITS))[(int) (at & ((1 << BLOCK_BITS) - 1))] = (byte) (number >>> (56 - 8 * i));
+			}
+		}
+
+		private void writeTo(OutputStream output) throws IOException {
+			for(int i = 0; i < blocks.size(); i++) output.write(blocks.get(i), 0, (int) Math.min(1 << BLOCK_BITS, size - ((long) i << BLOCK_BITS)));
+		}
+	}
+
+	/**
+	 * Writes Value objects into a Buffer, while collecting the table of names and texts.
+	 */
+	private static class SnapshotWriter {
+		private final boolean saveSimplified;
+		private final Map<DataContainer,String> parts;
+		private final ConsistentSnapshot snapshot;
+		private final Buffer buffer = new Buffer();
+		private final List<String> strings = new ArrayList<String>();
+		private final Map<String,Integer> stringIndices = new HashMap<String,Integer>();
+
+		private SnapshotWriter(boolean saveSimplified, Map<DataContainer,String> parts, ConsistentSnapshot snapshot){
+			this.saveSimplified = saveSimplified;
+			this.parts = parts;
+			this.snapshot = snapshot;
+		}
+
+		private void writeString(String string){
+			Integer index = stringIndices.get(string);
+			if(index == null){
+				index = strings.size();
+				strings.add(string);
+				stringIndices.put(string, index);
+			}
+			buffer.writeVarLong(index);
+		}
+
+		private void writeValues(Value... values) throws IOException {
+			for(Value value : values) writeValue(value);
+		}
+
+		private void writeValue(Value value) throws IOException {
+			if(value instanceof BoundArgument) writeValue(((BoundArgument) value).resolve());
+			else if(value instanceof VoidValue) buffer.writeByte(VOID);
+			else if(value instanceof BooleanValue) buffer.writeByte(((BooleanValue) value).getBool() ? TRUE : FALSE);
+			else if(value instanceof IntValue){
+				long number = ((IntValue) value).getLong();
+				buffer.writeByte(INTEGER);
+				buffer.writeVarLong((number << 1) ^ (number >> 63));
+			} else if(value instanceof TextValue){
+				buffer.writeByte(TEXT);
+				writeString(((TextValue) value).getText());
+			} else if(value instanceof NamedValue){
+				buffer.writeByte(NAME);
+				writeString(value.toString());
+			} else if(value instanceof ArgumentValue){
+				buffer.writeByte(ARGUMENT);
+				buffer.writeVarLong(((ArgumentValue) value).getNumber());
+			} else if(value instanceof GlobalValue) buffer.writeByte(GLOBAL);
+			else if(value instanceof CurrentDataContainerValue) buffer.writeByte(CURRENT_DATA_CONTAINER);
+			else if(value instanceof SumValue){
+				Value[] values = ((SumValue) value).getValues();
+				buffer.writeByte(SUM);
+				buffer.writeVarLong(values.length);
+				writeValues(values);
+			} else if(value instanceof SubtractionValue){
+				buffer.writeByte(SUBTRACTION);
+				writeValues(((SubtractionValue) value).getFirstValue(), ((SubtractionValue) value).getSecondValue());
+			} else if(value instanceof ProductValue){
+				buffer.writeByte(PRODUCT);
+				writeValues(((ProductValue) value).getFirstValue(), ((ProductValue) value).getSecondValue());
+			} else if(value instanceof DivisionValue){
+				buffer.writeByte(DIVISION);
+				writeValues(((DivisionValue) value).getFirstValue(), ((DivisionValue) value).getSecondValue());
+			} else if(value instanceof ComparisonValue){
+				ComparisonValue comparison = (ComparisonValue) value;
+				buffer.writeByte(COMPARISON);
+				buffer.writeVarLong(comparison.getComparisonType() - ComparisonValue.LESS_THAN);
+				writeValues(comparison.getFirstValue(), comparison.getSecondValue());
+			} else if(value instanceof CompositeValue){
+				CompositeValue composite = (CompositeValue) value;
+				buffer.writeByte(COMPOSITE);
+				writeValue(composite.getValue());
+				buffer.writeVarLong(composite.getArguments().length);
+				writeValues(composite.getArguments());
+			} else if(value instanceof DiceValue){
+				DiceValue dice = (DiceValue) value;
+				buffer.writeByte(DICE);
+				buffer.writeByte(dice.keepsLowest() ? KEEP_LOWEST : dice.keepsHighest() ? KEEP_HIGHEST : KEEP_ALL);
+				writeValues(dice.getNumberOfRolls(), dice.getSizeOfDice());
+				if(dice.keepsLowest() || dice.keepsHighest()) writeValue(dice.getNumberToKeep());
+			} else if(value instanceof SubVariableValue){
+				SubVariableValue subVariable = (SubVariableValue) value;
+				buffer.writeByte(SUB_VARIABLE);
+				buffer.writeVarLong(subVariable.getLevel());
+				writeValues(subVariable.getTopValue(), subVariable.getSubValue());
+			} else if(value instanceof PreEvaluatedValue){
+				buffer.writeByte(PRE_EVALUATED);
+				buffer.writeVarLong(((PreEvaluatedValue) value).getDelay());
+				writeValue(((PreEvaluatedValue) value).getValue());
+			} else if(value instanceof InterpretedValue){
+				buffer.writeByte(INTERPRETED);
+				writeValue(((InterpretedValue) value).getValue());
+			} else if(value instanceof SimplifiedValue){
+				SimplifiedValue simplified = (SimplifiedValue) value;
+				writeValue(saveSimplified ? simplified.getSimplifiedValue() : simplified.getOriginalValue());
+			} else if(value instanceof DataContainer && parts.containsKey(value)){
+				buffer.writeByte(PART);
+				writeString(parts.get(value));
+			} else if(value instanceof DataContainer) writeDataContainer((DataContainer) value);
+			else if(value instanceof CommandValue){
+				buffer.writeByte(COMMAND);
+				writeString(((CommandValue) value).getDefaultName());
+			} else throw new IOException(String.format("Can not save a value of type \'%s\' in a snapshot.", value.getTypeName()));
+		}
+
+		private void writeDataContainer(DataContainer dataContainer) throws IOException {
+			buffer.writeByte(DATA_CONTAINER);
+			long lengthPosition = buffer.size;
+			buffer.writeZeros(8);
+			long start = buffer.size;
+			Map<String,Value> contents = snapshot == null ? ConsistentSnapshot.getContents(dataContainer) : snapshot.readContents(dataContainer);
+			buffer.writeVarLong(contents.size());
+			for(Map.Entry<String,Value> data : contents.entrySet()){
+				writeString(data.getKey());
+				writeValue(data.getValue());
+			}
+			buffer.writeLongAt(lengthPosition, buffer.size - start);
+		}
+	}
+
+	/**
+	 * The bytes of a snapshot, kept in segments of 2^segmentBits bytes, such that its size is not limited by the size of a ByteBuffer.
+	 * Each SnapshotInput object has its own position, while the segments, which are only read at absolute positions, are shared with its duplicates.
+	 * Reading outside the snapshot throws an IndexOutOfBoundsException.
+	 */
+	private static class SnapshotInput {
+		private final ByteBuffer[] segments;
+		private final int segmentBits;
+		private final long size;
+		private long position = 0;
+
+		private SnapshotInput(ByteBuffer[] segments, int segmentBits, long size){
+			this.segments = segments;
+			this.segmentBits = segmentBits;
+			this.size = size;
+		}
+
+		private SnapshotInput duplicate(){
+			SnapshotInput result = new SnapshotInput(segments, segmentBits, size);
+			result.position = position;
+			return result;
+		}
+
+		private long position(){
+			return position;
+		}
+
+		private void position(long position){
+			if(position < 0 || position > size) throw new IndexOutOfBoundsException(String.format("The position %d is outside the snapshot of %d bytes.", position, size));
+			this.position = position;
+		}
+
+		private long remaining(){
+			return size - position;
+		}
+
+		private byte get(long at){
+			if(at < 0 || at >= size) throw new IndexOutOfBoundsException(String.format("The position %d is outside the snapshot of %d bytes.", at, size));
+			return segments[(int) (at >>> segmentBits)].get((int) (at & ((1L << segmentBits) - 1)));
+		}
+
+		private byte get(){
+			byte result = get(position);
+			position++;
+			return result;
+		}
+
+		private long getLong(long at){
+			long result = 0;
+			for(int i = 0; i < 8; i++) result = (result << 8) | (get(at + i) & 0xFF);
+			return result;
+		}
+
+		private long getLong(){
+			long result = getLong(position);
+			position += 8;
+			return result;
+		}
+
+		private void get(byte[] bytes){
+			if(bytes.length > remaining()) throw new IndexOutOfBoundsException(String.format("The snapshot of %d bytes ends before position %d.", size, position + bytes.length));
+			for(int read = 0; read < bytes.length;){
+				ByteBuffer segment = segments[(int) (position >>> segmentBits)].duplicate();
+				segment.position((int) (position & ((1L << segmentBits) - 1)));
+				int count = Math.min(bytes.length - read, segment.remaining());
+				segment.get(bytes, read, count);
+				read += count;
+				position += count;
+			}
+		}
+	}
+
+	/**
+	 * Reads Value objects from a SnapshotInput that contains a snapshot.
+	 * The table of names and texts is shared by all SnapshotReader objects for the same snapshot, and each text is decoded only once.
+	 */
+	private static class SnapshotReader {
+		private final SnapshotInput input;
+		private final Map<Integer,String> strings;
+		private final DataContainer environment;
+		private final java.nio.file.Path directory;
+		private long tablePosition;
+		private int numberOfStrings;
+
+		/**
+		 * @param directory The directory of the snapshot file if it is loaded lazily, or null if it is read completely.
+		 */
+		private SnapshotReader(SnapshotInput input, Map<Integer,String> strings, DataContainer environment, java.nio.file.Path directory){
+			this.input = input;
+			this.strings = strings;
+			this.environment = environment;
+			this.directory = directory;
+		}
+
+		/**
+		 * @return A SnapshotReader object for the same snapshot that reads from the given position.
+		 */
+		private SnapshotReader at(long position){
+			SnapshotReader result = new SnapshotReader(input.duplicate(), strings, environment, directory);
+			result.input.position(position);
+			result.tablePosition = tablePosition;
+			result.numberOfStrings = numberOfStrings;
+			return result;
+		}
+
+		/**
+		 * @return A SnapshotReader object for the same snapshot that uses the table of names and texts at the given position.
+		 */
+		private SnapshotReader at(long tablePosition, int numberOfStrings){
+			SnapshotReader result = new SnapshotReader(input, new HashMap<Integer,String>(), environment, directory);
+			result.tablePosition = tablePosition;
+			result.numberOfStrings = numberOfStrings;
+			return result;
+		}
+
+		private long readVarLong() throws DataException {
+			long result = 0;
+			for(int shift = 0; shift < 64; shift += 7){
+				int b = input.get();
+				result |= (long) (b & 0x7F) << shift;
+				if((b & 0x80) == 0) return result;
+			}
+			throw new DataException("The snapshot contains an integer that is too big.");
+		}
+
+		private int readCount() throws DataException {
+			long count = readVarLong();
+			if(count < 0 || count > input.remaining() || count > Integer.MAX_VALUE) throw new DataException(String.format("The snapshot contains an invalid number of elements: %d.", count));
+			return (int) count;
+		}
+
+		private String readString() throws DataException {
+			long index = readVarLong();
+			if(index < 0 || index >= numberOfStrings) throw new DataException(String.format("The snapshot refers to a text that does not exist: %d.", index));
+			String result = strings.get((int) index);
+			if(result == null){
+				SnapshotReader stringReader = at(input.getLong(tablePosition + 8 * index));
+				byte[] bytes = new byte[stringReader.readCount()];
+				stringReader.input.get(bytes);
+				result = new String(bytes, StandardCharsets.UTF_8);
+				strings.put((int) index, result);
+			}
+			return result;
+		}
+
+		private Value[] readValues(int count) throws DataException {
+			Value[] result = new Value[count];
+			for(int i = 0; i < count; i++) result[i] = readValue();
+			return result;
+		}
+
+		private Value readValue() throws DataException {
+			int tag = input.get();
+			switch(tag){
+			case VOID: return VoidValue.VOID;
+			case TRUE: return BooleanValue.TRUE;
+			case FALSE: return BooleanValue.FALSE;
+			case INTEGER:
+				long number = readVarLong();
+				return IntValue.of((number >>> 1) ^ -(number & 1));
+			case TEXT: return new TextValue(readString());
+			case NAME: return new NamedValue(readString());
+			case ARGUMENT: return new ArgumentValue((int) readVarLong());
+			case GLOBAL: return new GlobalValue();
+			case CURRENT_DATA_CONTAINER: return new CurrentDataContainerValue();
+			case SUM: return new SumValue(readValues(readCount()));
+			case SUBTRACTION: return new SubtractionValue(readValue(), readValue());
+			case PRODUCT: return new ProductValue(readValue(), readValue());
+			case DIVISION: return new DivisionValue(readValue(), readValue());
+			case COMPARISON:
+				int type = (int) readVarLong() + ComparisonValue.LESS_THAN;
+				return new ComparisonValue(readValue(), readValue(), type);
+			case COMPOSITE: return new CompositeValue(readValue(), readValues(readCount()));
+			case DICE:
+				int keep = input.get();
+				Value numberOfRolls = readValue();
+				Value sizeOfDice = readValue();
+				if(keep == KEEP_ALL) return new DiceValue(numberOfRolls, sizeOfDice);
+				return new DiceValue(numberOfRolls, sizeOfDice, readValue(), keep == KEEP_LOWEST);
+			case SUB_VARIABLE:
+				int level = (int) readVarLong();
+				return new SubVariableValue(readValue(), readValue(), level);
+			case PRE_EVALUATED:
+				int delay = (int) readVarLong();
+				return new PreEvaluatedValue(readValue(), delay);
+			case INTERPRETED: return new InterpretedValue(readValue());
+			case DATA_CONTAINER: return readDataContainer();
+			case COMMAND: return readCommand(readString());
+			case PART: return readPart(readString());
+			default: throw new DataException(String.format("The snapshot contains a value of unknown type %d.", tag));
+			}
+		}
+
+		private DataContainer readDataContainer() throws DataException {
+			long length = input.getLong();
+			if(directory != null){
+				DataContainer result = new DataContainer(new LazyContents(at(input.position())));
+				input.position(input.position() + length);
+				return result;
+			}
+			DataContainer result = new DataContainer();
+			int numberOfEntries = readCount();
+			for(int i = 0; i < numberOfEntries; i++){
+				String name = readString();
+				result.addData(name, readValue());
+			}
+			return result;
+		}
+
+		private DataContainer readPart(String name) throws DataException {
+			if(directory == null) throw new DataException(String.format("The snapshot refers to the separate file \'%s\', which can only be loaded when the snapshot is loaded from a file.", name));
+			java.nio.file.Path file = directory.resolve(name);
+			DataContainer result = new DataContainer(new LazyContents(file, environment, input.segmentBits));
+			SplitSnapshot.registerPart(file, result);
+			return result;
+		}
+
+		private CommandValue readCommand(String name) throws DataException {
+			DataPair command = environment.getTopLevel().findDataAbsolute(name);
+			if(command instanceof Command) return (CommandValue) command.getValue().copy();
+			throw new DataException(String.format("The snapshot contains the system command \'%s\', which does not exist.", name));
+		}
+	}
+}
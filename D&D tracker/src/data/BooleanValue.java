@@ -9,6 +9,8 @@ public class BooleanValue implements PrimitiveValue {
 	public static final String[] VALUE_TYPE_NAMES = {"boolean","bool"};
 	public static final String TRUE_TEXT = "TRUE";
 	public static final String FALSE_TEXT = "FALSE";
+	public static final BooleanValue TRUE = new BooleanValue(true);
+	public static final BooleanValue FALSE = new BooleanValue(false);
 	
 	private boolean flag;
 	
@@ -20,6 +22,15 @@ public class BooleanValue implements PrimitiveValue {
 		flag = value;
 	}
 	
+	/**
+	 * Gives the shared BooleanValue object with the given value.
+	 * @param value a Boolean value.
+	 * @return TRUE if the given value is true, FALSE otherwise.
+	 */
+	public static BooleanValue of(boolean value){
+		return value ? TRUE : FALSE;
+	}
+	
 	public String getTypeName() {
 		return VALUE_TYPE_NAMES[0];
 	}
@@ -56,7 +67,7 @@ public class BooleanValue implements PrimitiveValue {
 	 * Throws a ComputationException in all other cases.
 	 */
 	public PrimitiveValue add(PrimitiveValue other) throws ComputationException {
-		if(other instanceof BooleanValue) return new BooleanValue(flag || ((BooleanValue) other).flag);
+		if(other instanceof BooleanValue) return of(flag || ((BooleanValue) other).flag);
 		if(other instanceof VoidValue) return this;
 		throw new ComputationException(String.format("Can not add %s to %s.",getTypeName(),other.getTypeName()));
 	}
@@ -69,7 +80,7 @@ public class BooleanValue implements PrimitiveValue {
 	 */
 	@Override
 	public PrimitiveValue subtract(PrimitiveValue other) throws ComputationException {
-		if(other instanceof BooleanValue) return new BooleanValue(flag || (!((BooleanValue) other).flag));
+		if(other instanceof BooleanValue) return of(flag || (!((BooleanValue) other).flag));
 		if(other instanceof VoidValue) return this;
 		throw new ComputationException(String.format("Can not subtract %s from %s.",other.getTypeName(),this.getTypeName()));
 	}
@@ -82,7 +93,7 @@ public class BooleanValue implements PrimitiveValue {
 	 */
 	@Override
 	public PrimitiveValue multiply(PrimitiveValue other) throws ComputationException {
-		if(other instanceof BooleanValue) return new BooleanValue(flag && ((BooleanValue) other).flag);
+		if(other instanceof BooleanValue) return of(flag && ((BooleanValue) other).flag);
 		if(other instanceof VoidValue) return this;
 		throw new ComputationException(String.format("Can not multiply %s with %s.",getTypeName(),other.getTypeName()));
 	}
@@ -95,7 +106,7 @@ public class BooleanValue implements PrimitiveValue {
 	 */
 	@Override
 	public PrimitiveValue divideBy(PrimitiveValue other) throws ComputationException {
-		if(other instanceof BooleanValue) return new BooleanValue(flag && (!((BooleanValue) other).flag));
+		if(other instanceof BooleanValue) return of(flag && (!((BooleanValue) other).flag));
 		if(other instanceof VoidValue) return this;
 		throw new ComputationException(String.format("Can not divide %s by %s.",getTypeName(),other.getTypeName()));
 	}
@@ -152,6 +163,16 @@ public class BooleanValue implements PrimitiveValue {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
 	}
 }
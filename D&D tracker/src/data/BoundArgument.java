@@ -0,0 +1,191 @@
+package data;
+
+import java.io.PrintStream;
+
+/**
+ * A Value object that represents an argument given to a CompositeValue, together with the arguments that were given when the CompositeValue was evaluated.
+ * The ArgumentValue objects in the argument refer to these arguments, such that the argument does not need to be copied with its ArgumentValue objects replaced.
+ * This means that a nested call like f(g(#1),#2) still evaluates #1 and #2 as the arguments given to the call itself.
+ * Commands inspect their arguments rather than only evaluating them, so they are given the arguments with all ArgumentValue objects replaced, see resolve.
+ */
+class BoundArgument implements Value {
+	private static final ThreadLocal<Value[]> currentFrame = new ThreadLocal<Value[]>();
+
+	private final Value value;
+	private final Value[] frame;
+	private Value resolved;
+	private int purity = Purity.NOT_ANALYZED;
+
+	/**
+	 * Initializes this BoundArgument object.
+	 * @param value The Value object that was given as an argument.
+	 * @param frame The arguments that the ArgumentValue objects in the aforementioned Value object refer to.
+	 */
+	BoundArgument(Value value, Value[] frame){
+		this.value = value;
+		this.frame = frame;
+	}
+
+	/**
+	 * Replaces all BoundArgument objects in an array of arguments by the Value objects they represent.
+	 * @param args An array of arguments.
+	 * @return The given array if it contains no BoundArgument objects, or a new array in which every BoundArgument object is replaced by its Value object with the ArgumentValue objects replaced otherwise.
+	 */
+	static Value[] resolve(Value[] args){
+		Value[] result = args;
+		for(int i = 0; i < args.length; i++){
+			if(args[i] instanceof BoundArgument){
+				if(result == args) result = args.clone();
+				result[i] = ((BoundArgument) args[i]).resolve();
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the given arguments are the ones a BoundArgument object that is currently being evaluated is bound to.
+	 * @param args An array of arguments.
+	 * @return TRUE if the given arguments are the arguments of the innermost BoundArgument object being evaluated, FALSE otherwise.
+	 */
+	static boolean isBound(Value[] args){
+		return currentFrame.get() == args;
+	}
+
+	private Value[] enterFrame(){
+		Value[] previousFrame = currentFrame.get();
+		currentFrame.set(frame);
+		return previousFrame;
+	}
+
+	/**
+	 * Gives the Value object represented by this BoundArgument, in which all ArgumentValue objects are replaced by the arguments they refer to.
+	 * The result is remembered, such that resolving a chain of nested calls does not resolve the arguments of the outer calls again.
+	 * @return A copy of the Value object of this BoundArgument with its ArgumentValue objects replaced.
+	 */
+	Value resolve(){
+		EvaluationCache.markArgumentsRead(frame);
+		if(resolved == null) resolved = value.replaceArgumentsBy(resolve(frame));
+		return resolved;
+	}
+
+	public String getTypeName() {
+		return value.getTypeName();
+	}
+
+	public String[] getAlternativeTypeNames() {
+		return value.getAlternativeTypeNames();
+	}
+
+	@Override
+	public Value copy() {
+		return new BoundArgument(value.copy(), frame);
+	}
+
+	/**
+	 * Evaluates the Value object of this BoundArgument with the arguments it is bound to.
+	 */
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		Value[] previousFrame = enterFrame();
+		try{
+			return value.evaluate(environment, frame, output);
+		} finally{
+			currentFrame.set(previousFrame);
+		}
+	}
+
+	@Override
+	public int compareTo(Value o) {
+		return value.compareTo(o instanceof BoundArgument ? ((BoundArgument) o).value : o);
+	}
+
+	public String toString(){
+		return value.toString();
+	}
+
+	/**
+	 * Returns the resolved Value object, since the given arguments are not the ones this BoundArgument refers to.
+	 */
+	@Override
+	public Value replaceArgumentsBy(Value[] args) {
+		return resolve();
+	}
+
+	@Override
+	public boolean equals(Value other) {
+		return value.equals(other instanceof BoundArgument ? ((BoundArgument) other).value : other);
+	}
+
+	@Override
+	public DataContainer evaluateToFirstDataContainer(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		Value[] previousFrame = enterFrame();
+		try{
+			return value.evaluateToFirstDataContainer(environment, frame, output);
+		} finally{
+			currentFrame.set(previousFrame);
+		}
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstAddable(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		Value[] previousFrame = enterFrame();
+		try{
+			return value.evaluateToFirstAddable(environment, frame, output);
+		} finally{
+			currentFrame.set(previousFrame);
+		}
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstSubtractible(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		Value[] previousFrame = enterFrame();
+		try{
+			return value.evaluateToFirstSubtractible(environment, frame, output);
+		} finally{
+			currentFrame.set(previousFrame);
+		}
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstMultiplicable(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		Value[] previousFrame = enterFrame();
+		try{
+			return value.evaluateToFirstMultiplicable(environment, frame, output);
+		} finally{
+			currentFrame.set(previousFrame);
+		}
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstDivisible(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		Value[] previousFrame = enterFrame();
+		try{
+			return value.evaluateToFirstDivisible(environment, frame, output);
+		} finally{
+			currentFrame.set(previousFrame);
+		}
+	}
+
+	@Override
+	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		if(!value.containsPreEvaluatedValue()) return this;
+		return new BoundArgument(value.getPreEvaluation(environment, frame, output), frame);
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return value.containsPreEvaluatedValue();
+	}
+
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.combine(value.getPurity(), Purity.of(frame));
+		return purity;
+	}
+}
@@ -18,6 +18,8 @@ public class ComparisonValue implements Value{
 	private Value a;
 	private Value b;
 	private int type;
+	private int purity = Purity.NOT_ANALYZED;
+	private final boolean containsPreEvaluatedValue;
 	
 	/**
 	 * Initializes this EquationValue object as the equation between two given Value objects.
@@ -32,6 +34,28 @@ public class ComparisonValue implements Value{
 		this.a = a;
 		this.b = b;
 		this.type = type;
+		containsPreEvaluatedValue = a.containsPreEvaluatedValue() || b.containsPreEvaluatedValue();
+	}
+
+	/**
+	 * @return The first Value object of this ComparisonValue object.
+	 */
+	Value getFirstValue(){
+		return a;
+	}
+
+	/**
+	 * @return The second Value object of this ComparisonValue object.
+	 */
+	Value getSecondValue(){
+		return b;
+	}
+
+	/**
+	 * @return The type of comparison made by this ComparisonValue object, such as EQUAL or LESS_THAN.
+	 */
+	int getComparisonType(){
+		return type;
 	}
 
 	public String getTypeName() {
@@ -55,17 +79,17 @@ public class ComparisonValue implements Value{
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		switch(type){
 		case EQUAL:
-			return new BooleanValue(a.evaluate(environment, args, output).equals(b.evaluate(environment, args, output)));
+			return BooleanValue.of(a.evaluate(environment, args, output).equals(b.evaluate(environment, args, output)));
 		case LESS_THAN:
-			return new BooleanValue(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) < 0);
+			return BooleanValue.of(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) < 0);
 		case MORE_THAN:
-			return new BooleanValue(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) > 0);
+			return BooleanValue.of(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) > 0);
 		case LESS_THAN_OR_EQUAL:
-			return new BooleanValue(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) <= 0);
+			return BooleanValue.of(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) <= 0);
 		case MORE_THAN_OR_EQUAL:
-			return new BooleanValue(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) >= 0);
+			return BooleanValue.of(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) >= 0);
 		default:
-			return new BooleanValue(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) == 0);
+			return BooleanValue.of(a.evaluate(environment, args, output).compareTo(b.evaluate(environment, args, output)) == 0);
 		}
 	}
 	
@@ -102,9 +126,15 @@ public class ComparisonValue implements Value{
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
+		if(!containsPreEvaluatedValue) return this;
 		return new ComparisonValue(a.getPreEvaluation(environment, args, output),b.getPreEvaluation(environment, args, output));
 	}
 
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return containsPreEvaluatedValue;
+	}
+
 	@Override
 	public boolean equals(Value other) {
 		if(!(other instanceof ComparisonValue)) return false;
@@ -141,4 +171,10 @@ public class ComparisonValue implements Value{
 			throws EvaluationException {
 		throw new EvaluationException(String.format("A value of type \'%s\' can not be part of a division", getTypeName()));
 	}
+
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.of(a, b);
+		return purity;
+	}
 }
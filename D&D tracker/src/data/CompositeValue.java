@@ -12,16 +12,33 @@ public class CompositeValue implements Value {
 	
 	private Value value;
 	private Value[] args;
+	private int purity = Purity.NOT_ANALYZED;
+	private final boolean containsPreEvaluatedValue;
 
 	public CompositeValue(Value value, Value[] args){
 		this.value = value;
 		this.args = args;
+		containsPreEvaluatedValue = value.containsPreEvaluatedValue() || Value.anyContainsPreEvaluatedValue(args);
 	}
 	
 	public CompositeValue(Value value, List<Value> args){
 		this(value,args.toArray(new Value[args.size()]));
 	}
 	
+	/**
+	 * @return The Value object that is evaluated with the arguments of this CompositeValue object.
+	 */
+	Value getValue(){
+		return value;
+	}
+
+	/**
+	 * @return The arguments of this CompositeValue object.
+	 */
+	Value[] getArguments(){
+		return args;
+	}
+
 	@Override
 	public String getTypeName() {
 		return VALUE_TYPE_NAMES[0];
@@ -41,9 +58,17 @@ public class CompositeValue implements Value {
 
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
-		Value[] replacementArgs = new Value[this.args.length];
-		for(int i = 0; i < replacementArgs.length; i++) replacementArgs[i] = this.args[i].replaceArgumentsBy(args).getPreEvaluation(environment, replacementArgs, output);
-		return value.evaluate(environment, replacementArgs, output);
+		return value.evaluate(environment, bindArguments(environment, args, output), output);
+	}
+
+	/**
+	 * Gives the arguments for evaluating the Value object of this CompositeValue, see BoundArgument.
+	 * Each argument is pre-evaluated once and refers to the given arguments, instead of being copied with its ArgumentValue objects replaced.
+	 */
+	private Value[] bindArguments(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		Value[] boundArgs = new Value[this.args.length];
+		for(int i = 0; i < boundArgs.length; i++) boundArgs[i] = new BoundArgument(this.args[i].getPreEvaluation(environment, args, output), args);
+		return boundArgs;
 	}
 
 	@Override
@@ -76,11 +101,17 @@ public class CompositeValue implements Value {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
+		if(!containsPreEvaluatedValue) return this;
 		List<Value> replacementArgs = new ArrayList<Value>();
 		for(int i = 0; i < this.args.length; i++) replacementArgs.add(this.args[i].getPreEvaluation(environment, args, output));
 		return new CompositeValue(value.getPreEvaluation(environment, args, output),replacementArgs);
 	}
 
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return containsPreEvaluatedValue;
+	}
+
 	@Override
 	public boolean equals(Value other) {
 		if(!(other instanceof CompositeValue)) return false;
@@ -95,40 +126,36 @@ public class CompositeValue implements Value {
 	@Override
 	public DataContainer evaluateToFirstDataContainer(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		Value[] replacementArgs = new Value[this.args.length];
-		for(int i = 0; i < replacementArgs.length; i++) replacementArgs[i] = this.args[i].replaceArgumentsBy(args).getPreEvaluation(environment, replacementArgs, output);
-		return value.evaluateToFirstDataContainer(environment, replacementArgs, output);
+		return value.evaluateToFirstDataContainer(environment, bindArguments(environment, args, output), output);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstAddable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		Value[] replacementArgs = new Value[this.args.length];
-		for(int i = 0; i < replacementArgs.length; i++) replacementArgs[i] = this.args[i].replaceArgumentsBy(args).getPreEvaluation(environment, replacementArgs, output);
-		return value.evaluateToFirstAddable(environment, replacementArgs, output);
+		return value.evaluateToFirstAddable(environment, bindArguments(environment, args, output), output);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstSubtractible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		Value[] replacementArgs = new Value[this.args.length];
-		for(int i = 0; i < replacementArgs.length; i++) replacementArgs[i] = this.args[i].replaceArgumentsBy(args).getPreEvaluation(environment, replacementArgs, output);
-		return value.evaluateToFirstSubtractible(environment, replacementArgs, output);
+		return value.evaluateToFirstSubtractible(environment, bindArguments(environment, args, output), output);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstMultiplicable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		Value[] replacementArgs = new Value[this.args.length];
-		for(int i = 0; i < replacementArgs.length; i++) replacementArgs[i] = this.args[i].replaceArgumentsBy(args).getPreEvaluation(environment, replacementArgs, output);
-		return value.evaluateToFirstMultiplicable(environment, replacementArgs, output);
+		return value.evaluateToFirstMultiplicable(environment, bindArguments(environment, args, output), output);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstDivisible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		Value[] replacementArgs = new Value[this.args.length];
-		for(int i = 0; i < replacementArgs.length; i++) replacementArgs[i] = this.args[i].replaceArgumentsBy(args).getPreEvaluation(environment, replacementArgs, output);
-		return value.evaluateToFirstDivisible(environment, replacementArgs, output);
+		return value.evaluateToFirstDivisible(environment, bindArguments(environment, args, output), output);
+	}
+
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.combine(value.getPurity(), Purity.of(args));
+		return purity;
 	}
 }
@@ -0,0 +1,131 @@
+package data;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import data.command.Command;
+
+/**
+ * The state of a Value object and all DataContainer objects within it at the moment this snapshot was taken,
+ * which can be saved on another thread while the DataContainer objects continue to be modified.
+ * Taking a snapshot takes constant time, since DataContainer objects are copied on write:
+ * right before a DataContainer is modified for the first time, its contents are copied if the snapshot has not read them yet.
+ * Only DataContainer objects that are part of the snapshot are copied, see contains, since all other Value objects are never modified.
+ * DataContainer objects that are created while a snapshot is in use, e.g. while a file is loaded, are therefore modified without being copied.
+ * At most one snapshot can be in use at a time.
+ */
+public final class ConsistentSnapshot {
+	private static volatile ConsistentSnapshot active;
+
+	private final Value value;
+	private final Map<DataContainer,Map<String,Value>> copies = new IdentityHashMap<DataContainer,Map<String,Value>>();
+	private final Set<DataContainer> read = Collections.newSetFromMap(new IdentityHashMap<DataContainer,Boolean>());
+	private final Set<DataContainer> retained = Collections.newSetFromMap(new IdentityHashMap<DataContainer,Boolean>());
+	private boolean closed;
+
+	private ConsistentSnapshot(Value value){
+		this.value = value;
+	}
+
+	/**
+	 * Takes a snapshot of a Value object, which must be done on the thread that modifies DataContainer objects.
+	 * @param value The Value object of which a snapshot is taken.
+	 * @return The ConsistentSnapshot, which must be closed once it is no longer used.
+	 * @throws DataException If another snapshot is still in use.
+	 */
+	public static synchronized ConsistentSnapshot take(Value value) throws DataException {
+		if(active != null) throw new DataException("Can not take a snapshot while another one is still in use.");
+		active = new ConsistentSnapshot(value);
+		return active;
+	}
+
+	/**
+	 * Saves this snapshot to a file like BinarySnapshot.write and closes it.
+	 * @param fileName The name of the file.
+	 * @param saveSimplified TRUE if the simplification of a SimplifiedValue object should be saved, FALSE if its original Value object should be saved.
+	 * @throws IOException If writing the file failed, or if the Value object contains a Value object that can not be saved.
+	 */
+	public void write(String fileName, boolean saveSimplified) throws IOException {
+		try{
+			BinarySnapshot.write(value, fileName, saveSimplified, new IdentityHashMap<DataContainer,String>(), this);
+		} finally{
+			close();
+		}
+	}
+
+	/**
+	 * Stops copying DataContainer objects for this snapshot, after which it can no longer be read.
+	 */
+	public void close(){
+		synchronized(ConsistentSnapshot.class){
+			if(active == this) active = null;
+		}
+		synchronized(this){
+			closed = true;
+			copies.clear();
+			read.clear();
+			retained.clear();
+		}
+	}
+
+	/**
+	 * Copies the contents of a DataContainer for the active snapshot if it still needs them, which must be done right before the DataContainer is modified.
+	 * @param dataContainer The DataContainer that is about to be modified.
+	 */
+	static void beforeModification(DataContainer dataContainer){
+		ConsistentSnapshot snapshot = active;
+		if(snapshot != null) snapshot.copy(dataContainer);
+	}
+
+	private synchronized void copy(DataContainer dataContainer){
+		if(closed || read.contains(dataContainer) || copies.containsKey(dataContainer) || !contains(dataContainer)) return;
+		Map<String,Value> contents = getContents(dataContainer);
+		copies.put(dataContainer, contents);
+		for(Value content : contents.values()){
+			if(content instanceof DataContainer) retained.add((DataContainer) content);
+		}
+	}
+
+	/**
+	 * Checks whether a DataContainer is part of this snapshot, by following its hosts up to the Value object of this snapshot.
+	 * The DataContainer objects in copied contents remain part of this snapshot, even when they are moved elsewhere afterwards.
+	 * @param dataContainer A DataContainer object.
+	 * @return TRUE if the DataContainer is the Value object of this snapshot or lies within it, FALSE otherwise.
+	 */
+	private boolean contains(DataContainer dataContainer){
+		for(DataContainer container = dataContainer;; container = container.getLevelAbove()){
+			if(container == value || retained.contains(container)) return true;
+			if(container.isTopLevel()) return false;
+		}
+	}
+
+	/**
+	 * Gives the contents of a DataContainer as they were when this snapshot was taken.
+	 * Each DataContainer can only be read once, since its contents are no longer copied after it was read.
+	 * @param dataContainer A DataContainer within the Value object of this snapshot.
+	 * @return The names and Value objects of all DataPairs in the DataContainer other than system commands.
+	 */
+	synchronized Map<String,Value> readContents(DataContainer dataContainer){
+		if(closed) throw new IllegalStateException("The snapshot was already closed.");
+		read.add(dataContainer);
+		Map<String,Value> result = copies.remove(dataContainer);
+		return result == null ? getContents(dataContainer) : result;
+	}
+
+	/**
+	 * Gives the current contents of a DataContainer.
+	 * @param dataContainer A DataContainer object.
+	 * @return The names and Value objects of all DataPairs in the DataContainer other than system commands.
+	 */
+	static Map<String,Value> getContents(DataContainer dataContainer){
+		Map<String,Value> result = new LinkedHashMap<String,Value>();
+		for(DataPair data : dataContainer){
+			if(!(data instanceof Command)) result.put(data.getName(), data.getValue());
+		}
+		return result;
+	}
+}
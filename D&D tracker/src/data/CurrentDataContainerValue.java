@@ -77,6 +77,19 @@ public class CurrentDataContainerValue implements Value {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	/**
+	 * Returns UNKNOWN, since the contents of the environment may change.
+	 */
+	@Override
+	public int getPurity() {
+		return Purity.UNKNOWN;
 	}
 }
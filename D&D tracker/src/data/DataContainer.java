@@ -1,9 +1,14 @@
 package data;
 
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import main.Tracker;
 
@@ -12,6 +17,7 @@ import main.Tracker;
  * As a PrimitiveValue object it operates according to hidden variables which names are given by ADDITION_NAME, PRODUCT_NAME, DIVISION_NAME and SUBTRACTION_NAME.
  * Furthermore its type, value, and toString method can be modified by the variables with names given by TYPE_NAME, VALUE_NAME and TO_STRING_NAME respectively.
  * As a ReferenceValue it refers to itself only.
+ * The DataPairs are indexed by their name, but are iterated over in the order in which they were added.
  */
 public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public static final String VALUE_NAME = "_value";
@@ -24,14 +30,59 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public static final String TEMPLATE_NAME = "_template";
 	public static final String[] DATA_TYPE_NAMES = {"collection","col"};
 
-	private Collection<DataPair> dataSet;
+	private static final AtomicLong structureVersion = new AtomicLong();
+	private static final AtomicLong modificationCounter = new AtomicLong();
+
+	private final Map<String,DataPair> dataSet = new LinkedHashMap<String,DataPair>();
+	/** Volatile, since getDataSet reads it without the lock, which is safe as it is only set to null once all DataPairs were put in dataSet. */
+	private volatile BinarySnapshot.LazyContents lazyContents;
 	private DataPair host;
+	private long lastModification;
+	private Map<String,Set<DataPair>> lookupDependents;
+
+	/**
+	 * Gives the current structure version of all DataContainer objects.
+	 * This number changes whenever a change is made that could influence which DataPair a name refers to,
+	 * i.e. whenever a DataPair is added to or removed from a DataContainer, a DataContainer gets a new host,
+	 * or a DataPair that holds a DataContainer or a template gets a new value.
+	 * The result of looking up a name may therefore be reused for as long as this number stays the same.
+	 * @return A number that changes with every structural modification of any DataContainer.
+	 */
+	public static long getStructureVersion(){
+		return structureVersion.get();
+	}
+
+	/**
+	 * Registers that a structural modification has been made, see getStructureVersion().
+	 */
+	static void registerStructuralModification(){
+		structureVersion.incrementAndGet();
+	}
+
+	/**
+	 * Gives a number that identifies the last modification of this DataContainer or any DataContainer within it,
+	 * i.e. the last time a DataPair was added to or removed from any of them, or a DataPair in any of them got a new value.
+	 * Numbers of later modifications are always larger, such that this DataContainer is dirty if this number changed since it was saved.
+	 * @return The number of the last modification of this DataContainer or any DataContainer within it, or 0 if none was modified since it was created.
+	 */
+	long getLastModification(){
+		return lastModification;
+	}
+
+	/**
+	 * Registers that this DataContainer was modified, which also modifies all DataContainer objects that contain it, see getLastModification().
+	 */
+	void registerModification(){
+		long modification = modificationCounter.incrementAndGet();
+		for(DataContainer container = this; container.lastModification != modification; container = container.getLevelAbove()){
+			container.lastModification = modification;
+		}
+	}
 
 	/**
 	 * A constructor that makes a (top level) DataContainer.
 	 */
 	public DataContainer(){
-		dataSet = new ArrayList<DataPair>();
 		host = null;
 	}
 
@@ -44,14 +95,47 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 		this.host = host;
 	}
 
+	/**
+	 * A constructor that makes a (top level) DataContainer whose DataPairs are read from a snapshot once they are first needed.
+	 * @param lazyContents The DataPairs of this DataContainer in a snapshot, see BinarySnapshot.load.
+	 */
+	DataContainer(BinarySnapshot.LazyContents lazyContents){
+		this();
+		this.lazyContents = lazyContents;
+	}
+
+	/**
+	 * Gives the DataPairs of this DataContainer by name, reading them from a snapshot first if that has not been done yet.
+	 * Once the DataPairs were read, this only reads lazyContents, without taking the lock of readLazyContents.
+	 * @return The map in which this DataContainer stores its DataPairs.
+	 */
+	private Map<String,DataPair> getDataSet(){
+		if(lazyContents != null) readLazyContents();
+		return dataSet;
+	}
+
+	/**
+	 * Reads the DataPairs of this DataContainer from a snapshot once, see getDataSet.
+	 * This is synchronized, since this DataContainer may also be read by another thread that saves it, see ConsistentSnapshot.
+	 */
+	private synchronized void readLazyContents(){
+		if(lazyContents == null) return;
+		try{
+			lazyContents.readInto(this, dataSet);
+		} finally{
+			lazyContents = null;
+		}
+	}
+
 	@Override
 	public String toString() {
-		if(containsName(TO_STRING_NAME)){
+		DataPair toStringData = findLocalData(TO_STRING_NAME);
+		if(toStringData != null){
 			try {
-				Value value = getData(TO_STRING_NAME).getValue().evaluate(this, new Value[0], Tracker.mainInstance.screen.getOutput());
+				Value value = toStringData.getValue().evaluate(this, Value.NO_ARGUMENTS, Tracker.mainInstance.screen.getOutput());
 				if(value instanceof TextValue) return ((TextValue) value).getText();
 				return value.toString();
-			} catch (EvaluationException|DataException e) {
+			} catch (EvaluationException e) {
 				Tracker.mainInstance.screen.getOutput().printf("Error: %s\n", e.getMessage());
 			}
 		}
@@ -62,7 +146,7 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 		StringBuilder sb = new StringBuilder();
 		sb.append("{");
 		int i = 0;
-		for(DataPair d : dataSet){
+		for(DataPair d : getDataSet().values()){
 			if(d.getName().charAt(0) != '_'){
 				if(i > 0) sb.append(",");
 				sb.append(d.getName()).append("=").append(d.getValue().toString());
@@ -72,19 +156,98 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 		return sb.append("}").toString();
 	}
 
-	private DataContainer getTemplate() throws DataException {
+	/**
+	 * Gives the template of this DataContainer.
+	 * @param dependent The DataPair whose evaluation looks up the template, see lookUp, or null if it need not be recorded.
+	 * @return The DataContainer referred to by the variable with name TEMPLATE_NAME in this DataContainer,
+	 * or null if no such variable exists or it does not refer to a DataContainer.
+	 */
+	private DataContainer findTemplate(DataPair dependent) {
+		DataPair templateData = lookUp(TEMPLATE_NAME, dependent);
+		if(templateData == null) return null;
 		try{
-			Value value = Path.convertToPath(getDataAbsolute(TEMPLATE_NAME).getValue(), getPath()).getLowestValue();
-			if(value instanceof DataContainer) return (DataContainer) value;
-			throw new DataException("The template path does not refer to a DataContainer.");
+			Path path = Path.convertToPath(templateData.getValue(), getPath());
+			if(path.depth() == 0) return getTopLevel();
+			DataContainer container = getTopLevel();
+			DataPair data = null;
+			for(int i = 0; i < path.depth(); i++){
+				data = container.lookUp(path.nameAt(i), dependent);
+				if(data == null) return null;
+				if(i < path.depth() - 1){
+					if(!(data.getValue() instanceof DataContainer)) return null;
+					container = (DataContainer) data.getValue();
+				}
+			}
+			return data.getValue() instanceof DataContainer ? (DataContainer) data.getValue() : null;
 		} catch(PathException e){
-			throw new DataException(String.format("Template is not a path, since: ",e.getMessage()),e);
+			return null;
 		}
 	}
 
+	/**
+	 * Gets a specific DataPair from this DataContainer or its template by its name.
+	 * @param name A String starting with a letter or the character '_' and furthermore only consisting of alpha-numerical characters.
+	 * @return The DataPair object with the given name in this DataContainer, or if none exists the one in its template.
+	 * Returns null if neither contains a DataPair with the given name.
+	 */
+	private DataPair findLocalData(String name) {
+		DataPair dependent = EvaluationCache.getCurrentDependent();
+		DataPair result = lookUp(name, dependent);
+		if(result != null) return result;
+		DataContainer template = findTemplate(dependent);
+		return template == null ? null : template.lookUp(name, dependent);
+	}
+
+	/**
+	 * Gets a DataPair from this DataContainer only, while recording which evaluation looked for it, see EvaluationCache.
+	 * If the evaluation of a DataPair finds the DataPair, it reads that DataPair, which is recorded by EvaluationCache itself.
+	 * Otherwise the evaluation depends on the name not existing in this DataContainer,
+	 * so its remembered results are forgotten once a DataPair with this name is added, see addData.
+	 * @param name A String starting with a letter or the character '_' and furthermore only consisting of alpha-numerical characters.
+	 * @param dependent The DataPair whose evaluation looks up the name, or null if no evaluation needs to be recorded.
+	 * @return The DataPair object with the given name in this DataContainer, or null if none exists.
+	 */
+	private DataPair lookUp(String name, DataPair dependent){
+		DataPair result = getDataSet().get(name);
+		if(result != null){
+			if(dependent != null) result.addDependent(dependent);
+			return result;
+		}
+		if(dependent != null){
+			if(lookupDependents == null) lookupDependents = new HashMap<String,Set<DataPair>>();
+			Set<DataPair> dependents = lookupDependents.get(name);
+			if(dependents == null){
+				dependents = Collections.newSetFromMap(new WeakHashMap<DataPair,Boolean>());
+				lookupDependents.put(name, dependents);
+			}
+			dependents.add(dependent);
+		}
+		return null;
+	}
+
+	/**
+	 * Forgets the remembered evaluations that looked for a name in this DataContainer without finding it, see lookUp.
+	 * @param name The name that was looked up, or null to forget the evaluations that looked up any name.
+	 */
+	private void invalidateLookups(String name){
+		if(lookupDependents == null) return;
+		if(name == null){
+			Map<String,Set<DataPair>> oldLookupDependents = lookupDependents;
+			lookupDependents = null;
+			for(Set<DataPair> dependents : oldLookupDependents.values()) invalidate(dependents);
+		} else{
+			Set<DataPair> dependents = lookupDependents.remove(name);
+			if(dependents != null) invalidate(dependents);
+		}
+	}
+
+	private static void invalidate(Set<DataPair> dependents){
+		for(DataPair dependent : dependents.toArray(new DataPair[dependents.size()])) dependent.invalidateEvaluations();
+	}
+
 	@Override
 	public boolean equals(Object other) {
-		return other != null && other instanceof DataContainer && dataSet.equals(((DataContainer) other).dataSet);
+		return other != null && other instanceof DataContainer && getDataSet().equals(((DataContainer) other).getDataSet());
 	}
 
 	/**
@@ -94,14 +257,7 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 * FALSE otherwise
 	 */
 	public boolean containsName(String name){
-		for(DataPair d : dataSet){
-			if(d.getName().equals(name)) return true;
-		}
-		try{
-			return getTemplate().containsNameAbsolute(name);
-		} catch(DataException e){
-			return false;
-		}
+		return findLocalData(name) != null;
 	}
 
 	/**
@@ -111,10 +267,7 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 * FALSE otherwise
 	 */
 	public boolean containsNameAbsolute(String name){
-		for(DataPair d : dataSet){
-			if(d.getName().equals(name)) return true;
-		}
-		return false;
+		return getDataSet().containsKey(name);
 	}
 
 	/**
@@ -125,20 +278,38 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 * @throws DataException if no DataPair with the given name exists in this DataContainer or any above it.
 	 */
 	public DataPair getData(String name) throws DataException{
-		try{
-			return getDataAbsolute(name);
-		} catch(DataException e){
-			try{
-				return getTemplate().getData(name);
-			} catch(DataException e1){
-				if(isTopLevel()) throw new DataException(String.format("No variable \'%s\' exists in \'%s\'.", name, getPath()),e1);
-				try{
-					return host.getHost().getData(name);
-				} catch(DataException e2){
-					throw new DataException(String.format("No variable \'%s\' exists in \'%s\'.", name, getPath()),e2);
-				}
-			}
+		DataPair result = findData(name);
+		if(result == null) throw new DataException(String.format("No variable \'%s\' exists in \'%s\'.", name, getPath()));
+		return result;
+	}
+
+	/**
+	 * Does the same as getData, but returns null instead of throwing an exception if no DataPair with the given name exists.
+	 * This method should be preferred whenever a missing variable is not yet an error, as no exception has to be constructed.
+	 * @param name A String starting with a letter or the character '_' and furthermore only consisting of alpha-numerical characters.
+	 * @return The DataPair object that has the given name in this DataContainer, its template or any DataContainer above it.
+	 * Returns null if no such DataPair exists.
+	 */
+	public DataPair findData(String name){
+		return findData(name, EvaluationCache.getCurrentDependent());
+	}
+
+	/**
+	 * Does the same as findData, while recording the lookup for a given evaluation, see lookUp.
+	 * @param name A String starting with a letter or the character '_' and furthermore only consisting of alpha-numerical characters.
+	 * @param dependent The DataPair whose evaluation looks up the name, see EvaluationCache.getCurrentDependent, or null if nothing needs to be recorded.
+	 * @return The DataPair object that has the given name in this DataContainer, its template or any DataContainer above it.
+	 * Returns null if no such DataPair exists.
+	 */
+	DataPair findData(String name, DataPair dependent){
+		DataPair result = lookUp(name, dependent);
+		if(result != null) return result;
+		DataContainer template = findTemplate(dependent);
+		if(template != null){
+			result = template.findData(name, dependent);
+			if(result != null) return result;
 		}
+		return isTopLevel() ? null : host.getHost().findData(name, dependent);
 	}
 
 	/**
@@ -149,12 +320,20 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 * @throws DataException if no DataPair with the given name exists in this DataContainer.
 	 */
 	public DataPair getDataAbsolute(String name) throws DataException {
-		for(DataPair d : dataSet){
-			if(d.getName().equals(name)) return d;
-		}
+		DataPair d = getDataSet().get(name);
+		if(d != null) return d;
 		throw new DataException(String.format("No variable \'%s\' exists in \'%s\'.", name, getPath()));
 	}
 
+	/**
+	 * Does the same as getDataAbsolute, but returns null instead of throwing an exception if no DataPair with the given name exists.
+	 * @param name A String starting with a letter or the character '_' and furthermore only consisting of alpha-numerical characters.
+	 * @return The DataPair object that has the given name in this DataContainer, or null if no such DataPair exists.
+	 */
+	public DataPair findDataAbsolute(String name) {
+		return getDataSet().get(name);
+	}
+
 	/**
 	 * Adds a DataPair object to this DataContainer if it contains none with the same name.
 	 * It is advised to use the other method addData to create DataPair objects within this DataContainer instead of creating them yourself and adding them with this method.
@@ -163,7 +342,13 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 * FALSE in all other cases.
 	 */
 	public boolean addData(DataPair data){
-		return data.getHost() == this && ( !this.containsNameAbsolute(data.getName()) ) && dataSet.add(data);
+		ConsistentSnapshot.beforeModification(this);
+		if(data.getHost() != this || getDataSet().putIfAbsent(data.getName(), data) != null) return false;
+		registerStructuralModification();
+		registerModification();
+		invalidateLookups(data.getName());
+		Journal.recordSet(data);
+		return true;
 	}
 
 	/**
@@ -200,7 +385,14 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 * If the DataPair object is not present in this DataContainer, nothing will happen.
 	 */
 	public void removeData(DataPair data){
-		dataSet.remove(data);
+		ConsistentSnapshot.beforeModification(this);
+		if(getDataSet().remove(data.getName(), data)){
+			registerStructuralModification();
+			registerModification();
+			data.invalidateEvaluations();
+			invalidateLookups(data.getName());
+			Journal.recordRemoval(data);
+		}
 	}
 
 	/**
@@ -209,12 +401,8 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 * If no DataPair object with the given name is present in this DataContainer, nothing will happen.
 	 */
 	public void removeData(String name){
-		try{
-			DataPair d = getDataAbsolute(name);
-			removeData(d);
-		} catch(DataException e){
-			//No Variable with the name exists, so none have to be removed!
-		}
+		DataPair d = findDataAbsolute(name);
+		if(d != null) removeData(d);
 	}
 
 	/**
@@ -246,7 +434,7 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public Value copy() {
 		try {
 			DataContainer result = new DataContainer();
-			for(DataPair d : dataSet){
+			for(DataPair d : getDataSet().values()){
 				result.addData(d.getName(),d.getValue().copy());
 			}
 			return result;
@@ -257,17 +445,12 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 
 	@Override
 	public Iterator<DataPair> iterator() {
-		return dataSet.iterator();
+		return getDataSet().values().iterator();
 	}
 
 	public String getTypeName() {
-		if(containsName(TYPE_NAME)){
-			try{
-				return getData(TYPE_NAME).getValue().toString();
-			} catch(DataException e){
-				Tracker.mainInstance.screen.getOutput().printf("Error: %s\n", e.getMessage());
-			}
-		}
+		DataPair typeData = findLocalData(TYPE_NAME);
+		if(typeData != null) return typeData.getValue().toString();
 		return DATA_TYPE_NAMES[0];
 	}
 
@@ -291,6 +474,7 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	}
 
 	private PrimitiveValue performOperation(String additionName, DataContainer other) throws ComputationException{
+		EvaluationCache.markUncacheable();
 		try{
 			Value[] args = new Value[2];
 			args[0] = this;
@@ -351,15 +535,20 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	 */
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
-		try{
-			return containsName(VALUE_NAME) ? getData(VALUE_NAME).getValue().evaluate(this,args, output) : this;
-		} catch(DataException e){
-			throw new EvaluationException(String.format("Can not evaluate, since: %s", e.getMessage()),e);
-		}
+		DataPair valueData = findLocalData(VALUE_NAME);
+		return valueData != null ? EvaluationCache.evaluate(valueData, this, args, output, EvaluationCache.EVALUATE) : this;
 	}
 
+	/**
+	 * Places this DataContainer in a DataPair.
+	 * This forgets the remembered evaluations that looked for a name in this DataContainer without finding it,
+	 * as they continued looking in the DataContainer objects above it, which are now different.
+	 * @param host The DataPair that contains this DataContainer.
+	 */
 	public void setHost(DataPair host) {
 		this.host = host;
+		registerStructuralModification();
+		invalidateLookups(null);
 	}
 
 	/**
@@ -375,7 +564,7 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public int compareTo(Value o) {
 		if(o instanceof DataContainer){
 			DataContainer other = (DataContainer) o;
-			return dataSet.size() - other.dataSet.size();
+			return getDataSet().size() - other.getDataSet().size();
 		}
 		return getTypeName().compareTo(o.getTypeName());
 	}
@@ -405,6 +594,7 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
+		if(!containsPreEvaluatedValue()) return this;
 		try {
 			DataContainer result = new DataContainer();
 			for(DataPair data : this){
@@ -416,9 +606,20 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 		}
 	}
 
+	/**
+	 * Checks the Value objects of all DataPairs in this DataContainer every time, since these may change after it is constructed.
+	 */
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		for(DataPair data : this){
+			if(data.getValue().containsPreEvaluatedValue()) return true;
+		}
+		return false;
+	}
+
 	@Override
 	public boolean equals(Value other) {
-		return other instanceof DataContainer && dataSet.equals(((DataContainer) other).dataSet);
+		return other instanceof DataContainer && getDataSet().equals(((DataContainer) other).getDataSet());
 	}
 
 	@Override
@@ -436,13 +637,8 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public PrimitiveValue evaluateToFirstAddable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
 		if(containsName(ADDITION_NAME)) return this;
-		if(containsName(VALUE_NAME)){
-			try{
-				return getData(VALUE_NAME).getValue().evaluateToFirstAddable(this,args, output);
-			} catch(DataException e){
-				throw new EvaluationException(String.format("Can not evaluate, since: %s", e.getMessage()),e);
-			}
-		}
+		DataPair valueData = findLocalData(VALUE_NAME);
+		if(valueData != null) return EvaluationCache.evaluate(valueData, this, args, output, EvaluationCache.FIRST_ADDABLE);
 		throw new EvaluationException(String.format("A value of type \'%s\' can not be part of an addition.", getTypeName()));
 	}
 
@@ -450,13 +646,8 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public PrimitiveValue evaluateToFirstSubtractible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
 		if(containsName(SUBTRACTION_NAME)) return this;
-		if(containsName(VALUE_NAME)){
-			try{
-				return getData(VALUE_NAME).getValue().evaluateToFirstSubtractible(this,args, output);
-			} catch(DataException e){
-				throw new EvaluationException(String.format("Can not evaluate, since: %s", e.getMessage()),e);
-			}
-		}
+		DataPair valueData = findLocalData(VALUE_NAME);
+		if(valueData != null) return EvaluationCache.evaluate(valueData, this, args, output, EvaluationCache.FIRST_SUBTRACTIBLE);
 		throw new EvaluationException(String.format("A value of type \'%s\' can not be part of a subtraction.", getTypeName()));
 	}
 
@@ -464,13 +655,8 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public PrimitiveValue evaluateToFirstMultiplicable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
 		if(containsName(PRODUCT_NAME)) return this;
-		if(containsName(VALUE_NAME)){
-			try{
-				return getData(VALUE_NAME).getValue().evaluateToFirstMultiplicable(this,args, output);
-			} catch(DataException e){
-				throw new EvaluationException(String.format("Can not evaluate, since: %s", e.getMessage()),e);
-			}
-		}
+		DataPair valueData = findLocalData(VALUE_NAME);
+		if(valueData != null) return EvaluationCache.evaluate(valueData, this, args, output, EvaluationCache.FIRST_MULTIPLICABLE);
 		throw new EvaluationException(String.format("A value of type \'%s\' can not be part of a product.", getTypeName()));
 	}
 
@@ -478,13 +664,16 @@ public class DataContainer implements PrimitiveValue, Iterable<DataPair> {
 	public PrimitiveValue evaluateToFirstDivisible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
 		if(containsName(DIVISION_NAME)) return this;
-		if(containsName(VALUE_NAME)){
-			try{
-				return getData(VALUE_NAME).getValue().evaluateToFirstDivisible(this,args, output);
-			} catch(DataException e){
-				throw new EvaluationException(String.format("Can not evaluate, since: %s", e.getMessage()),e);
-			}
-		}
+		DataPair valueData = findLocalData(VALUE_NAME);
+		if(valueData != null) return EvaluationCache.evaluate(valueData, this, args, output, EvaluationCache.FIRST_DIVISIBLE);
 		throw new EvaluationException(String.format("A value of type \'%s\' can not be part of a division.", getTypeName()));
 	}
+
+	/**
+	 * Returns UNKNOWN, since the contents of a DataContainer may change and determine its evaluation.
+	 */
+	@Override
+	public int getPurity() {
+		return Purity.UNKNOWN;
+	}
 }
@@ -1,14 +1,24 @@
 package data;
 
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 /**
  * A class that is used to store Value objects with a given name.
  * A name should start with a letter or the character '_' and furthermore only consist of alpha-numerical characters.
  * The character '_' at the start of the name indicates a 'hidden' variable.
  */
 public class DataPair {
+	private static final int INITIAL_NUMBER_OF_EVALUATION_SLOTS = 2;
+
 	private final DataContainer host;
 	private final String name;
 	private Value value;
+	private Evaluations[] evaluations;
+	private int numberOfEvaluations;
+	private Set<DataPair> dependents;
 	
 	/**
 	 * Initializes this DataPair object.
@@ -63,12 +73,120 @@ public class DataPair {
 	 */
 	public void setValue(Value value){
 		if(value != null){
+			if(this.value instanceof DataContainer || name.equals(DataContainer.TEMPLATE_NAME)) DataContainer.registerStructuralModification();
+			ConsistentSnapshot.beforeModification(host);
 			this.value = value;
 			if(value instanceof DataContainer) ((DataContainer) value).setHost(this);
+			invalidateEvaluations();
+			host.registerModification();
+			Journal.recordSet(this);
+		}
+	}
+
+	/**
+	 * Gives a remembered evaluation of the Value object of this DataPair, see EvaluationCache.
+	 * @param environment The DataContainer in which the Value object was evaluated.
+	 * @param mode The kind of evaluation, see EvaluationCache.
+	 * @return The remembered result of the evaluation, or null if no valid result is remembered.
+	 */
+	PrimitiveValue getCachedEvaluation(DataContainer environment, int mode){
+		Evaluations entry = findEvaluations(evaluations, environment);
+		return entry == null ? null : entry.results[mode];
+	}
+
+	/**
+	 * Remembers an evaluation of the Value object of this DataPair, see EvaluationCache.
+	 * @param environment The DataContainer in which the Value object was evaluated.
+	 * @param mode The kind of evaluation, see EvaluationCache.
+	 * @param result The result of the evaluation.
+	 */
+	void cacheEvaluation(DataContainer environment, int mode, PrimitiveValue result){
+		Evaluations entry = findEvaluations(evaluations, environment);
+		if(entry == null){
+			if(evaluations == null) evaluations = new Evaluations[INITIAL_NUMBER_OF_EVALUATION_SLOTS];
+			else if(numberOfEvaluations >= evaluations.length) rehashEvaluations();
+			int hash = System.identityHashCode(environment);
+			int slot = hash & (evaluations.length - 1);
+			entry = new Evaluations(environment, hash, evaluations[slot]);
+			evaluations[slot] = entry;
+			numberOfEvaluations++;
+		}
+		entry.results[mode] = result;
+	}
+
+	private static Evaluations findEvaluations(Evaluations[] evaluations, DataContainer environment){
+		if(evaluations == null) return null;
+		for(Evaluations entry = evaluations[System.identityHashCode(environment) & (evaluations.length - 1)]; entry != null; entry = entry.next){
+			if(entry.get() == environment) return entry;
+		}
+		return null;
+	}
+
+	/**
+	 * Drops the remembered evaluations whose environment was garbage collected, and doubles the number of slots if at least half of them are still in use.
+	 */
+	private void rehashEvaluations(){
+		int live = 0;
+		for(Evaluations first : evaluations){
+			for(Evaluations entry = first; entry != null; entry = entry.next) if(entry.get() != null) live++;
+		}
+		Evaluations[] result = new Evaluations[2 * live >= evaluations.length ? 2 * evaluations.length : evaluations.length];
+		for(Evaluations first : evaluations){
+			Evaluations next;
+			for(Evaluations entry = first; entry != null; entry = next){
+				next = entry.next;
+				if(entry.get() == null) continue;
+				int slot = entry.hash & (result.length - 1);
+				entry.next = result[slot];
+				result[slot] = entry;
+			}
+		}
+		evaluations = result;
+		numberOfEvaluations = live;
+	}
+
+	/**
+	 * Records that the evaluation of the Value object of another DataPair has read this DataPair.
+	 * The dependents are only weakly referenced, such that DataPairs that were removed are not kept alive by the DataPairs they read.
+	 * @param dependent The DataPair whose remembered evaluations must be forgotten once this DataPair changes or is removed.
+	 */
+	void addDependent(DataPair dependent){
+		if(dependents == null) dependents = Collections.newSetFromMap(new WeakHashMap<DataPair,Boolean>());
+		dependents.add(dependent);
+	}
+
+	/**
+	 * Forgets all remembered evaluations of this DataPair and of all DataPairs that depend on it.
+	 */
+	void invalidateEvaluations(){
+		if(evaluations == null && dependents == null) return;
+		Set<DataPair> oldDependents = dependents;
+		evaluations = null;
+		numberOfEvaluations = 0;
+		dependents = null;
+		if(oldDependents != null){
+			for(DataPair dependent : oldDependents) dependent.invalidateEvaluations();
 		}
 	}
 
 	public DataContainer getHost() {
 		return host;
 	}
+
+	/**
+	 * The remembered evaluations of a DataPair in one environment, chained with the others that share its slot.
+	 * The environment is only weakly referenced, such that DataContainers that were removed are not kept alive by the DataPairs they read.
+	 * Environments are compared by identity, as DataContainer.equals compares contents.
+	 */
+	private static class Evaluations extends WeakReference<DataContainer> {
+		private final int hash;
+		private final PrimitiveValue[] results = new PrimitiveValue[EvaluationCache.NUMBER_OF_MODES];
+		private Evaluations next;
+
+		private Evaluations(DataContainer environment, int hash, Evaluations next){
+			super(environment);
+			this.hash = hash;
+			this.next = next;
+		}
+	}
 }
@@ -0,0 +1,174 @@
+package data;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The result of rolling a number of dice of the same size, which is kept as the number of times each face was rolled instead of as a list of rolls.
+ * The rolls are therefore always sorted, and the sum of the lowest or highest rolls takes a single pass over the faces that were rolled.
+ * Small dice are counted directly into a histogram, while large dice that are rolled only a few times are sorted instead.
+ * For a very large number of small dice the histogram is sampled directly, see sampleHistogram, such that the time and memory needed only depend on the size of the dice.
+ */
+final class DicePool {
+	private static final int MAX_HISTOGRAM_SIZE = 1 << 20;
+	private static final int MIN_HISTOGRAM_SIZE = 1 << 6;
+	private static final int MAX_COUNTED_ROLLS = 1 << 16;
+	private static final int MAX_LISTED_ROLLS = 1 << 10;
+	private static final double MIN_NORMAL_VARIANCE = 100;
+
+	private final int[] faces;
+	private final long[] counts;
+	private final long numberOfRolls;
+
+	private DicePool(int[] faces, long[] counts, long numberOfRolls){
+		this.faces = faces;
+		this.counts = counts;
+		this.numberOfRolls = numberOfRolls;
+	}
+
+	/**
+	 * Rolls a number of dice.
+	 * @param numberOfRolls The number of dice rolled.
+	 * @param sizeOfDice The number of faces of each dice.
+	 * @param random The generator of the rolls.
+	 * @return The DicePool that contains the rolls.
+	 */
+	static DicePool roll(int numberOfRolls, int sizeOfDice, SplittableRandom random){
+		if(sizeOfDice > MAX_HISTOGRAM_SIZE || sizeOfDice > Math.max(numberOfRolls, MIN_HISTOGRAM_SIZE)) return ofRolls(rollDice(numberOfRolls, sizeOfDice, random));
+		long[] histogram = numberOfRolls <= MAX_COUNTED_ROLLS ? countRolls(numberOfRolls, sizeOfDice, random) : sampleHistogram(numberOfRolls, sizeOfDice, random);
+		return ofHistogram(histogram, numberOfRolls);
+	}
+
+	private static int[] rollDice(int numberOfRolls, int sizeOfDice, SplittableRandom random){
+		int[] result = new int[numberOfRolls];
+		for(int i = 0; i < numberOfRolls; i++) result[i] = random.nextInt(sizeOfDice) + 1;
+		return result;
+	}
+
+	private static long[] countRolls(int numberOfRolls, int sizeOfDice, SplittableRandom random){
+		long[] result = new long[sizeOfDice];
+		for(int i = 0; i < numberOfRolls; i++) result[random.nextInt(sizeOfDice)]++;
+		return result;
+	}
+
+	/**
+	 * Samples the number of times each face is rolled without rolling each dice, as each count has a binomial distribution given the counts of the lower faces.
+	 * Binomial distributions with a variance of at least MIN_NORMAL_VARIANCE are approximated by a normal distribution,
+	 * which is indistinguishable from rolling each dice for such large numbers of dice.
+	 */
+	private static long[] sampleHistogram(int numberOfRolls, int sizeOfDice, SplittableRandom random){
+		long[] result = new long[sizeOfDice];
+		long remainingRolls = numberOfRolls;
+		for(int i = 0; i < sizeOfDice - 1 && remainingRolls > 0; i++){
+			result[i] = sampleBinomial(remainingRolls, 1.0 / (sizeOfDice - i), random);
+			remainingRolls -= result[i];
+		}
+		result[sizeOfDice - 1] += remainingRolls;
+		return result;
+	}
+
+	private static long sampleBinomial(long n, double p, SplittableRandom random){
+		if(p > 0.5) return n - sampleBinomial(n, 1 - p, random);
+		double mean = n * p;
+		double variance = mean * (1 - p);
+		if(variance >= MIN_NORMAL_VARIANCE) return Math.min(Math.max(Math.round(mean + Math.sqrt(variance) * nextGaussian(random)), 0), n);
+		double u = random.nextDouble();
+		double probability = Math.pow(1 - p, n);
+		long result = 0;
+		while(u > probability && result < n){
+			u -= probability;
+			probability *= (n - result) / (result + 1.0) * p / (1 - p);
+			result++;
+		}
+		return result;
+	}
+
+	private static double nextGaussian(SplittableRandom random){
+		double x, y, s;
+		do{
+			x = 2 * random.nextDouble() - 1;
+			y = 2 * random.nextDouble() - 1;
+			s = x * x + y * y;
+		} while(s >= 1 || s == 0);
+		return x * Math.sqrt(-2 * Math.log(s) / s);
+	}
+
+	private static DicePool ofHistogram(long[] histogram, long numberOfRolls){
+		int numberOfFaces = 0;
+		for(long count : histogram) if(count > 0) numberOfFaces++;
+		int[] faces = new int[numberOfFaces];
+		long[] counts = new long[numberOfFaces];
+		for(int i = 0, j = 0; i < histogram.length; i++){
+			if(histogram[i] == 0) continue;
+			faces[j] = i + 1;
+			counts[j++] = histogram[i];
+		}
+		return new DicePool(faces, counts, numberOfRolls);
+	}
+
+	private static DicePool ofRolls(int[] rolls){
+		Arrays.sort(rolls);
+		int numberOfFaces = 0;
+		for(int i = 0; i < rolls.length; i++) if(i == 0 || rolls[i] != rolls[i - 1]) numberOfFaces++;
+		int[] faces = new int[numberOfFaces];
+		long[] counts = new long[numberOfFaces];
+		for(int i = 0, j = -1; i < rolls.length; i++){
+			if(i == 0 || rolls[i] != rolls[i - 1]) faces[++j] = rolls[i];
+			counts[j]++;
+		}
+		return new DicePool(faces, counts, rolls.length);
+	}
+
+	/**
+	 * @return The number of dice rolled.
+	 */
+	long getNumberOfRolls(){
+		return numberOfRolls;
+	}
+
+	/**
+	 * Gives the sum of a range of the sorted rolls, which can not overflow since each roll is an int and there are at most Integer.MAX_VALUE rolls.
+	 * @param from The index of the lowest roll in the range, where 0 is the index of the lowest roll.
+	 * @param to The index after the highest roll in the range.
+	 * @return The sum of the rolls in the range.
+	 */
+	long getSum(long from, long to){
+		long result = 0;
+		long start = 0;
+		for(int i = 0; i < faces.length && start < to; i++){
+			long end = start + counts[i];
+			result += faces[i] * Math.max(Math.min(end, to) - Math.max(start, from), 0);
+			start = end;
+		}
+		return result;
+	}
+
+	/**
+	 * Appends all rolls to a StringBuilder in ascending order, where rolls that are not kept are put between brackets.
+	 * If there are more than MAX_LISTED_ROLLS rolls, each face is only appended once together with the number of times it was rolled, e.g. "3x20" for three 20s.
+	 * @param sb The StringBuilder.
+	 * @param from The index of the lowest roll that is kept.
+	 * @param to The index after the highest roll that is kept.
+	 */
+	void appendRolls(StringBuilder sb, long from, long to){
+		long start = 0;
+		for(int i = 0; i < faces.length; i++){
+			long end = start + counts[i];
+			long keptStart = Math.min(Math.max(start, from), end);
+			long keptEnd = Math.max(Math.min(end, to), keptStart);
+			appendRolls(sb, faces[i], keptStart - start, false);
+			appendRolls(sb, faces[i], keptEnd - keptStart, true);
+			appendRolls(sb, faces[i], end - keptEnd, false);
+			start = end;
+		}
+	}
+
+	private void appendRolls(StringBuilder sb, int face, long count, boolean kept){
+		if(count == 0) return;
+		if(numberOfRolls > MAX_LISTED_ROLLS){
+			sb.append(kept ? " " : " (").append(count).append("x").append(face).append(kept ? "" : ")");
+			return;
+		}
+		for(long i = 0; i < count; i++) sb.append(kept ? " " : " (").append(face).append(kept ? "" : ")");
+	}
+}
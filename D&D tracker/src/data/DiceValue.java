@@ -1,9 +1,6 @@
 package data;
 
 import java.io.PrintStream;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
 
 public class DiceValue implements Value {
 	public static final String[] VALUE_TYPE_NAMES = {"diceroll","dice","d"};
@@ -13,6 +10,8 @@ public class DiceValue implements Value {
 	private boolean keepLowest;
 	private boolean keepHighest;
 	private Value numberToKeep;
+	private int purity = Purity.NOT_ANALYZED;
+	private final boolean containsPreEvaluatedValue;
 	
 	private DiceValue(Value numberOfRolls, Value sizeOfDice, boolean keepLowest, boolean keepHighest, Value numberToKeep){
 		this.numberOfRolls = numberOfRolls;
@@ -20,16 +19,52 @@ public class DiceValue implements Value {
 		this.numberToKeep = numberToKeep;
 		this.keepLowest = keepLowest;
 		this.keepHighest = keepHighest;
+		containsPreEvaluatedValue = numberOfRolls.containsPreEvaluatedValue() || sizeOfDice.containsPreEvaluatedValue() || numberToKeep.containsPreEvaluatedValue();
 	}
 	
 	public DiceValue(Value numberOfRolls, Value sizeOfDice){
-		this(numberOfRolls,sizeOfDice,false,false,new VoidValue());
+		this(numberOfRolls,sizeOfDice,false,false,VoidValue.VOID);
 	}
 	
 	public DiceValue(Value numberOfRolls, Value sizeOfDice, Value numberToKeep, boolean keepLowest){
 		this(numberOfRolls, sizeOfDice, keepLowest, !keepLowest, numberToKeep);
 	}
 
+	/**
+	 * @return The Value object that gives the number of dice rolled.
+	 */
+	Value getNumberOfRolls(){
+		return numberOfRolls;
+	}
+
+	/**
+	 * @return The Value object that gives the size of the dice rolled.
+	 */
+	Value getSizeOfDice(){
+		return sizeOfDice;
+	}
+
+	/**
+	 * @return The Value object that gives the number of dice kept, which is only used if the lowest or highest dice are kept.
+	 */
+	Value getNumberToKeep(){
+		return numberToKeep;
+	}
+
+	/**
+	 * @return TRUE if only the lowest dice are kept, FALSE otherwise.
+	 */
+	boolean keepsLowest(){
+		return keepLowest;
+	}
+
+	/**
+	 * @return TRUE if only the highest dice are kept, FALSE otherwise.
+	 */
+	boolean keepsHighest(){
+		return keepHighest;
+	}
+
 	public String getTypeName() {
 		return VALUE_TYPE_NAMES[0];
 	}
@@ -48,62 +83,31 @@ public class DiceValue implements Value {
 	 */
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		EvaluationCache.markUncacheable();
 		long numberOfRolls = getIntEvaluation(this.numberOfRolls,environment,args,output);
 		if(numberOfRolls < 0 || numberOfRolls > Integer.MAX_VALUE) throw new EvaluationException(String.format("Can not roll %d number of dice.", numberOfRolls));
 		long sizeOfDice = getIntEvaluation(this.sizeOfDice,environment,args,output);
 		if(sizeOfDice <= 0 || sizeOfDice > Integer.MAX_VALUE) throw new EvaluationException(String.format("Can not roll a dice of size %d.", sizeOfDice));
-		List<IntValue> diceRolls = getDiceRolls((int) numberOfRolls,(int) sizeOfDice);
-		diceRolls.sort(null);
-		long numberOfRollsToKeep = keepLowest || keepHighest ? getIntEvaluation(numberToKeep,environment,args,output) : 0;
-		PrimitiveValue result;
-		if(keepLowest) result = getSum(getLowest(diceRolls,numberOfRollsToKeep));
-		else if(keepHighest) result = getSum(getHighest(diceRolls,numberOfRollsToKeep));
-		else result = getSum(diceRolls);
-		printDiceRolls(numberOfRolls,sizeOfDice,diceRolls,numberOfRollsToKeep,output);
+		DicePool diceRolls = DicePool.roll((int) numberOfRolls,(int) sizeOfDice,RandomSource.get());
+		long numberOfRollsToKeep = keepLowest || keepHighest ? getIntEvaluation(numberToKeep,environment,args,output) : numberOfRolls;
+		if(numberOfRollsToKeep < 0 || numberOfRollsToKeep > numberOfRolls) throw new EvaluationException(String.format("Can not keep the %s %d dice rolls.", keepLowest ? "lowest" : "highest", numberOfRollsToKeep));
+		long firstKept = keepHighest ? numberOfRolls - numberOfRollsToKeep : 0;
+		PrimitiveValue result = numberOfRollsToKeep == 0 ? VoidValue.VOID : IntValue.of(diceRolls.getSum(firstKept, firstKept + numberOfRollsToKeep));
+		int verbosity = Verbosity.get();
+		if(verbosity == Verbosity.FULL) printDiceRolls(numberOfRolls,sizeOfDice,diceRolls,firstKept,firstKept + numberOfRollsToKeep,output);
+		else if(verbosity == Verbosity.SUMMARY) printSummary(numberOfRolls,sizeOfDice,numberOfRollsToKeep,result,output);
 		return result;
 	}
 
-	private void printDiceRolls(long numberOfRolls, long sizeOfDice, List<IntValue> diceRolls, long numberOfRollsToKeep, PrintStream output) {
-		StringBuilder sb = new StringBuilder();
-		if(keepLowest){
-			for(int i = 0; i < numberOfRollsToKeep;i++) sb.append(" ").append(diceRolls.get(i).toString());
-			for(int i = (int) numberOfRollsToKeep; i < diceRolls.size();i++) sb.append(" (").append(diceRolls.get(i).toString()).append(")");
-		} else if(keepHighest){
-			for(int i = 0; i < diceRolls.size() - numberOfRollsToKeep;i++) sb.append(" (").append(diceRolls.get(i).toString()).append(")");
-			for(int i = (int) (diceRolls.size() - numberOfRollsToKeep); i < diceRolls.size();i++) sb.append(" ").append(diceRolls.get(i).toString());
-		} else {
-			for(int i = 0; i < diceRolls.size();i++) sb.append(" ").append(diceRolls.get(i).toString());
-		}
-		output.printf("Dice roll (%dD%d):%s\n",numberOfRolls,sizeOfDice,sb.toString());
-	}
-
-	private PrimitiveValue getSum(List<IntValue> diceRolls) throws EvaluationException{
-		PrimitiveValue result = new VoidValue();
-		try{
-			for(int i = 0; i < diceRolls.size(); i++) result = result.add(diceRolls.get(i));
-		} catch(ComputationException e){
-			throw new EvaluationException(String.format("Can not evaluate: %s", e.getMessage()),e);
-		}
-		return result;
+	private void printSummary(long numberOfRolls, long sizeOfDice, long numberOfRollsToKeep, PrimitiveValue result, PrintStream output) {
+		if(keepLowest || keepHighest) output.printf("Dice roll (%dD%d, keeping the %s %d): total %s\n",numberOfRolls,sizeOfDice,keepLowest ? "lowest" : "highest",numberOfRollsToKeep,result);
+		else output.printf("Dice roll (%dD%d): total %s\n",numberOfRolls,sizeOfDice,result);
 	}
 
-	private List<IntValue> getLowest(List<IntValue> diceRolls, long numberToKeep) throws EvaluationException{
-		if(numberToKeep < 0 || numberToKeep > diceRolls.size()) throw new EvaluationException(String.format("Can not keep the lowest %d dice rolls.", numberToKeep));
-		return diceRolls.subList(0, (int) numberToKeep);
-	}
-
-	private List<IntValue> getHighest(List<IntValue> diceRolls, long numberToKeep) throws EvaluationException{
-		if(numberToKeep < 0 || numberToKeep > diceRolls.size()) throw new EvaluationException(String.format("Can not keep the highest %d dice rolls.", numberToKeep));
-		return diceRolls.subList(diceRolls.size() - ((int) numberToKeep),diceRolls.size());
-	}
-
-	private List<IntValue> getDiceRolls(int numberOfRolls, int sizeOfDice) {
-		List<IntValue> result = new ArrayList<IntValue>();
-		Random random = new Random(System.currentTimeMillis());
-		for(int i = 0; i < numberOfRolls;i++){
-			result.add(new IntValue(random.nextInt(sizeOfDice) + 1));
-		}
-		return result;
+	private void printDiceRolls(long numberOfRolls, long sizeOfDice, DicePool diceRolls, long firstKept, long endKept, PrintStream output) {
+		StringBuilder sb = new StringBuilder();
+		diceRolls.appendRolls(sb, firstKept, endKept);
+		output.printf("Dice roll (%dD%d):%s\n",numberOfRolls,sizeOfDice,sb.toString());
 	}
 
 	private long getIntEvaluation(Value value,DataContainer environment, Value[] args, PrintStream output) throws EvaluationException{
@@ -138,9 +142,15 @@ public class DiceValue implements Value {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
+		if(!containsPreEvaluatedValue) return this;
 		return new DiceValue(numberOfRolls.getPreEvaluation(environment, args, output),sizeOfDice.getPreEvaluation(environment, args, output),keepLowest,keepHighest,numberToKeep.getPreEvaluation(environment, args, output));
 	}
 
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return containsPreEvaluatedValue;
+	}
+
 
 	@Override
 	public boolean equals(Value other) {
@@ -178,4 +188,13 @@ public class DiceValue implements Value {
 			throws EvaluationException {
 		return evaluate(environment, args, output);
 	}
+
+	/**
+	 * Returns RANDOM, combined with the purities of the number and size of the dice.
+	 */
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.combine(Purity.RANDOM, Purity.of(numberOfRolls, sizeOfDice, numberToKeep));
+		return purity;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,587 @@
+package data;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The exact probability distribution of the result of a Value object that rolls dice, which gives the probability of every integer it can evaluate to.
+ * A distribution can be computed for dice, with or without keeping the highest or lowest rolls, integers, sums and differences of these,
+ * and products with and divisions by integers, where variables are replaced by their Value objects, see of.
+ * Sums are computed by convolving the distributions of their terms, which uses the fast Fourier transform for large distributions.
+ * Distributions are cached by the normalized form of their expression, in which all variables are replaced and the terms of sums are sorted,
+ * such that e.g. "4d6h3 + STR" and "STR + 4d6h3" share their distribution as long as STR does not change.
+ */
+public final class Distribution {
+	private static final int MAX_SIZE = 1 << 20;
+	private static final long MAX_KEEP_STEPS = 1L << 30;
+	private static final int MAX_DIRECT_CONVOLUTION_SIZE = 1 << 6;
+	private static final int MAX_CACHED_PROBABILITIES = 1 << 22;
+
+	private static final Map<String,Distribution> cache = new LinkedHashMap<String,Distribution>(16, 0.75f, true);
+	private static long cachedProbabilities;
+
+	private final long minimum;
+	private final double[] probabilities;
+
+	private Distribution(long minimum, double[] probabilities){
+		this.minimum = minimum;
+		this.probabilities = probabilities;
+	}
+
+	/**
+	 * Computes the distribution of the result of a Value object, or gives it from the cache if it was computed before.
+	 * @param value The Value object.
+	 * @param environment The DataContainer in which the Value object is evaluated.
+	 * @param output A PrintStream object that is used to evaluate parts of the Value object that do not roll dice.
+	 * @return The Distribution of the evaluations of the Value object.
+	 * @throws EvaluationException If the Value object can not be evaluated, if it is not a combination of dice and integers as described above,
+	 * or if its distribution has more than MAX_SIZE possible results.
+	 */
+	public static Distribution of(Value value, DataContainer environment, PrintStream output) throws EvaluationException {
+		return resolve(value, environment, output).getDistribution();
+	}
+
+	/**
+	 * @return The lowest possible result.
+	 */
+	public long getMinimum(){
+		return minimum;
+	}
+
+	/**
+	 * @return The highest possible result.
+	 */
+	public long getMaximum(){
+		return minimum + probabilities.length - 1;
+	}
+
+	/**
+	 * @param value An integer.
+	 * @return The probability that the result equals the integer.
+	 */
+	public double getProbability(long value){
+		return value < minimum || value > getMaximum() ? 0 : probabilities[(int) (value - minimum)];
+	}
+
+	/**
+	 * @param value An integer.
+	 * @return The probability that the result is at least the integer.
+	 */
+	public double getProbabilityOfAtLeast(long value){
+		double result = 0;
+		for(int i = probabilities.length - 1; i >= 0 && minimum + i >= value; i--) result += probabilities[i];
+		return Math.min(result, 1);
+	}
+
+	/**
+	 * @return The expected value of the result.
+	 */
+	public double getMean(){
+		double result = 0;
+		for(int i = 0; i < probabilities.length; i++) result += i * probabilities[i];
+		return minimum + result;
+	}
+
+	/**
+	 * @return The variance of the result.
+	 */
+	public double getVariance(){
+		double mean = getMean() - minimum;
+		double result = 0;
+		for(int i = 0; i < probabilities.length; i++) result += (i - mean) * (i - mean) * probabilities[i];
+		return result;
+	}
+
+	/**
+	 * @param fraction A number between 0 and 1.
+	 * @return The lowest possible result for which the probability that the result is at most this result is at least the given fraction.
+	 */
+	public long getPercentile(double fraction){
+		double total = 0;
+		for(int i = 0; i < probabilities.length; i++){
+			total += probabilities[i];
+			if(total >= fraction) return minimum + i;
+		}
+		return getMaximum();
+	}
+
+	private static Distribution constant(long value){
+		return new Distribution(value, new double[]{1});
+	}
+
+	private static Distribution uniform(int sizeOfDice){
+		double[] probabilities = new double[sizeOfDice];
+		for(int i = 0; i < sizeOfDice; i++) probabilities[i] = 1.0 / sizeOfDice;
+		return new Distribution(1, probabilities);
+	}
+
+	/**
+	 * Gives the distribution of the sum of a number of independent results that each have this distribution, by repeated squaring.
+	 */
+	private Distribution repeat(int times){
+		Distribution result = constant(0);
+		for(Distribution power = this; times > 0; times >>= 1){
+			if((times & 1) == 1) result = result.add(power);
+			if(times > 1) power = power.add(power);
+		}
+		return result;
+	}
+
+	private Distribution add(Distribution other){
+		return new Distribution(minimum + other.minimum, convolve(probabilities, other.probabilities));
+	}
+
+	private Distribution multiply(long factor){
+		if(factor == 0 || probabilities.length == 1) return constant(minimum * factor);
+		if(factor < 0) return multiply(-factor).negate();
+		double[] result = new double[(int) ((probabilities.length - 1) * factor + 1)];
+		for(int i = 0; i < probabilities.length; i++) result[(int) (i * factor)] = probabilities[i];
+		return new Distribution(minimum * factor, result);
+	}
+
+	private Distribution divide(long divisor) throws ComputationException {
+		long resultMinimum = IntValue.divide(divisor > 0 ? minimum : getMaximum(), divisor);
+		long resultMaximum = IntValue.divide(divisor > 0 ? getMaximum() : minimum, divisor);
+		double[] result = new double[(int) (resultMaximum - resultMinimum + 1)];
+		for(int i = 0; i < probabilities.length; i++) result[(int) (IntValue.divide(minimum + i, divisor) - resultMinimum)] += probabilities[i];
+		return new Distribution(resultMinimum, result);
+	}
+
+	private Distribution negate(){
+		double[] result = new double[probabilities.length];
+		for(int i = 0; i < probabilities.length; i++) result[probabilities.length - 1 - i] = probabilities[i];
+		return new Distribution(-getMaximum(), result);
+	}
+
+	/**
+	 * Gives the distribution of the sum of the highest rolls of a number of dice, where 0 < numberToKeep < numberOfRolls.
+	 * The faces are considered from the highest to the lowest, while keeping track of the number of dice that rolled a higher face
+	 * and the sum of the kept dice among them. Given the number of dice that rolled a higher face, each of the other dice rolls the current face with probability 1/face.
+	 * Once at least numberToKeep dice rolled a higher or equal face, the sum of the kept dice is known and the other dice no longer matter.
+	 */
+	private static Distribution keepHighest(int numberOfRolls, int sizeOfDice, int numberToKeep){
+		int maximumSum = numberToKeep * sizeOfDice;
+		double[][] sums = new double[numberToKeep][];
+		sums[0] = new double[maximumSum + 1];
+		sums[0][0] = 1;
+		double[] result = new double[maximumSum + 1];
+		for(int face = sizeOfDice; face >= 1; face--){
+			double[][] newSums = new double[numberToKeep][];
+			for(int rolled = 0; rolled < numberToKeep; rolled++){
+				if(sums[rolled] == null) continue;
+				double[] binomial = getBinomialProbabilities(numberOfRolls - rolled, 1.0 / face, numberToKeep - rolled);
+				for(int count = 0; count <= numberToKeep - rolled; count++){
+					if(binomial[count] == 0) continue;
+					int kept = Math.min(count, numberToKeep - rolled);
+					double[] target = rolled + count < numberToKeep ? getOrCreate(newSums, rolled + count, maximumSum + 1) : result;
+					for(int sum = 0; sum + kept * face <= maximumSum; sum++) target[sum + kept * face] += binomial[count] * sums[rolled][sum];
+				}
+			}
+			sums = newSums;
+		}
+		int lowestSum = numberToKeep;
+		double[] probabilities = new double[maximumSum - lowestSum + 1];
+		System.arraycopy(result, lowestSum, probabilities, 0, probabilities.length);
+		return new Distribution(lowestSum, probabilities);
+	}
+
+	private static double[] getOrCreate(double[][] arrays, int index, int length){
+		if(arrays[index] == null) arrays[index] = new double[length];
+		return arrays[index];
+	}
+
+	/**
+	 * Gives the probabilities that a binomially distributed number with parameters n and p equals 0, 1, ..., last - 1,
+	 * followed by the probability that it is at least last.
+	 */
+	private static double[] getBinomialProbabilities(int n, double p, int last){
+		double[] result = new double[last + 1];
+		double remaining = 1;
+		if(p < 1){
+			double logProbability = n * Math.log1p(-p);
+			for(int k = 0; k < last && k <= n; k++){
+				result[k] = Math.exp(logProbability);
+				remaining -= result[k];
+				logProbability += Math.log((double) (n - k) / (k + 1)) + Math.log(p / (1 - p));
+			}
+		}
+		result[last] = Math.max(remaining, 0);
+		return result;
+	}
+
+	/**
+	 * Gives the convolution of two arrays, which is computed directly if one of them is small and with the fast Fourier transform otherwise.
+	 */
+	private static double[] convolve(double[] a, double[] b){
+		double[] result = new double[a.length + b.length - 1];
+		if(Math.min(a.length, b.length) <= MAX_DIRECT_CONVOLUTION_SIZE){
+			for(int i = 0; i < a.length; i++){
+				for(int j = 0; j < b.length; j++) result[i + j] += a[i] * b[j];
+			}
+			return result;
+		}
+		int size = Integer.highestOneBit(result.length - 1) << 1;
+		double[] real = new double[size];
+		double[] imaginary = new double[size];
+		System.arraycopy(a, 0, real, 0, a.length);
+		System.arraycopy(b, 0, imaginary, 0, b.length);
+		transform(real, imaginary, false);
+		//The transforms of the real arrays a and b are recovered from the transform of a + i * b by symmetry, and multiplied
+		double[] productReal = new double[size];
+		double[] productImaginary = new double[size];
+		for(int k = 0; k < size; k++){
+			int j = (size - k) & (size - 1);
+			double aReal = (real[k] + real[j]) / 2, aImaginary = (imaginary[k] - imaginary[j]) / 2;
+			double bReal = (imaginary[k] + imaginary[j]) / 2, bImaginary = (real[j] - real[k]) / 2;
+			productReal[k] = aReal * bReal - aImaginary * bImaginary;
+			productImaginary[k] = aReal * bImaginary + aImaginary * bReal;
+		}
+		transform(productReal, productImaginary, true);
+		double total = 0;
+		for(int i = 0; i < result.length; i++){
+			result[i] = Math.max(productReal[i] / size, 0);
+			total += result[i];
+		}
+		for(int i = 0; i < result.length; i++) result[i] /= total;
+		return result;
+	}
+
+	/**
+	 * Replaces an array of complex numbers, whose length is a power of two, by its discrete Fourier transform or its inverse without the factor 1/length.
+	 */
+	private static void transform(double[] real, double[] imaginary, boolean inverse){
+		int size = real.length;
+		for(int i = 1, j = 0; i < size; i++){
+			int bit = size >> 1;
+			for(; (j & bit) != 0; bit >>= 1) j ^= bit;
+			j ^= bit;
+			if(i < j){
+				double t = real[i]; real[i] = real[j]; real[j] = t;
+				t = imaginary[i]; imaginary[i] = imaginary[j]; imaginary[j] = t;
+			}
+		}
+		for(int length = 2; length <= size; length <<= 1){
+			double angle = (inverse ? 2 : -2) * Math.PI / length;
+			for(int k = 0; k < length / 2; k++){
+				double wReal = Math.cos(angle * k), wImaginary = Math.sin(angle * k);
+				for(int i = k; i < size; i += length){
+					int j = i + length / 2;
+					double tReal = real[j] * wReal - imaginary[j] * wImaginary;
+					double tImaginary = real[j] * wImaginary + imaginary[j] * wReal;
+					real[j] = real[i] - tReal;
+					imaginary[j] = imaginary[i] - tImaginary;
+					real[i] += tReal;
+					imaginary[i] += tImaginary;
+				}
+			}
+		}
+	}
+
+	private static Distribution getCached(String key){
+		synchronized(cache){
+			return cache.get(key);
+		}
+	}
+
+	private static void cache(String key, Distribution distribution){
+		synchronized(cache){
+			if(cache.put(key, distribution) == null) cachedProbabilities += distribution.probabilities.length;
+			Iterator<Distribution> iterator = cache.values().iterator();
+			while(cachedProbabilities > MAX_CACHED_PROBABILITIES && iterator.hasNext()){
+				cachedProbabilities -= iterator.next().probabilities.length;
+				iterator.remove();
+			}
+		}
+	}
+
+	/**
+	 * Replaces a Value object by a Term, which is the normalized form of its expression.
+	 */
+	private static Term resolve(Value value, DataContainer environment, PrintStream output) throws EvaluationException {
+		if(value instanceof IntValue) return new Constant(((IntValue) value).getLong());
+		if(value instanceof DiceValue) return resolveDice((DiceValue) value, environment, output);
+		if(value instanceof SumValue){
+			List<Term> terms = new ArrayList<Term>();
+			for(Value term : ((SumValue) value).getValues()) terms.add(resolve(term, environment, output));
+			return Sum.of(terms);
+		}
+		if(value instanceof SubtractionValue){
+			SubtractionValue subtraction = (SubtractionValue) value;
+			Term a = resolve(subtraction.getFirstValue(), environment, output);
+			Term b = resolve(subtraction.getSecondValue(), environment, output);
+			List<Term> terms = new ArrayList<Term>();
+			terms.add(a);
+			terms.add(Product.of(b, -1));
+			return Sum.of(terms);
+		}
+		if(value instanceof ProductValue){
+			ProductValue product = (ProductValue) value;
+			Term a = resolve(product.getFirstValue(), environment, output);
+			Term b = resolve(product.getSecondValue(), environment, output);
+			if(a instanceof Constant) return Product.of(b, ((Constant) a).value);
+			if(b instanceof Constant) return Product.of(a, ((Constant) b).value);
+			throw new EvaluationException(String.format("Can not compute the distribution of %s, since both factors roll dice.", value));
+		}
+		if(value instanceof DivisionValue){
+			DivisionValue division = (DivisionValue) value;
+			Term a = resolve(division.getFirstValue(), environment, output);
+			long divisor = resolveInteger(division.getSecondValue(), environment, output, "divisor");
+			if(divisor == 0) throw new EvaluationException(String.format("Can not compute the distribution of %s, since it divides by zero.", value));
+			return a instanceof Constant ? new Constant(Math.floorDiv(((Constant) a).value, divisor)) : new Quotient(a, divisor);
+		}
+		if(value instanceof SimplifiedValue) return resolve(((SimplifiedValue) value).getSimplifiedValue(), environment, output);
+		if(value instanceof NamedValue){
+			DataPair data = ((NamedValue) value).findReferencedDataPair(environment);
+			if(data == null) throw new EvaluationException(String.format("Can not evaluate, since No variable \'%s\' exists in \'%s\'.",value,environment.getPath()));
+			return resolve(data.getValue(), environment, output);
+		}
+		if(value instanceof SubVariableValue && !(((SubVariableValue) value).getSubValue() instanceof VoidValue)){
+			SubVariableValue subVariable = (SubVariableValue) value;
+			return resolve(subVariable.getSubValue(), subVariable.getLocalEnvironment(environment, Value.NO_ARGUMENTS, output), output);
+		}
+		if(Purity.isPure(value.getPurity())){
+			PrimitiveValue result = value.evaluate(environment, Value.NO_ARGUMENTS, output);
+			if(result instanceof IntValue) return new Constant(((IntValue) result).getLong());
+			throw new EvaluationException(String.format("Can not compute the distribution of %s, since it evaluates to a %s instead of an integer.", value, result.getTypeName()));
+		}
+		throw new EvaluationException(String.format("Can not compute the distribution of %s, since it is not a combination of dice and integers.", value));
+	}
+
+	private static Term resolveDice(DiceValue dice, DataContainer environment, PrintStream output) throws EvaluationException {
+		long numberOfRolls = resolveInteger(dice.getNumberOfRolls(), environment, output, "number of dice");
+		if(numberOfRolls < 0 || numberOfRolls > Integer.MAX_VALUE) throw new EvaluationException(String.format("Can not roll %d number of dice.", numberOfRolls));
+		long sizeOfDice = resolveInteger(dice.getSizeOfDice(), environment, output, "size of the dice");
+		if(sizeOfDice <= 0 || sizeOfDice > Integer.MAX_VALUE) throw new EvaluationException(String.format("Can not roll a dice of size %d.", sizeOfDice));
+		if(!dice.keepsLowest() && !dice.keepsHighest()) return new Pool((int) numberOfRolls, (int) sizeOfDice, (int) numberOfRolls, false);
+		long numberToKeep = resolveInteger(dice.getNumberToKeep(), environment, output, "number of dice kept");
+		if(numberToKeep < 0 || numberToKeep > numberOfRolls) throw new EvaluationException(String.format("Can not keep the %s %d dice rolls.", dice.keepsLowest() ? "lowest" : "highest", numberToKeep));
+		return new Pool((int) numberOfRolls, (int) sizeOfDice, (int) numberToKeep, dice.keepsLowest());
+	}
+
+	private static long resolveInteger(Value value, DataContainer environment, PrintStream output, String description) throws EvaluationException {
+		Term result = resolve(value, environment, output);
+		if(!(result instanceof Constant)) throw new EvaluationException(String.format("Can not compute the distribution if the %s is rolled, as in %s.", description, value));
+		return ((Constant) result).value;
+	}
+
+	/**
+	 * A normalized expression whose distribution can be computed, whose key identifies it in the cache.
+	 */
+	private static abstract class Term {
+		private String key;
+
+		abstract String createKey();
+
+		abstract long getSize();
+
+		abstract Distribution compute() throws EvaluationException;
+
+		final String getKey(){
+			if(key == null) key = createKey();
+			return key;
+		}
+
+		Distribution getDistribution() throws EvaluationException {
+			if(getSize() > MAX_SIZE) throw new EvaluationException(String.format("Can not compute the distribution of %s, since it has more than %d possible results.", getKey(), MAX_SIZE));
+			Distribution result = getCached(getKey());
+			if(result == null){
+				result = compute();
+				cache(getKey(), result);
+			}
+			return result;
+		}
+	}
+
+	private static class Constant extends Term {
+		private final long value;
+
+		private Constant(long value){
+			this.value = value;
+		}
+
+		@Override
+		String createKey(){
+			return String.valueOf(value);
+		}
+
+		@Override
+		long getSize(){
+			return 1;
+		}
+
+		@Override
+		Distribution getDistribution(){
+			return constant(value);
+		}
+
+		@Override
+		Distribution compute(){
+			return constant(value);
+		}
+	}
+
+	/**
+	 * A number of dice of which all, the highest or the lowest are kept.
+	 */
+	private static class Pool extends Term {
+		private final int numberOfRolls;
+		private final int sizeOfDice;
+		private final int numberToKeep;
+		private final boolean keepLowest;
+
+		private Pool(int numberOfRolls, int sizeOfDice, int numberToKeep, boolean keepLowest){
+			this.numberOfRolls = numberOfRolls;
+			this.sizeOfDice = sizeOfDice;
+			this.numberToKeep = numberToKeep;
+			this.keepLowest = keepLowest;
+		}
+
+		@Override
+		String createKey(){
+			if(numberToKeep == numberOfRolls) return String.format("%dD%d", numberOfRolls, sizeOfDice);
+			return String.format("%dD%d%s%d", numberOfRolls, sizeOfDice, keepLowest ? "L" : "H", numberToKeep);
+		}
+
+		@Override
+		long getSize(){
+			return (long) numberToKeep * (sizeOfDice - 1) + 1;
+		}
+
+		@Override
+		Distribution compute() throws EvaluationException {
+			if(numberToKeep == 0) return constant(0);
+			if(numberToKeep == numberOfRolls) return uniform(sizeOfDice).repeat(numberOfRolls);
+			if((double) sizeOfDice * numberToKeep * numberToKeep * getSize() > MAX_KEEP_STEPS) throw new EvaluationException(String.format("Can not compute the distribution of %s, since it keeps too many dice.", getKey()));
+			Distribution highest = keepHighest(numberOfRolls, sizeOfDice, numberToKeep);
+			if(!keepLowest) return highest;
+			//The lowest rolls of the dice are the highest rolls of the dice whose faces are numbered the other way around
+			return highest.negate().add(constant((long) numberToKeep * (sizeOfDice + 1)));
+		}
+	}
+
+	/**
+	 * A sum of terms, whose key lists the keys of its terms in sorted order.
+	 */
+	private static class Sum extends Term {
+		private final List<Term> terms;
+
+		private Sum(List<Term> terms){
+			this.terms = terms;
+		}
+
+		/**
+		 * Gives the Term of a sum, where nested sums are flattened and constants are added together.
+		 */
+		private static Term of(List<Term> terms){
+			List<Term> result = new ArrayList<Term>();
+			long constant = 0;
+			for(Term term : terms){
+				List<Term> flattened = term instanceof Sum ? ((Sum) term).terms : Collections.singletonList(term);
+				for(Term t : flattened){
+					if(t instanceof Constant) constant += ((Constant) t).value;
+					else result.add(t);
+				}
+			}
+			if(constant != 0 || result.isEmpty()) result.add(new Constant(constant));
+			if(result.size() == 1) return result.get(0);
+			result.sort((a, b) -> a.getKey().compareTo(b.getKey()));
+			return new Sum(result);
+		}
+
+		@Override
+		String createKey(){
+			StringBuilder sb = new StringBuilder("(");
+			for(Term term : terms) sb.append(sb.length() > 1 ? "+" : "").append(term.getKey());
+			return sb.append(")").toString();
+		}
+
+		@Override
+		long getSize(){
+			long result = 1;
+			for(Term term : terms){
+				if(term.getSize() > MAX_SIZE) return Long.MAX_VALUE;
+				result += term.getSize() - 1;
+			}
+			return result;
+		}
+
+		@Override
+		Distribution compute() throws EvaluationException {
+			Distribution result = constant(0);
+			for(Term term : terms) result = result.add(term.getDistribution());
+			return result;
+		}
+	}
+
+	private static class Product extends Term {
+		private final Term term;
+		private final long factor;
+
+		private Product(Term term, long factor){
+			this.term = term;
+			this.factor = factor;
+		}
+
+		private static Term of(Term term, long factor){
+			if(term instanceof Constant) return new Constant(((Constant) term).value * factor);
+			if(factor == 1) return term;
+			if(term instanceof Product) return of(((Product) term).term, ((Product) term).factor * factor);
+			if(term instanceof Sum){
+				List<Term> terms = new ArrayList<Term>();
+				for(Term t : ((Sum) term).terms) terms.add(of(t, factor));
+				return Sum.of(terms);
+			}
+			return new Product(term, factor);
+		}
+
+		@Override
+		String createKey(){
+			return String.format("%d*%s", factor, term.getKey());
+		}
+
+		@Override
+		long getSize(){
+			if(term.getSize() - 1 > MAX_SIZE / Math.abs(factor)) return Long.MAX_VALUE;
+			return (term.getSize() - 1) * Math.abs(factor) + 1;
+		}
+
+		@Override
+		Distribution compute() throws EvaluationException {
+			return term.getDistribution().multiply(factor);
+		}
+	}
+
+	private static class Quotient extends Term {
+		private final Term term;
+		private final long divisor;
+
+		private Quotient(Term term, long divisor){
+			this.term = term;
+			this.divisor = divisor;
+		}
+
+		@Override
+		String createKey(){
+			return String.format("%s/%d", term.getKey(), divisor);
+		}
+
+		@Override
+		long getSize(){
+			return term.getSize();
+		}
+
+		@Override
+		Distribution compute() throws EvaluationException {
+			try{
+				return term.getDistribution().divide(divisor);
+			} catch(ComputationException e){
+				throw new EvaluationException(String.format("Can not evaluate: %s",e.getMessage()),e);
+			}
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package data;
+
+import java.io.PrintStream;
+
+import data.command.CommandValue;
+
+/**
+ * Remembers the evaluations of the Value objects stored in DataPair objects,
+ * such that derived variables are not evaluated from scratch every time they are used.
+ * An evaluation is remembered per DataPair, per environment and per kind of evaluation, but only if:
+ * - No dice were rolled and no impure system commands were performed during the evaluation, see Purity.
+ * - The evaluation did not read the arguments it was given.
+ * - The result of the evaluation is not a DataContainer.
+ * During an evaluation it is recorded which DataPair objects are read and in which DataContainer objects a name was looked for without finding it.
+ * This is recorded for the innermost evaluation in progress that may still be remembered, since an evaluation that will not be remembered,
+ * such as a function reading its arguments, only has to pass on what it reads to the evaluations it is part of.
+ * Whenever the Value object of a DataPair changes or the DataPair is removed, all evaluations that read it, directly or indirectly, are forgotten.
+ * Whenever a DataPair is added, only the evaluations that looked for its name in its DataContainer are forgotten, as only their names might refer to it now.
+ * Whenever a DataContainer is moved, the evaluations that looked for a name in it without finding it are forgotten,
+ * as they continued looking in the DataContainer objects above it, see DataContainer.findData.
+ * While running the trials of a Simulation remembered evaluations are used, but no new evaluations or dependencies are remembered,
+ * since the trials run on several threads at once, see startReadOnly. Value objects with side effects can then not be evaluated at all.
+ */
+public final class EvaluationCache {
+	public static final int EVALUATE = 0;
+	public static final int FIRST_ADDABLE = 1;
+	public static final int FIRST_SUBTRACTIBLE = 2;
+	public static final int FIRST_MULTIPLICABLE = 3;
+	public static final int FIRST_DIVISIBLE = 4;
+	static final int NUMBER_OF_MODES = 5;
+
+	private static final ThreadLocal<Frame> currentFrame = new ThreadLocal<Frame>();
+
+	private EvaluationCache(){
+	}
+
+	/**
+	 * Evaluates the Value object stored in a DataPair, or gives the remembered result of an earlier identical evaluation.
+	 * A command is given its arguments with all ArgumentValue objects replaced, see BoundArgument.
+	 * @param data The DataPair object of which the Value object should be evaluated.
+	 * @param environment The DataContainer in which the Value object must be evaluated.
+	 * @param args Arguments that are given for evaluating the Value object.
+	 * @param output A PrintStream object that can be used to print information to the user about the evaluation.
+	 * @param mode One of EVALUATE, FIRST_ADDABLE, FIRST_SUBTRACTIBLE, FIRST_MULTIPLICABLE or FIRST_DIVISIBLE,
+	 * indicating which method of the Value object should be used for the evaluation.
+	 * @return The result of the evaluation.
+	 * @throws EvaluationException If the evaluation did not succeed, or if it has side effects while the evaluations are read-only.
+	 */
+	public static PrimitiveValue evaluate(DataPair data, DataContainer environment, Value[] args, PrintStream output, int mode) throws EvaluationException {
+		Frame parent = currentFrame.get();
+		boolean readOnly = parent != null && parent.readOnly;
+		DataPair dependent = findDependent(parent);
+		if(dependent != null) data.addDependent(dependent);
+		Value value = data.getValue();
+		int purity = value.getPurity();
+		if(readOnly) checkPure(data, purity);
+		boolean impureOrRandom = (purity & (Purity.IMPURE | Purity.RANDOM)) != 0;
+		if(impureOrRandom) markUncacheable(parent);
+		if(value instanceof CommandValue) args = BoundArgument.resolve(args);
+		if(impureOrRandom || value instanceof CommandValue || (value instanceof PrimitiveValue && !(value instanceof DataContainer))) return evaluateValue(value, environment, args, output, mode);
+		PrimitiveValue result = data.getCachedEvaluation(environment, mode);
+		if(result != null) return result;
+		if(readOnly) return evaluateValue(value, environment, args, output, mode);
+		Frame frame = new Frame(data, args, parent);
+		currentFrame.set(frame);
+		try{
+			result = evaluateValue(value, environment, args, output, mode);
+		} finally{
+			currentFrame.set(parent);
+		}
+		if(frame.cacheable && !(result instanceof DataContainer)) data.cacheEvaluation(environment, mode, result);
+		return result;
+	}
+
+	/**
+	 * Evaluates the Value object stored in a DataPair until the first DataContainer, while recording that the DataPair was read.
+	 * The result of this evaluation is never remembered, since it is a DataContainer.
+	 * @param data The DataPair object of which the Value object should be evaluated.
+	 * @param environment The DataContainer in which the Value object must be evaluated.
+	 * @param args Arguments that are given for evaluating the Value object.
+	 * @param output A PrintStream object that can be used to print information to the user about the evaluation.
+	 * @return The first DataContainer encountered in the evaluation.
+	 * @throws EvaluationException If the evaluation did not succeed, or if it has side effects while the evaluations are read-only.
+	 */
+	public static DataContainer evaluateToFirstDataContainer(DataPair data, DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		Frame parent = currentFrame.get();
+		DataPair dependent = findDependent(parent);
+		if(dependent != null) data.addDependent(dependent);
+		int purity = data.getValue().getPurity();
+		if(parent != null && parent.readOnly) checkPure(data, purity);
+		if((purity & (Purity.IMPURE | Purity.RANDOM)) != 0) markUncacheable(parent);
+		return data.getValue().evaluateToFirstDataContainer(environment, args, output);
+	}
+
+	/**
+	 * Checks whether the Value object of a DataPair may be evaluated while the evaluations are read-only, see startReadOnly.
+	 * Purity can only be known for certain once a name is looked up, so this happens for every DataPair that is evaluated,
+	 * which in particular rejects every system command with side effects that is used by its name.
+	 * @param purity The purity of the Value object of the DataPair.
+	 * @throws EvaluationException If the Value object has side effects.
+	 */
+	private static void checkPure(DataPair data, int purity) throws EvaluationException {
+		if((purity & Purity.IMPURE) != 0) throw new EvaluationException(String.format("Can not perform \'%s\' during a simulation, since it has side effects.", data.getName()));
+	}
+
+	private static PrimitiveValue evaluateValue(Value value, DataContainer environment, Value[] args, PrintStream output, int mode) throws EvaluationException {
+		switch(mode){
+		case FIRST_ADDABLE:
+			return value.evaluateToFirstAddable(environment, args, output);
+		case FIRST_SUBTRACTIBLE:
+			return value.evaluateToFirstSubtractible(environment, args, output);
+		case FIRST_MULTIPLICABLE:
+			return value.evaluateToFirstMultiplicable(environment, args, output);
+		case FIRST_DIVISIBLE:
+			return value.evaluateToFirstDivisible(environment, args, output);
+		case EVALUATE:
+		default:
+			return value.evaluate(environment, args, output);
+		}
+	}
+
+	/**
+	 * Gives the DataPair whose evaluation is in progress, which should be told about the DataPairs and names it looks up, see DataContainer.findData.
+	 * @return The DataPair of the innermost evaluation in progress on this thread that may still be remembered,
+	 * or null if there is none or the current thread is running the trials of a Simulation, in which case nothing is recorded.
+	 */
+	static DataPair getCurrentDependent(){
+		return findDependent(currentFrame.get());
+	}
+
+	private static DataPair findDependent(Frame frame){
+		for(; frame != null && !frame.readOnly; frame = frame.parent){
+			if(frame.cacheable) return frame.data;
+		}
+		return null;
+	}
+
+	/**
+	 * Indicates that the evaluations currently in progress should not be remembered,
+	 * for example because they have side effects or their result is random.
+	 */
+	public static void markUncacheable(){
+		markUncacheable(currentFrame.get());
+	}
+
+	private static void markUncacheable(Frame frame){
+		for(; frame != null && !frame.readOnly; frame = frame.parent) frame.cacheable = false;
+	}
+
+	/**
+	 * Indicates that the given arguments are used by an evaluation,
+	 * such that evaluations in progress that were given these arguments are not remembered.
+	 * Evaluations in progress that were given other arguments are not affected,
+	 * as those arguments are created during these evaluations and only depend on them.
+	 * @param args The array of arguments that is used.
+	 */
+	public static void markArgumentsRead(Value[] args){
+		for(Frame frame = currentFrame.get(); frame != null && !frame.readOnly; frame = frame.parent){
+			if(frame.args == args) frame.cacheable = false;
+		}
+	}
+
+	/**
+	 * Makes the evaluations on the current thread read-only until endReadOnly is called:
+	 * remembered evaluations are still used, but no new evaluations or dependencies are remembered,
+	 * and DataPairs whose Value objects have side effects can not be evaluated, see checkPure.
+	 * This is recorded in the same ThreadLocal as the evaluations in progress, such that evaluations do not have to look up a second one.
+	 */
+	static void startReadOnly(){
+		Frame frame = new Frame(null, null, currentFrame.get());
+		frame.cacheable = false;
+		frame.readOnly = true;
+		currentFrame.set(frame);
+	}
+
+	/**
+	 * Ends the read-only evaluations that were started last on the current thread by startReadOnly.
+	 */
+	static void endReadOnly(){
+		currentFrame.set(currentFrame.get().parent);
+	}
+
+	/**
+	 * An evaluation of the Value object of a DataPair that is in progress, or the start of read-only evaluations.
+	 */
+	private static class Frame {
+		private final DataPair data;
+		private final Value[] args;
+		private final Frame parent;
+		private boolean cacheable;
+		private boolean readOnly;
+
+		private Frame(DataPair data, Value[] args, Frame parent){
+			this.data = data;
+			this.args = args;
+			this.parent = parent;
+			cacheable = true;
+		}
+	}
+}
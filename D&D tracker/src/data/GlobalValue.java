@@ -46,7 +46,12 @@ public class GlobalValue implements Value {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
 	}
 
 	@Override
@@ -83,4 +88,12 @@ public class GlobalValue implements Value {
 			throws EvaluationException {
 		return environment.getTopLevel().evaluateToFirstDivisible(environment, args, output);
 	}
+
+	/**
+	 * Returns UNKNOWN, since the contents of the top level DataContainer may change.
+	 */
+	@Override
+	public int getPurity() {
+		return Purity.UNKNOWN;
+	}
 }
@@ -7,6 +7,9 @@ import java.io.PrintStream;
  */
 public class IntValue implements PrimitiveValue {
 	public static final String[] VALUE_TYPE_NAMES = {"integer","int"};
+	private static final long SMALLEST_CACHED_NUMBER = -128;
+	private static final long LARGEST_CACHED_NUMBER = 1023;
+	private static final IntValue[] CACHED_VALUES = createCachedValues();
 
 	private long number;
 
@@ -26,6 +29,23 @@ public class IntValue implements PrimitiveValue {
 		this.number = number;
 	}
 
+	/**
+	 * Gives an IntValue object containing a given number.
+	 * Numbers that occur often are shared between calls, such that no new IntValue object has to be created for them.
+	 * @param number The number that the IntValue object should contain.
+	 * @return An IntValue object containing the given number.
+	 */
+	public static IntValue of(long number){
+		if(number >= SMALLEST_CACHED_NUMBER && number <= LARGEST_CACHED_NUMBER) return CACHED_VALUES[(int) (number - SMALLEST_CACHED_NUMBER)];
+		return new IntValue(number);
+	}
+
+	private static IntValue[] createCachedValues(){
+		IntValue[] result = new IntValue[(int) (LARGEST_CACHED_NUMBER - SMALLEST_CACHED_NUMBER + 1)];
+		for(int i = 0; i < result.length; i++) result[i] = new IntValue(SMALLEST_CACHED_NUMBER + i);
+		return result;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("%d", number);
@@ -62,11 +82,19 @@ public class IntValue implements PrimitiveValue {
 		throw new ComputationException(String.format("Can not add %s to %s.",getTypeName(),other.getTypeName()));
 	}
 
-	private PrimitiveValue addIntValue(IntValue other) throws ComputationException{
+	PrimitiveValue addIntValue(IntValue other) throws ComputationException{
+		return of(add(number, other.number));
+	}
+
+	/**
+	 * Adds two integers in the same way as IntValue objects are added.
+	 * @throws ComputationException If the addition causes an overflow.
+	 */
+	static long add(long a, long b) throws ComputationException{
 		try{
-			return new IntValue(Math.addExact(number, other.number));
+			return Math.addExact(a, b);
 		} catch(ArithmeticException e){
-			throw new ComputationException(String.format("Can not add %d and %d, result causes overflow.", number, other.number),e);
+			throw new ComputationException(String.format("Can not add %d and %d, result causes overflow.", a, b),e);
 		}
 	}
 
@@ -83,11 +111,19 @@ public class IntValue implements PrimitiveValue {
 		throw new ComputationException(String.format("Can not substract %s from %s.",other.getTypeName(),getTypeName()));
 	}
 
-	private PrimitiveValue substractIntValue(IntValue other) throws ComputationException{
+	PrimitiveValue substractIntValue(IntValue other) throws ComputationException{
+		return of(subtract(number, other.number));
+	}
+
+	/**
+	 * Subtracts two integers in the same way as IntValue objects are subtracted.
+	 * @throws ComputationException If the subtraction causes an overflow.
+	 */
+	static long subtract(long a, long b) throws ComputationException{
 		try{
-			return new IntValue(Math.subtractExact(number, other.number));
+			return Math.subtractExact(a, b);
 		} catch(ArithmeticException e){
-			throw new ComputationException(String.format("Can not substract %d from %d, result causes overflow.", other.number, number),e);
+			throw new ComputationException(String.format("Can not substract %d from %d, result causes overflow.", b, a),e);
 		}
 	}
 
@@ -104,17 +140,33 @@ public class IntValue implements PrimitiveValue {
 		throw new ComputationException(String.format("Can not multiply %s by %s.",getTypeName(),other.getTypeName()));
 	}
 
-	private PrimitiveValue multiplyIntValue(IntValue other) throws ComputationException{
+	PrimitiveValue multiplyIntValue(IntValue other) throws ComputationException{
+		return of(multiply(number, other.number));
+	}
+
+	/**
+	 * Multiplies two integers in the same way as IntValue objects are multiplied.
+	 * @throws ComputationException If the multiplication causes an overflow.
+	 */
+	static long multiply(long a, long b) throws ComputationException{
 		try{
-			return new IntValue(Math.multiplyExact(number, other.number));
+			return Math.multiplyExact(a, b);
 		} catch(ArithmeticException e){
-			throw new ComputationException(String.format("Can not multiply %d and %d, result causes overflow.", number, other.number),e);
+			throw new ComputationException(String.format("Can not multiply %d and %d, result causes overflow.", a, b),e);
 		}
 	}
 
 	public PrimitiveValue divideByIntValue(IntValue other) throws ComputationException {
+		return of(divide(number, other.number));
+	}
+
+	/**
+	 * Divides two integers in the same way as IntValue objects are divided, i.e. rounded downwards.
+	 * @throws ComputationException If the second integer is zero.
+	 */
+	static long divide(long a, long b) throws ComputationException{
 		try{
-			return new IntValue(Math.floorDiv(number, other.number));
+			return Math.floorDiv(a, b);
 		} catch(ArithmeticException e){
 			throw new ComputationException("Can not divide by zero.",e);
 		}
@@ -204,6 +256,16 @@ public class IntValue implements PrimitiveValue {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
 	}
 }
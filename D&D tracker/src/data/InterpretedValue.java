@@ -16,6 +16,8 @@ public class InterpretedValue implements Value {
 	public static final String[] VALUE_TYPE_NAMES = {"interpretation"};
 	
 	private Value value;
+	private int purity = Purity.NOT_ANALYZED;
+	private final boolean containsPreEvaluatedValue;
 
 	/**
 	 * Gives a Value object that represents the interpretation of a given Value object.
@@ -23,6 +25,14 @@ public class InterpretedValue implements Value {
 	 */
 	public InterpretedValue(Value value) {
 		this.value = value;
+		containsPreEvaluatedValue = value.containsPreEvaluatedValue();
+	}
+
+	/**
+	 * @return The Value object whose evaluation is interpreted.
+	 */
+	Value getValue(){
+		return value;
 	}
 
 	public String getTypeName() {
@@ -83,9 +93,15 @@ public class InterpretedValue implements Value {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
+		if(!containsPreEvaluatedValue) return this;
 		return new InterpretedValue(value.getPreEvaluation(environment, args, output));
 	}
 
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return containsPreEvaluatedValue;
+	}
+
 	@Override
 	public boolean equals(Value other) {
 		return other instanceof InterpretedValue && ((InterpretedValue) other).value.equals(value);
@@ -126,4 +142,12 @@ public class InterpretedValue implements Value {
 		return interpretValue(value.evaluate(environment,args,output),valueReader).evaluateToFirstDivisible(environment, args, output);
 	}
 
+	/**
+	 * Returns UNKNOWN, since the Value object to be evaluated is only known after interpreting.
+	 */
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.combine(Purity.UNKNOWN, value.getPurity());
+		return purity;
+	}
 }
@@ -0,0 +1,298 @@
+package data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import data.command.Command;
+
+/**
+ * A write-ahead journal that records every change made to the variables of a top level DataContainer, such that they survive a crash.
+ * The state of the DataContainer is kept as a snapshot, see BinarySnapshot, together with a journal file that contains all changes made since the snapshot was written.
+ * The journal file has the name of the snapshot file followed by ".journal" and consists of:
+ * - The bytes 'T', 'D', 'J' followed by the version of the format in 1 byte.
+ * - A sequence of commits, each of which is its length and CRC-32 checksum in 4 bytes each, followed by its changes.
+ * Each change sets or removes the variable at a path, where a new value is saved as a snapshot.
+ * Changes are collected in memory and only written when they are committed, which happens after each command, see commit.
+ * When a journal is opened it restores the snapshot and all complete commits, while a commit that was only partially written is discarded.
+ * Changes only refer to paths and can therefore safely be replayed again after a crash between writing a snapshot and emptying the journal, see checkpoint.
+ */
+public final class Journal {
+	public static final String FILE_EXTENSION = "journal";
+	public static final int VERSION = 1;
+
+	private static final byte[] HEADER = {'T','D','J',VERSION};
+	private static final int SET = 1;
+	private static final int REMOVE = 2;
+
+	private static Journal active;
+
+	private final DataContainer root;
+	private final String snapshotFileName;
+	private final boolean sync;
+	private final FileChannel channel;
+	private final ByteArrayOutputStream pendingBytes = new ByteArrayOutputStream();
+	private final DataOutputStream pending = new DataOutputStream(pendingBytes);
+	private IOException failure;
+	private int numberOfRestoredChanges;
+
+	private Journal(DataContainer root, String snapshotFileName, boolean sync, FileChannel channel){
+		this.root = root;
+		this.snapshotFileName = snapshotFileName;
+		this.sync = sync;
+		this.channel = channel;
+	}
+
+	/**
+	 * Gives the journal that currently records changes.
+	 * @return The active Journal, or null if changes are not recorded.
+	 */
+	public static Journal getActive(){
+		return active;
+	}
+
+	/**
+	 * Starts recording all changes to the variables of a top level DataContainer, closing the active journal if there is one.
+	 * If the snapshot or its journal file exist, all variables of the DataContainer other than system commands are replaced by the ones restored from them.
+	 * Otherwise a snapshot of the current variables is written first.
+	 * @param snapshotFileName The name of the snapshot file.
+	 * @param root The top level DataContainer whose changes are recorded.
+	 * @param sync TRUE if every commit should be forced to the disk before continuing, FALSE if it only has to be handed to the operating system.
+	 * Only the former protects against the loss of the last commits when the operating system crashes.
+	 * @return The Journal that is now active.
+	 * @throws IOException If the snapshot or the journal file could not be read or written.
+	 * @throws DataException If the snapshot or the journal file is not valid.
+	 */
+	public static Journal open(String snapshotFileName, DataContainer root, boolean sync) throws IOException, DataException {
+		if(active != null) active.close();
+		File snapshotFile = new File(snapshotFileName);
+		File journalFile = new File(getJournalFileName(snapshotFileName));
+		boolean restore = snapshotFile.exists() || journalFile.exists();
+		if(restore) clearVariables(root);
+		if(snapshotFile.exists()) restoreSnapshot(snapshotFileName, root);
+		FileChannel channel = FileChannel.open(journalFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try{
+			Journal result = new Journal(root, snapshotFileName, sync, channel);
+			if(channel.size() == 0) result.writeHeader();
+			else result.replay();
+			if(!restore) result.checkpoint();
+			active = result;
+			return result;
+		} catch(IOException|DataException|RuntimeException e){
+			channel.close();
+			throw e;
+		}
+	}
+
+	private static String getJournalFileName(String snapshotFileName){
+		return String.format("%s.%s", snapshotFileName, FILE_EXTENSION);
+	}
+
+	private static void clearVariables(DataContainer root){
+		List<DataPair> variables = new ArrayList<DataPair>();
+		for(DataPair data : root){
+			if(!(data instanceof Command)) variables.add(data);
+		}
+		for(DataPair data : variables) root.removeData(data);
+	}
+
+	private static void restoreSnapshot(String snapshotFileName, DataContainer root) throws IOException, DataException {
+		Value snapshot = BinarySnapshot.load(snapshotFileName, root);
+		if(!(snapshot instanceof DataContainer)) throw new DataException(String.format("The snapshot \'%s\' does not contain a collection.", snapshotFileName));
+		for(DataPair data : (DataContainer) snapshot){
+			if(!root.containsNameAbsolute(data.getName())) root.addData(data.getName(), data.getValue());
+		}
+	}
+
+	/**
+	 * @return The name of the snapshot file of this Journal.
+	 */
+	public String getSnapshotFileName(){
+		return snapshotFileName;
+	}
+
+	/**
+	 * @return The number of changes that were restored from the journal file when this Journal was opened.
+	 */
+	public int getNumberOfRestoredChanges(){
+		return numberOfRestoredChanges;
+	}
+
+	/**
+	 * Records that a DataPair got a new Value object, or was added to its host, if it is part of the DataContainer of the active journal.
+	 * @param data The DataPair that was changed.
+	 */
+	static void recordSet(DataPair data){
+		if(active != null && !(data instanceof Command)) active.record(SET, data);
+	}
+
+	/**
+	 * Records that a DataPair was removed from its host, if its host is part of the DataContainer of the active journal.
+	 * @param data The DataPair that was removed.
+	 */
+	static void recordRemoval(DataPair data){
+		if(active != null) active.record(REMOVE, data);
+	}
+
+	private void record(int type, DataPair data){
+		if(failure != null || data.getHost().getTopLevel() != root) return;
+		try{
+			Path path = data.getPath();
+			pending.writeByte(type);
+			pending.writeShort(path.depth());
+			for(int i = 0; i < path.depth(); i++) pending.writeUTF(path.nameAt(i));
+			if(type == SET){
+				ByteArrayOutputStream value = new ByteArrayOutputStream();
+				BinarySnapshot.write(data.getValue(), value, false);
+				pending.writeInt(value.size());
+				value.writeTo(pending);
+			}
+		} catch(IOException e){
+			failure = e;
+		} catch(PathException e){
+			throw new Error(String.format("Impossible Exception: %s", e.getMessage()),e);
+		}
+	}
+
+	/**
+	 * Writes all changes that were recorded since the last commit to the journal file at once.
+	 * @throws IOException If writing failed, or if a change could not be recorded. The journal file then no longer matches the variables.
+	 */
+	public void commit() throws IOException {
+		if(failure != null) throw failure;
+		if(pendingBytes.size() == 0) return;
+		byte[] changes = pendingBytes.toByteArray();
+		pendingBytes.reset();
+		CRC32 checksum = new CRC32();
+		checksum.update(changes);
+		ByteBuffer commit = ByteBuffer.allocate(8 + changes.length);
+		commit.putInt(changes.length);
+		commit.putInt((int) checksum.getValue());
+		commit.put(changes);
+		commit.flip();
+		while(commit.hasRemaining()) channel.write(commit);
+		if(sync) channel.force(false);
+	}
+
+	/**
+	 * Writes a new snapshot of the variables and empties the journal file.
+	 * @return The size of the new snapshot in bytes.
+	 * @throws IOException If the snapshot or the journal file could not be written.
+	 */
+	public long checkpoint() throws IOException {
+		commit();
+		BinarySnapshot.write(root, snapshotFileName, false);
+		channel.truncate(0);
+		writeHeader();
+		return new File(snapshotFileName).length();
+	}
+
+	/**
+	 * Commits all remaining changes and stops recording changes.
+	 * @throws IOException If the remaining changes could not be written.
+	 */
+	public void close() throws IOException {
+		if(active == this) active = null;
+		try{
+			commit();
+		} finally{
+			channel.close();
+		}
+	}
+
+	/**
+	 * Stops recording changes without writing the remaining changes, for instance after a commit failed.
+	 */
+	public void discard(){
+		if(active == this) active = null;
+		pendingBytes.reset();
+		try{
+			channel.close();
+		} catch(IOException e){
+			//Do nothing
+		}
+	}
+
+	private void writeHeader() throws IOException {
+		ByteBuffer header = ByteBuffer.wrap(HEADER);
+		channel.position(0);
+		while(header.hasRemaining()) channel.write(header);
+		if(sync) channel.force(false);
+	}
+
+	private void replay() throws IOException, DataException {
+		ByteBuffer input = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE));
+		channel.position(0);
+		while(input.hasRemaining() && channel.read(input) != -1);
+		input.flip();
+		for(int i = 0; i < HEADER.length; i++){
+			if(!input.hasRemaining() || input.get() != HEADER[i]) throw new DataException(String.format("The file \'%s\' is not a journal of version %d.", getJournalFileName(snapshotFileName), VERSION));
+		}
+		int end = input.position();
+		while(input.remaining() >= 8){
+			int length = input.getInt();
+			int expectedChecksum = input.getInt();
+			if(length < 0 || length > input.remaining()) break;
+			byte[] changes = new byte[length];
+			input.get(changes);
+			CRC32 checksum = new CRC32();
+			checksum.update(changes);
+			if((int) checksum.getValue() != expectedChecksum) break;
+			replayCommit(changes);
+			end = input.position();
+		}
+		channel.truncate(end);
+		channel.position(end);
+	}
+
+	private void replayCommit(byte[] changes) throws IOException, DataException {
+		DataInputStream input = new DataInputStream(new ByteArrayInputStream(changes));
+		try{
+			for(int type = input.read(); type != -1; type = input.read()){
+				String[] names = new String[input.readShort()];
+				for(int i = 0; i < names.length; i++) names[i] = input.readUTF();
+				Value value = null;
+				if(type == SET){
+					byte[] snapshot = new byte[input.readInt()];
+					input.readFully(snapshot);
+					value = ValueSimplifier.simplify(BinarySnapshot.read(new ByteArrayInputStream(snapshot), root));
+				} else if(type != REMOVE) throw new DataException(String.format("The journal contains a change of unknown type %d.", type));
+				replayChange(names, value);
+				numberOfRestoredChanges++;
+			}
+		} catch(EOFException e){
+			throw new DataException("The journal is damaged, since a change ends prematurely.", e);
+		}
+	}
+
+	/**
+	 * Sets or removes the variable at the given path.
+	 * A change whose variable no longer has a host is skipped, since such a change is only replayed again after a checkpoint, where a later change removed its host.
+	 */
+	private void replayChange(String[] names, Value value) throws DataException {
+		if(names.length == 0) throw new DataException("The journal contains a change without a variable.");
+		DataContainer host = root;
+		for(int i = 0; i < names.length - 1; i++){
+			DataPair data = host.findDataAbsolute(names[i]);
+			if(data == null || !(data.getValue() instanceof DataContainer)) return;
+			host = (DataContainer) data.getValue();
+		}
+		String name = names[names.length - 1];
+		DataPair data = host.findDataAbsolute(name);
+		if(data instanceof Command) throw new DataException(String.format("The journal changes the system command \'%s\'.", name));
+		if(value == null){
+			if(data != null) host.removeData(data);
+		} else if(data == null) host.addData(name, value);
+		else data.setValue(value);
+	}
+}
@@ -6,6 +6,7 @@ public class NamedValue implements Value {
 	public static final String[] VALUE_TYPE_NAMES = {"variable","var"};
 	
 	private final String name;
+	private LookupCache lookupCache;
 	
 	/**
 	 * A constructor for a NamedValue object, that sets the name of the variable it should refer to.
@@ -33,11 +34,7 @@ public class NamedValue implements Value {
 	 */
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
-		try{
-			return getReferencedValue(environment).evaluate(environment, args, output);
-		} catch(DataException e){
-			throw new EvaluationException(String.format("Can not evaluate, since %s",e.getMessage()),e);
-		}
+		return EvaluationCache.evaluate(getReferencedDataPairForEvaluation(environment), environment, args, output, EvaluationCache.EVALUATE);
 	}
 	
 	public String toString(){
@@ -62,8 +59,32 @@ public class NamedValue implements Value {
 	}
 
 	public DataPair getReferencedDataPair(DataContainer environment) throws DataException {
-		DataPair data = environment.getData(name);
-		if(data == null) throw new DataException(String.format("No variable %s exists in %s.",name,environment.getPath()));
+		DataPair data = findReferencedDataPair(environment);
+		if(data == null) throw new DataException(String.format("No variable \'%s\' exists in \'%s\'.",name,environment.getPath()));
+		return data;
+	}
+
+	/**
+	 * Does the same as getReferencedDataPair, but returns null instead of throwing an exception if the variable does not exist.
+	 * The result is remembered together with the environment, so that it can be reused until the structure of some DataContainer changes.
+	 * During an evaluation that may be remembered the variable is always looked up, such that the lookup is recorded, see EvaluationCache.
+	 * @param environment The DataContainer in which the variable should be looked up.
+	 * @return The DataPair object referred to by this NamedValue within the given environment, or null if it does not exist.
+	 */
+	public DataPair findReferencedDataPair(DataContainer environment) {
+		DataPair dependent = EvaluationCache.getCurrentDependent();
+		if(dependent != null) return environment.findData(name, dependent);
+		long version = DataContainer.getStructureVersion();
+		LookupCache cache = lookupCache;
+		if(cache != null && cache.environment == environment && cache.version == version) return cache.data;
+		DataPair data = environment.findData(name);
+		lookupCache = new LookupCache(environment, version, data);
+		return data;
+	}
+
+	private DataPair getReferencedDataPairForEvaluation(DataContainer environment) throws EvaluationException {
+		DataPair data = findReferencedDataPair(environment);
+		if(data == null) throw new EvaluationException(String.format("Can not evaluate, since No variable \'%s\' exists in \'%s\'.",name,environment.getPath()));
 		return data;
 	}
 
@@ -80,56 +101,65 @@ public class NamedValue implements Value {
 	@Override
 	public DataContainer evaluateToFirstDataContainer(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		try{
-			return getReferencedValue(environment).evaluateToFirstDataContainer(environment, args, output);
-		} catch(DataException e){
-			throw new EvaluationException(String.format("Can not evaluate, since %s",e.getMessage()),e);
-		}
+		return EvaluationCache.evaluateToFirstDataContainer(getReferencedDataPairForEvaluation(environment), environment, args, output);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstAddable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		try{
-			return getReferencedValue(environment).evaluateToFirstAddable(environment, args, output);
-		} catch(DataException e){
-			throw new EvaluationException(String.format("Can not evaluate, since %s",e.getMessage()),e);
-		}
+		return EvaluationCache.evaluate(getReferencedDataPairForEvaluation(environment), environment, args, output, EvaluationCache.FIRST_ADDABLE);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstSubtractible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		try{
-			return getReferencedValue(environment).evaluateToFirstSubtractible(environment, args, output);
-		} catch(DataException e){
-			throw new EvaluationException(String.format("Can not evaluate, since %s",e.getMessage()),e);
-		}
+		return EvaluationCache.evaluate(getReferencedDataPairForEvaluation(environment), environment, args, output, EvaluationCache.FIRST_SUBTRACTIBLE);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstMultiplicable(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		try{
-			return getReferencedValue(environment).evaluateToFirstMultiplicable(environment, args, output);
-		} catch(DataException e){
-			throw new EvaluationException(String.format("Can not evaluate, since %s",e.getMessage()),e);
-		}
+		return EvaluationCache.evaluate(getReferencedDataPairForEvaluation(environment), environment, args, output, EvaluationCache.FIRST_MULTIPLICABLE);
 	}
 
 	@Override
 	public PrimitiveValue evaluateToFirstDivisible(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		try{
-			return getReferencedValue(environment).evaluateToFirstDivisible(environment, args, output);
-		} catch(DataException e){
-			throw new EvaluationException(String.format("Can not evaluate, since %s",e.getMessage()),e);
-		}
+		return EvaluationCache.evaluate(getReferencedDataPairForEvaluation(environment), environment, args, output, EvaluationCache.FIRST_DIVISIBLE);
 	}
 
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	/**
+	 * Remembers to which DataPair the name of a NamedValue referred in a given environment.
+	 * The result is only valid as long as the structure version of DataContainer objects has not changed.
+	 */
+	private static class LookupCache {
+		private final DataContainer environment;
+		private final long version;
+		private final DataPair data;
+
+		private LookupCache(DataContainer environment, long version, DataPair data){
+			this.environment = environment;
+			this.version = version;
+			this.data = data;
+		}
+	}
+
+	/**
+	 * Returns UNKNOWN, since the referenced variable is only looked up during the evaluation.
+	 */
+	@Override
+	public int getPurity() {
+		return Purity.UNKNOWN;
 	}
 }
@@ -0,0 +1,26 @@
+package data;
+
+/**
+ * Thrown when an evaluation to an integer succeeded, but did not give an IntValue object.
+ * It carries the evaluation, such that it can still be used.
+ */
+public class NotAnIntegerException extends Exception{
+	/**
+	 * 
+	 */
+	private static final long serialVersionUID = 6417335902158232744L;
+	
+	private final PrimitiveValue value;
+	
+	public NotAnIntegerException(PrimitiveValue value){
+		super(String.format("A value of type \'%s\' is not an integer.", value.getTypeName()), null, false, false);
+		this.value = value;
+	}
+	
+	/**
+	 * @return The evaluation that was not an IntValue object.
+	 */
+	public PrimitiveValue getValue(){
+		return value;
+	}
+}
@@ -61,6 +61,7 @@ public class Path {
 	 * @throws PathException If the Value object does not refer to a path.
 	 */
 	public static Path convertToPath(Value value, Path withinPath) throws PathException {
+		if(value instanceof SimplifiedValue) return convertToPath(((SimplifiedValue) value).getOriginalValue(), withinPath);
 		if(value instanceof GlobalValue) return new Path(withinPath.environment);
 		if(value instanceof NamedValue) return new Path(withinPath,((NamedValue) value).toString());
 		if(value instanceof CurrentDataContainerValue) return withinPath;
@@ -88,9 +89,8 @@ public class Path {
 	public void createPath() throws DataException {
 		DataContainer currentEnvironment = this.environment.getTopLevel();
 		for(int i = 0; i < depth(); i++){
-			DataPair dataPair;
-			if(currentEnvironment.containsNameAbsolute(names[i])) dataPair = currentEnvironment.getDataAbsolute(names[i]);
-			else dataPair = currentEnvironment.addData(names[i], new VoidValue());
+			DataPair dataPair = currentEnvironment.findDataAbsolute(names[i]);
+			if(dataPair == null) dataPair = currentEnvironment.addData(names[i], VoidValue.VOID);
 			if(i < depth() - 1){
 				Value value = dataPair.getValue();
 				if(value instanceof DataContainer) currentEnvironment = (DataContainer) value;
@@ -118,6 +118,20 @@ public class Path {
 		}
 		return result;
 	}
+
+	/**
+	 * Does the same as getLowestDataPair, but returns null instead of throwing an exception if no such DataPair exists.
+	 * @return The lowest DataPair in this path, or null if no such DataPair exists.
+	 */
+	public DataPair findLowestDataPair() {
+		if(depth() == 0) return null;
+		DataPair result = environment.getTopLevel().findDataAbsolute(names[0]);
+		for(int i = 1; result != null && i < depth(); i++){
+			Value value = result.getValue();
+			result = value instanceof DataContainer ? ((DataContainer) value).findDataAbsolute(names[i]) : null;
+		}
+		return result;
+	}
 	
 	/**
 	 * Gets the Value at the end of this path.
@@ -128,6 +142,16 @@ public class Path {
 		if(depth() == 0) return environment.getTopLevel();
 		return getLowestDataPair().getValue();
 	}
+
+	/**
+	 * Does the same as getLowestValue, but returns null instead of throwing an exception if no such Value object exists.
+	 * @return The Value object that is referred to by this path, or null if it does not exist.
+	 */
+	public Value findLowestValue() {
+		if(depth() == 0) return environment.getTopLevel();
+		DataPair dataPair = findLowestDataPair();
+		return dataPair == null ? null : dataPair.getValue();
+	}
 	
 	/**
 	 * Sets the Value object at the end of this path. Creating the path if necessary.
@@ -16,6 +16,7 @@ public class PreEvaluatedValue implements Value {
 	
 	private Value value;
 	private int delay;
+	private int purity = Purity.NOT_ANALYZED;
 
 	/**
 	 * Gives a Value object that represents the preevaluation of a given Value object after a certain delay.
@@ -27,6 +28,20 @@ public class PreEvaluatedValue implements Value {
 		this.delay = delay;
 	}
 
+	/**
+	 * @return The Value object that is pre-evaluated.
+	 */
+	Value getValue(){
+		return value;
+	}
+
+	/**
+	 * @return The number of pre-evaluations before the Value object is pre-evaluated.
+	 */
+	int getDelay(){
+		return delay;
+	}
+
 	public String getTypeName() {
 		return VALUE_TYPE_NAMES[0];
 	}
@@ -109,4 +124,14 @@ public class PreEvaluatedValue implements Value {
 		else return value.evaluate(environment, args, output);
 	}
 
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return true;
+	}
+
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = value.getPurity();
+		return purity;
+	}
 }
@@ -10,6 +10,9 @@ public class ProductValue implements Value{
 	
 	private Value a;
 	private Value b;
+	private int purity = Purity.NOT_ANALYZED;
+	private ArithmeticOperation operation = ArithmeticOperation.uninitialized(ArithmeticOperation.MULTIPLICATION);
+	private final boolean containsPreEvaluatedValue;
 	
 	/**
 	 * Initializes this ProductValue object as the product of two given Value objects.
@@ -19,6 +22,21 @@ public class ProductValue implements Value{
 	public ProductValue(Value a, Value b){
 		this.a = a;
 		this.b = b;
+		containsPreEvaluatedValue = a.containsPreEvaluatedValue() || b.containsPreEvaluatedValue();
+	}
+
+	/**
+	 * @return The first Value object of this ProductValue object.
+	 */
+	Value getFirstValue(){
+		return a;
+	}
+
+	/**
+	 * @return The second Value object of this ProductValue object.
+	 */
+	Value getSecondValue(){
+		return b;
 	}
 
 	public String getTypeName() {
@@ -39,12 +57,59 @@ public class ProductValue implements Value{
 	 */
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(operation.isInteger()){
+			try{
+				return IntValue.of(evaluateLong(environment, args, output));
+			} catch(NotAnIntegerException e){
+				return e.getValue();
+			}
+		}
+		PrimitiveValue first = a.evaluateToFirstMultiplicable(environment,args, output);
+		return apply(first, b.evaluateToFirstMultiplicable(environment, args, output));
+	}
+
+	/**
+	 * Evaluates this ProductValue object to an integer, computing on the integers of its operands directly while it has the integer operation, see ArithmeticOperation.
+	 * @throws NotAnIntegerException If the evaluation succeeded, but did not give an integer, carrying the evaluation.
+	 */
+	long evaluateLong(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException, NotAnIntegerException {
+		ArithmeticOperation current = operation;
+		if(!current.isInteger()) return ArithmeticOperation.toLong(evaluate(environment, args, output));
+		long first;
+		try{
+			first = current.evaluateOperand(a, environment, args, output);
+		} catch(NotAnIntegerException e){
+			return ArithmeticOperation.toLong(apply(e.getValue(), b.evaluateToFirstMultiplicable(environment, args, output)));
+		}
+		long second;
+		try{
+			second = current.evaluateOperand(b, environment, args, output);
+		} catch(NotAnIntegerException e){
+			return ArithmeticOperation.toLong(apply(IntValue.of(first), e.getValue()));
+		}
 		try{
-			return a.evaluateToFirstMultiplicable(environment,args, output).multiply(b.evaluateToFirstMultiplicable(environment, args, output));
+			return current.applyToLongs(first, second);
 		} catch(ComputationException e){
 			throw new EvaluationException(String.format("Can not evaluate: %s",e.getMessage()),e);
 		}
 	}
+
+	private PrimitiveValue apply(PrimitiveValue first, PrimitiveValue second) throws EvaluationException {
+		try{
+			return operationFor(first, second).apply(first, second);
+		} catch(ComputationException e){
+			throw new EvaluationException(String.format("Can not evaluate: %s",e.getMessage()),e);
+		}
+	}
+
+	/**
+	 * Gives the operation of this ProductValue object for two evaluations, replacing it first if it does not accept them, see ArithmeticOperation.
+	 */
+	private ArithmeticOperation operationFor(PrimitiveValue first, PrimitiveValue second){
+		ArithmeticOperation result = operation;
+		if(!result.accepts(first, second)) operation = result = result.specialize(first, second);
+		return result;
+	}
 	
 	public String toString(){
 		return String.format("(%s*%s)", a.toString(),b.toString());
@@ -69,9 +134,15 @@ public class ProductValue implements Value{
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
+		if(!containsPreEvaluatedValue) return this;
 		return new ProductValue(a.getPreEvaluation(environment, args, output),b.getPreEvaluation(environment, args, output));
 	}
 
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return containsPreEvaluatedValue;
+	}
+
 	@Override
 	public boolean equals(Value other) {
 		if(!(other instanceof ProductValue)) return false;
@@ -108,4 +179,10 @@ public class ProductValue implements Value{
 			throws EvaluationException {
 		return evaluate(environment, args, output).evaluateToFirstDivisible(environment, args, output);
 	}
+
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.of(a, b);
+		return purity;
+	}
 }
@@ -0,0 +1,68 @@
+package data;
+
+/**
+ * Describes whether evaluating a Value object may have side effects and whether its result may differ between evaluations.
+ * A purity is a combination of the flags IMPURE, RANDOM and UNKNOWN, where PURE means none of these flags are set.
+ * The purity of a Value object that contains other Value objects is the combination of the purities of all these Value objects.
+ */
+public final class Purity {
+	/** Evaluating the Value object has no side effects and always gives the same result. */
+	public static final int PURE = 0;
+	/** Evaluating the Value object may have side effects, for example printing or changing variables. */
+	public static final int IMPURE = 1;
+	/** Evaluating the Value object may give a different result every time, for example by rolling dice. */
+	public static final int RANDOM = 2;
+	/** What evaluating the Value object does can only be determined during its evaluation, for example by looking up a variable. */
+	public static final int UNKNOWN = 4;
+
+	/** Used by Value objects to indicate that their purity has not been determined yet. */
+	static final int NOT_ANALYZED = -1;
+
+	private Purity(){
+	}
+
+	/**
+	 * Combines two purities into the purity of a Value object that contains Value objects with these purities.
+	 * @param a A purity.
+	 * @param b Another purity.
+	 * @return The combined purity.
+	 */
+	public static int combine(int a, int b){
+		return a | b;
+	}
+
+	/**
+	 * Gives the combined purity of a number of Value objects.
+	 * @param values An array of Value objects.
+	 * @return The combination of the purities of all given Value objects, which is PURE if no Value objects are given.
+	 */
+	public static int of(Value... values){
+		int result = PURE;
+		for(Value value : values) result = combine(result, value.getPurity());
+		return result;
+	}
+
+	/**
+	 * @param purity A purity.
+	 * @return TRUE if evaluating a Value object with the given purity is known to have no side effects, FALSE otherwise.
+	 */
+	public static boolean isSideEffectFree(int purity){
+		return (purity & (IMPURE | UNKNOWN)) == 0;
+	}
+
+	/**
+	 * @param purity A purity.
+	 * @return TRUE if evaluating a Value object with the given purity is known to always give the same result, FALSE otherwise.
+	 */
+	public static boolean isDeterministic(int purity){
+		return (purity & (RANDOM | UNKNOWN)) == 0;
+	}
+
+	/**
+	 * @param purity A purity.
+	 * @return TRUE if the given purity is PURE, i.e. a Value object with this purity can be replaced by its evaluation, FALSE otherwise.
+	 */
+	public static boolean isPure(int purity){
+		return purity == PURE;
+	}
+}
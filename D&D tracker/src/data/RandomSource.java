@@ -0,0 +1,86 @@
+package data;
+
+import java.util.SplittableRandom;
+
+/**
+ * The source of all random numbers, such as dice rolls, see DiceValue.
+ * Every thread gets its own SplittableRandom, which is split off a shared root generator the first time the thread needs one,
+ * so random numbers are generated without locking and without the cost of creating a new generator for every roll.
+ * Seeding the root generator replaces the generators of all threads, which makes a session that rolls its dice on one thread reproducible, see seed.
+ */
+public final class RandomSource {
+	private static SplittableRandom root = new SplittableRandom();
+	private static volatile int generation;
+	private static final ThreadLocal<Generator> generators = new ThreadLocal<Generator>();
+
+	private RandomSource(){
+	}
+
+	/**
+	 * Gives the generator of the current thread, which should not be passed on to other threads.
+	 * @return The SplittableRandom of the current thread.
+	 */
+	public static SplittableRandom get(){
+		Generator result = generators.get();
+		if(result == null || result.generation != generation){
+			synchronized(RandomSource.class){
+				result = new Generator(root.split(), generation);
+			}
+			generators.set(result);
+		}
+		return result.random;
+	}
+
+	/**
+	 * Gives a new generator that is independent of those of all threads, for instance to roll dice on another thread.
+	 * @return A SplittableRandom split off the root generator.
+	 */
+	public static synchronized SplittableRandom split(){
+		return root.split();
+	}
+
+	/**
+	 * Makes the current thread use the given generator, for instance while it runs the trials of a Simulation.
+	 * @param random The SplittableRandom the current thread should use, or null to use one split off the root generator again.
+	 * @return The SplittableRandom the current thread used before, or null if it used none.
+	 */
+	static SplittableRandom use(SplittableRandom random){
+		Generator previous = generators.get();
+		if(random == null) generators.remove();
+		else generators.set(new Generator(random, generation));
+		return previous == null ? null : previous.random;
+	}
+
+	/**
+	 * Restarts all random numbers from the given seed, such that the same rolls are made in the same order afterwards.
+	 * @param seed The seed of the root generator.
+	 */
+	public static synchronized void seed(long seed){
+		reset(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Restarts all random numbers from an unpredictable seed.
+	 */
+	public static synchronized void unseed(){
+		reset(new SplittableRandom());
+	}
+
+	private static void reset(SplittableRandom newRoot){
+		root = newRoot;
+		generation++;
+	}
+
+	/**
+	 * The generator of a thread, together with the generation of the root generator it was split off.
+	 */
+	private static class Generator {
+		private final SplittableRandom random;
+		private final int generation;
+
+		private Generator(SplittableRandom random, int generation){
+			this.random = random;
+			this.generation = generation;
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package data;
+
+import java.io.PrintStream;
+
+/**
+ * A Value object that combines a Value object with a simplification of it, see ValueSimplifier.
+ * It is evaluated through the simplification, but otherwise behaves like the original Value object.
+ * In particular it is printed and saved in the same way as the original Value object.
+ */
+public class SimplifiedValue implements Value {
+	private Value originalValue;
+	private Value simplifiedValue;
+
+	/**
+	 * Initializes this SimplifiedValue object.
+	 * @param originalValue A Value object.
+	 * @param simplifiedValue A Value object that always evaluates in the same way as the aforementioned Value object.
+	 */
+	SimplifiedValue(Value originalValue, Value simplifiedValue){
+		this.originalValue = originalValue;
+		this.simplifiedValue = simplifiedValue;
+	}
+
+	/**
+	 * @return The Value object as it was before simplification.
+	 */
+	public Value getOriginalValue(){
+		return originalValue;
+	}
+
+	/**
+	 * @return The simplification of the original Value object.
+	 */
+	public Value getSimplifiedValue(){
+		return simplifiedValue;
+	}
+
+	public String getTypeName() {
+		return originalValue.getTypeName();
+	}
+
+	public String[] getAlternativeTypeNames() {
+		return originalValue.getAlternativeTypeNames();
+	}
+
+	public String toString(){
+		return originalValue.toString();
+	}
+
+	@Override
+	public Value copy() {
+		return new SimplifiedValue(originalValue.copy(), simplifiedValue.copy());
+	}
+
+	@Override
+	public int compareTo(Value o) {
+		return originalValue.compareTo(o instanceof SimplifiedValue ? ((SimplifiedValue) o).originalValue : o);
+	}
+
+	@Override
+	public boolean equals(Value other) {
+		return originalValue.equals(other instanceof SimplifiedValue ? ((SimplifiedValue) other).originalValue : other);
+	}
+
+	@Override
+	public Value replaceArgumentsBy(Value[] args) {
+		return new SimplifiedValue(originalValue.replaceArgumentsBy(args), simplifiedValue.replaceArgumentsBy(args));
+	}
+
+	/**
+	 * Returns the simplification of the pre-evaluation of the original Value object,
+	 * as pre-evaluation may give new opportunities for simplification.
+	 * Returns itself if the original Value object contains no PreEvaluatedValue, since it is then already simplified.
+	 */
+	@Override
+	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		if(!containsPreEvaluatedValue()) return this;
+		return ValueSimplifier.simplify(originalValue.getPreEvaluation(environment, args, output));
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return originalValue.containsPreEvaluatedValue();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		return simplifiedValue.evaluate(environment, args, output);
+	}
+
+	@Override
+	public DataContainer evaluateToFirstDataContainer(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		return simplifiedValue.evaluateToFirstDataContainer(environment, args, output);
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstAddable(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		return simplifiedValue.evaluateToFirstAddable(environment, args, output);
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstSubtractible(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		return simplifiedValue.evaluateToFirstSubtractible(environment, args, output);
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstMultiplicable(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		return simplifiedValue.evaluateToFirstMultiplicable(environment, args, output);
+	}
+
+	@Override
+	public PrimitiveValue evaluateToFirstDivisible(DataContainer environment, Value[] args, PrintStream output)
+			throws EvaluationException {
+		return simplifiedValue.evaluateToFirstDivisible(environment, args, output);
+	}
+
+	@Override
+	public int getPurity() {
+		return simplifiedValue.getPurity();
+	}
+}
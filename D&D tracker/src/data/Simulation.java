@@ -0,0 +1,170 @@
+package data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * A Monte Carlo simulation that evaluates a Value object many times in parallel and counts how often each result occurs.
+ * This works for any Value object that evaluates to an integer or a boolean, where TRUE counts as 1 and FALSE as 0,
+ * unlike Distribution, which only handles combinations of dice and integers.
+ * The trials are divided into chunks of CHUNK_SIZE trials, each of which rolls its dice with its own generator split off RandomSource in advance,
+ * such that the results only depend on the seed of RandomSource and not on the number of threads.
+ * During a trial dice rolls are silent, see Verbosity, all other output is discarded to Value.NO_OUTPUT and variables can only be read:
+ * the Value object itself must not have side effects, and neither may any variable or system command it uses,
+ * which is only known once their names are looked up, such that a trial that uses one fails with an EvaluationException.
+ * Evaluations are not remembered during a trial either, see EvaluationCache.startReadOnly.
+ * The variables may therefore not be changed by other threads while a simulation runs.
+ */
+public final class Simulation {
+	private static final int CHUNK_SIZE = 1 << 10;
+
+	private final SortedMap<Long,Long> counts;
+	private final long numberOfTrials;
+
+	private Simulation(SortedMap<Long,Long> counts, long numberOfTrials){
+		this.counts = counts;
+		this.numberOfTrials = numberOfTrials;
+	}
+
+	/**
+	 * Evaluates a Value object a number of times in parallel.
+	 * @param value The Value object.
+	 * @param environment The DataContainer in which the Value object is evaluated.
+	 * @param numberOfTrials The number of times the Value object is evaluated, which should be positive.
+	 * @param pool The ForkJoinPool on which the trials are run.
+	 * @return The Simulation that contains the results.
+	 * @throws EvaluationException If the Value object or a variable or system command it uses has side effects,
+	 * or if a trial failed or did not evaluate to an integer or a boolean.
+	 */
+	public static Simulation run(Value value, DataContainer environment, long numberOfTrials, ForkJoinPool pool) throws EvaluationException {
+		if((value.getPurity() & Purity.IMPURE) != 0) throw new EvaluationException(String.format("Can not simulate %s, since it has side effects.", value));
+		int numberOfChunks = (int) Math.min((numberOfTrials + CHUNK_SIZE - 1) / CHUNK_SIZE, Integer.MAX_VALUE);
+		SplittableRandom[] generators = new SplittableRandom[numberOfChunks];
+		for(int i = 0; i < numberOfChunks; i++) generators[i] = RandomSource.split();
+		Chunk result = pool.invoke(new TrialTask(value, environment, numberOfTrials, generators, 0, numberOfChunks));
+		if(result.failure != null) throw new EvaluationException(String.format("Could not simulate, since: %s", result.failure.getMessage()), result.failure);
+		return new Simulation(new TreeMap<Long,Long>(result.counts), numberOfTrials);
+	}
+
+	/**
+	 * @return The number of trials.
+	 */
+	public long getNumberOfTrials(){
+		return numberOfTrials;
+	}
+
+	/**
+	 * @return The number of times each result occurred, sorted by result.
+	 */
+	public SortedMap<Long,Long> getCounts(){
+		return counts;
+	}
+
+	/**
+	 * @return The lowest result.
+	 */
+	public long getMinimum(){
+		return counts.firstKey();
+	}
+
+	/**
+	 * @return The highest result.
+	 */
+	public long getMaximum(){
+		return counts.lastKey();
+	}
+
+	/**
+	 * @return The average of all results.
+	 */
+	public double getMean(){
+		double result = 0;
+		for(Map.Entry<Long,Long> count : counts.entrySet()) result += (double) count.getKey() * count.getValue();
+		return result / numberOfTrials;
+	}
+
+	/**
+	 * @return The standard deviation of all results.
+	 */
+	public double getStandardDeviation(){
+		double mean = getMean();
+		double result = 0;
+		for(Map.Entry<Long,Long> count : counts.entrySet()) result += (count.getKey() - mean) * (count.getKey() - mean) * count.getValue();
+		return Math.sqrt(result / numberOfTrials);
+	}
+
+	/**
+	 * The results of a number of trials.
+	 */
+	private static class Chunk {
+		private final Map<Long,Long> counts = new HashMap<Long,Long>();
+		private Exception failure;
+
+		private void add(Chunk other){
+			if(failure == null) failure = other.failure;
+			for(Map.Entry<Long,Long> count : other.counts.entrySet()) counts.merge(count.getKey(), count.getValue(), Long::sum);
+		}
+	}
+
+	/**
+	 * A task that runs the trials of a range of chunks, splitting itself into smaller tasks if there are many.
+	 */
+	private static class TrialTask extends RecursiveTask<Chunk> {
+		private static final long serialVersionUID = 1L;
+		private final Value value;
+		private final DataContainer environment;
+		private final long numberOfTrials;
+		private final SplittableRandom[] generators;
+		private final int from;
+		private final int to;
+
+		private TrialTask(Value value, DataContainer environment, long numberOfTrials, SplittableRandom[] generators, int from, int to){
+			this.value = value;
+			this.environment = environment;
+			this.numberOfTrials = numberOfTrials;
+			this.generators = generators;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Chunk compute(){
+			if(to - from > 1){
+				int middle = (from + to) >>> 1;
+				TrialTask second = new TrialTask(value, environment, numberOfTrials, generators, middle, to);
+				second.fork();
+				Chunk result = new TrialTask(value, environment, numberOfTrials, generators, from, middle).compute();
+				result.add(second.join());
+				return result;
+			}
+			Chunk result = new Chunk();
+			Value trialValue = value.copy();
+			SplittableRandom previous = RandomSource.use(generators[from]);
+			int previousVerbosity = Verbosity.override(Verbosity.SILENT);
+			EvaluationCache.startReadOnly();
+			try{
+				long end = Math.min((long) (from + 1) * CHUNK_SIZE, numberOfTrials);
+				for(long i = (long) from * CHUNK_SIZE; i < end; i++) result.counts.merge(evaluate(trialValue), 1L, Long::sum);
+			} catch(EvaluationException|RuntimeException e){
+				result.failure = e;
+			} finally{
+				EvaluationCache.endReadOnly();
+				Verbosity.restore(previousVerbosity);
+				RandomSource.use(previous);
+			}
+			return result;
+		}
+
+		private long evaluate(Value trialValue) throws EvaluationException {
+			PrimitiveValue result = trialValue.evaluate(environment, Value.NO_ARGUMENTS, Value.NO_OUTPUT);
+			if(result instanceof IntValue) return ((IntValue) result).getLong();
+			if(result instanceof BooleanValue) return result.getBool() ? 1 : 0;
+			throw new EvaluationException(String.format("A trial should evaluate to an integer or a boolean, not to %s.", result.getTypeName()));
+		}
+	}
+}
@@ -0,0 +1,187 @@
+package data;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import data.command.Command;
+
+/**
+ * A class that saves a Value object as a manifest, i.e. a snapshot in which every DataContainer directly within it is saved as a separate snapshot file, called a part.
+ * The parts are saved in a directory next to the manifest, whose name is that of the manifest with the extension ".parts",
+ * and are named after their variable, e.g. "campaign.parts/c5.tdb" for the manifest "campaign.tdm".
+ * Up to the given depth a part is saved like a manifest itself, with its own directory of parts, e.g. "campaign.parts/c5.parts/stats.tdb".
+ * A file is only written if its DataContainer or any DataContainer within it was modified since it was last saved to or loaded from that file, see DataContainer.getLastModification(),
+ * and unmodified DataContainer objects are skipped without reading them or even looking at their files.
+ * The time needed to save therefore depends on the number of modified DataContainer objects rather than on the size of all variables,
+ * and a modification only rewrites the files of the DataContainer objects on its path.
+ * A part that was not modified is kept as it is, even if it was last saved with another depth.
+ * A manifest is loaded like any other snapshot, see BinarySnapshot.load, which reads each part once it is needed.
+ * Note that the parts are written before the files that refer to them, so a crash while saving may leave a manifest with some parts that are newer than the manifest itself.
+ */
+public final class SplitSnapshot {
+	public static final String FILE_EXTENSION = "tdm";
+	public static final String PART_DIRECTORY_EXTENSION = "parts";
+
+	private static final Map<java.nio.file.Path,SavedPart> savedParts = new ConcurrentHashMap<java.nio.file.Path,SavedPart>();
+
+	private final String fileName;
+	private final int depth;
+	private final boolean saveSimplified;
+	private int numberOfWrittenParts;
+
+	/**
+	 * Initializes this SplitSnapshot object.
+	 * @param fileName The name of the manifest file.
+	 * @param depth The depth of the DataContainer objects that are saved as parts, where 1 saves every DataContainer directly in the saved Value object as a part.
+	 * @param saveSimplified TRUE if the simplification of a SimplifiedValue object should be saved, FALSE if its original Value object should be saved.
+	 */
+	public SplitSnapshot(String fileName, int depth, boolean saveSimplified){
+		this.fileName = fileName;
+		this.depth = depth;
+		this.saveSimplified = saveSimplified;
+	}
+
+	/**
+	 * Saves a Value object as a manifest and its parts, writing only the files that are not already saved and removing parts that are no longer part of it.
+	 * Parts are only removed once all files are written, since DataContainer objects that were moved may still have to be read from them.
+	 * @param value The Value object to be saved.
+	 * @throws IOException If writing a file failed, or if the Value object contains a Value object that can not be saved.
+	 */
+	public void write(Value value) throws IOException {
+		java.nio.file.Path manifest = Paths.get(fileName).toAbsolutePath().normalize();
+		List<java.nio.file.Path> oldParts = new ArrayList<java.nio.file.Path>();
+		numberOfWrittenParts = 0;
+		if(value instanceof DataContainer) writePart((DataContainer) value, manifest, 0, oldParts);
+		else{
+			BinarySnapshot.write(value, manifest.toString(), saveSimplified);
+			savedParts.remove(manifest);
+			collectOldParts(getPartDirectory(manifest), new HashSet<java.nio.file.Path>(), oldParts);
+		}
+		for(java.nio.file.Path file : oldParts) removeOldPart(file);
+	}
+
+	/**
+	 * @return The number of parts that were actually written when the Value object was last saved, which does not include the manifest.
+	 */
+	public int getNumberOfWrittenParts(){
+		return numberOfWrittenParts;
+	}
+
+	/**
+	 * Registers that a DataContainer was loaded from a part, such that it is not written again until it is modified.
+	 * @param file The part file.
+	 * @param dataContainer The DataContainer object that was loaded from it.
+	 */
+	static void registerPart(java.nio.file.Path file, DataContainer dataContainer){
+		savedParts.put(file.toAbsolutePath().normalize(), new SavedPart(dataContainer, dataContainer.getLastModification(), false));
+	}
+
+	/**
+	 * Writes a DataContainer to a file unless that file already contains it, after writing the DataContainer objects within it that are saved as parts.
+	 * @param file The file, which is the manifest at level 0 and a part otherwise.
+	 * @param level The level of the DataContainer, where the saved Value object is at level 0.
+	 * @param oldParts The list to which the files and directories of parts that are no longer referred to are added.
+	 */
+	private void writePart(DataContainer dataContainer, java.nio.file.Path file, int level, List<java.nio.file.Path> oldParts) throws IOException {
+		SavedPart savedPart = savedParts.get(file);
+		if(savedPart != null && savedPart.isSavedVersionOf(dataContainer, saveSimplified)) return;
+		long modification = dataContainer.getLastModification();
+		java.nio.file.Path partDirectory = getPartDirectory(file);
+		Map<DataContainer,String> parts = new IdentityHashMap<DataContainer,String>();
+		Set<java.nio.file.Path> partFiles = new HashSet<java.nio.file.Path>();
+		if(level < depth){
+			Set<String> partNames = new HashSet<String>();
+			for(DataPair data : dataContainer){
+				if(data instanceof Command || !(data.getValue() instanceof DataContainer)) continue;
+				String partName = getPartName(data.getName(), partNames);
+				java.nio.file.Path partFile = partDirectory.resolve(partName);
+				if(partFiles.isEmpty()) Files.createDirectories(partDirectory);
+				partFiles.add(partFile);
+				writePart((DataContainer) data.getValue(), partFile, level + 1, oldParts);
+				parts.put((DataContainer) data.getValue(), String.format("%s/%s", partDirectory.getFileName(), partName));
+			}
+		}
+		BinarySnapshot.write(dataContainer, file.toString(), saveSimplified, parts, null);
+		savedParts.put(file, new SavedPart(dataContainer, modification, saveSimplified));
+		if(level > 0) numberOfWrittenParts++;
+		collectOldParts(partDirectory, partFiles, oldParts);
+	}
+
+	/**
+	 * @return The directory in which the parts of the given manifest or part are saved.
+	 */
+	private static java.nio.file.Path getPartDirectory(java.nio.file.Path file){
+		String name = file.getFileName().toString();
+		int j = name.lastIndexOf(".");
+		return file.resolveSibling(String.format("%s.%s", j > 0 ? name.substring(0, j) : name, PART_DIRECTORY_EXTENSION));
+	}
+
+	/**
+	 * Gives the name of the file of a part, which differs from the names of all other parts in the same directory even on file systems that ignore the case of names.
+	 */
+	private static String getPartName(String name, Set<String> partNames){
+		String result = String.format("%s.%s", name, BinarySnapshot.FILE_EXTENSION);
+		for(int i = 2; !partNames.add(result.toLowerCase()); i++) result = String.format("%s~%d.%s", name, i, BinarySnapshot.FILE_EXTENSION);
+		return result;
+	}
+
+	/**
+	 * Adds the parts in a directory of parts that are not among the given part files to a list, together with their own directories of parts.
+	 */
+	private static void collectOldParts(java.nio.file.Path partDirectory, Set<java.nio.file.Path> partFiles, List<java.nio.file.Path> oldParts) throws IOException {
+		if(!Files.isDirectory(partDirectory)) return;
+		try(DirectoryStream<java.nio.file.Path> files = Files.newDirectoryStream(partDirectory, "*.{" + BinarySnapshot.FILE_EXTENSION + "," + PART_DIRECTORY_EXTENSION + "}")){
+			for(java.nio.file.Path file : files){
+				String name = file.getFileName().toString();
+				if(name.endsWith("." + BinarySnapshot.FILE_EXTENSION) && !partFiles.contains(file)) oldParts.add(file);
+				else if(name.endsWith("." + PART_DIRECTORY_EXTENSION) && Files.isDirectory(file)){
+					String partName = String.format("%s.%s", name.substring(0, name.length() - PART_DIRECTORY_EXTENSION.length() - 1), BinarySnapshot.FILE_EXTENSION);
+					if(!partFiles.contains(file.resolveSibling(partName))) oldParts.add(file);
+				}
+			}
+		}
+	}
+
+	private static void removeOldPart(java.nio.file.Path file) throws IOException {
+		if(Files.isDirectory(file)){
+			try(DirectoryStream<java.nio.file.Path> files = Files.newDirectoryStream(file)){
+				for(java.nio.file.Path subFile : files) removeOldPart(subFile);
+			}
+		}
+		Files.deleteIfExists(file);
+		savedParts.remove(file);
+	}
+
+	/**
+	 * The state of a DataContainer at the moment it was saved to or loaded from a part file.
+	 */
+	private static class SavedPart {
+		private final WeakReference<DataContainer> dataContainer;
+		private final long lastModification;
+		private final boolean saveSimplified;
+
+		private SavedPart(DataContainer dataContainer, long lastModification, boolean saveSimplified){
+			this.dataContainer = new WeakReference<DataContainer>(dataContainer);
+			this.lastModification = lastModification;
+			this.saveSimplified = saveSimplified;
+		}
+
+		/**
+		 * Checks whether the part file still contains the given DataContainer, i.e. whether it was not modified since.
+		 * The file itself is not checked, so a part file that was changed outside the program is not noticed.
+		 */
+		private boolean isSavedVersionOf(DataContainer dataContainer, boolean saveSimplified){
+			return this.dataContainer.get() == dataContainer && dataContainer.getLastModification() == lastModification && this.saveSimplified == saveSimplified;
+		}
+	}
+}
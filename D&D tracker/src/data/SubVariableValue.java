@@ -12,6 +12,8 @@ public class SubVariableValue implements Value {
 	private Value value;
 	private Value subValue;
 	private int level;
+	private int purity = Purity.NOT_ANALYZED;
+	private final boolean containsPreEvaluatedValue;
 	
 	/**
 	 * A constructor for the SubVariableValue.
@@ -27,6 +29,7 @@ public class SubVariableValue implements Value {
 		this.value = value;
 		this.subValue = subValue;
 		this.level = level;
+		containsPreEvaluatedValue = value.containsPreEvaluatedValue() || subValue.containsPreEvaluatedValue();
 	}
 	
 	/**
@@ -35,7 +38,7 @@ public class SubVariableValue implements Value {
 	 * @param level The relative level of the sub value relative to the value of the first parameter.
 	 */
 	public SubVariableValue(Value value, int level){
-		this(value,new VoidValue(),level);
+		this(value,VoidValue.VOID,level);
 	}
 	
 	/**
@@ -118,9 +121,15 @@ public class SubVariableValue implements Value {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
+		if(!containsPreEvaluatedValue) return this;
 		return new SubVariableValue(value.getPreEvaluation(environment, args, output),subValue.getPreEvaluation(environment, args, output),level);
 	}
 
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return containsPreEvaluatedValue;
+	}
+
 	@Override
 	public boolean equals(Value other) {
 		if(!(other instanceof SubVariableValue)) return false;
@@ -162,4 +171,10 @@ public class SubVariableValue implements Value {
 		environment = getLocalEnvironment(environment, args, output);
 		return subValue instanceof VoidValue ? environment.evaluateToFirstDivisible(environment, args, output) : subValue.evaluateToFirstDivisible(environment,args,output);
 	}
+
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.of(value, subValue);
+		return purity;
+	}
 }
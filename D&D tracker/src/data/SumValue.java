@@ -1,15 +1,18 @@
 package data;
 
 /**
- * A Value object that represents the sum of two Value objects.
+ * A Value object that represents the sum of two or more Value objects.
+ * A sum of more than two Value objects behaves exactly like the sums of the first two Value objects, to which the others are added one by one.
  */
 import java.io.PrintStream;
 
 public class SumValue implements Value{
 	public static final String[] VALUE_TYPE_NAMES = {"sum"};
 	
-	private Value a;
-	private Value b;
+	private Value[] values;
+	private int purity = Purity.NOT_ANALYZED;
+	private ArithmeticOperation operation = ArithmeticOperation.uninitialized(ArithmeticOperation.ADDITION);
+	private final boolean containsPreEvaluatedValue;
 	
 	/**
 	 * Initializes this SumValue object as the sum of two given Value objects.
@@ -17,8 +20,23 @@ public class SumValue implements Value{
 	 * @param b The second Value object to be added to the first.
 	 */
 	public SumValue(Value a, Value b){
-		this.a = a;
-		this.b = b;
+		this(new Value[]{a, b});
+	}
+
+	/**
+	 * Initializes this SumValue object as the sum of a number of Value objects.
+	 * @param values An array of at least two Value objects, which are added from left to right.
+	 */
+	SumValue(Value[] values){
+		this.values = values;
+		containsPreEvaluatedValue = Value.anyContainsPreEvaluatedValue(values);
+	}
+
+	/**
+	 * @return The Value objects that are added in this SumValue object, from left to right.
+	 */
+	Value[] getValues(){
+		return values;
 	}
 
 	public String getTypeName() {
@@ -31,50 +49,131 @@ public class SumValue implements Value{
 
 	@Override
 	public Value copy() {
-		return new SumValue(a.copy(),b.copy());
+		Value[] valuesCopy = new Value[values.length];
+		for(int i = 0; i < values.length; i++) valuesCopy[i] = values[i].copy();
+		return new SumValue(valuesCopy);
 	}
 	
 	/**
-	 * Returns the sum of the evaluations of the two stored Value objects.
+	 * Returns the sum of the evaluations of the stored Value objects.
 	 */
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(operation.isInteger()){
+			try{
+				return IntValue.of(evaluateLong(environment, args, output));
+			} catch(NotAnIntegerException e){
+				return e.getValue();
+			}
+		}
+		return addFrom(values[0].evaluateToFirstAddable(environment,args, output), 1, environment, args, output);
+	}
+
+	/**
+	 * Evaluates this SumValue object to an integer, computing on the integers of its operands directly while it has the integer operation, see ArithmeticOperation.
+	 * @throws NotAnIntegerException If the evaluation succeeded, but did not give an integer, carrying the evaluation.
+	 */
+	long evaluateLong(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException, NotAnIntegerException {
+		ArithmeticOperation current = operation;
+		if(!current.isInteger()) return ArithmeticOperation.toLong(evaluate(environment, args, output));
+		long result;
+		try{
+			result = current.evaluateOperand(values[0], environment, args, output);
+		} catch(NotAnIntegerException e){
+			return ArithmeticOperation.toLong(addFrom(e.getValue(), 1, environment, args, output));
+		}
+		for(int i = 1; i < values.length; i++){
+			long next;
+			try{
+				next = current.evaluateOperand(values[i], environment, args, output);
+			} catch(NotAnIntegerException e){
+				PrimitiveValue resultSoFar = IntValue.of(result);
+				return ArithmeticOperation.toLong(addFrom(add(resultSoFar, e.getValue()), i + 1, environment, args, output));
+			}
+			try{
+				result = current.applyToLongs(result, next);
+			} catch(ComputationException e){
+				throw new EvaluationException(String.format("Can not evaluate: %s",e.getMessage()),e);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the Value objects from a given index onwards to the sum of the Value objects before it.
+	 * @param result The sum of the Value objects before the given index.
+	 * @param index The index of the first Value object to be added, which should be at least 1.
+	 */
+	private PrimitiveValue addFrom(PrimitiveValue result, int index, DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		for(int i = index; i < values.length; i++){
+			if(i >= 2) result = result.evaluateToFirstAddable(environment, args, output);
+			result = add(result, values[i].evaluateToFirstAddable(environment, args, output));
+		}
+		return result;
+	}
+
+	private PrimitiveValue add(PrimitiveValue first, PrimitiveValue second) throws EvaluationException {
 		try{
-			return a.evaluateToFirstAddable(environment,args, output).add(b.evaluateToFirstAddable(environment, args, output));
+			return operationFor(first, second).apply(first, second);
 		} catch(ComputationException e){
 			throw new EvaluationException(String.format("Can not evaluate: %s",e.getMessage()),e);
 		}
 	}
+
+	/**
+	 * Gives the operation of this SumValue object for two evaluations, replacing it first if it does not accept them, see ArithmeticOperation.
+	 */
+	private ArithmeticOperation operationFor(PrimitiveValue first, PrimitiveValue second){
+		ArithmeticOperation result = operation;
+		if(!result.accepts(first, second)) operation = result = result.specialize(first, second);
+		return result;
+	}
 	
 	public String toString(){
-		return String.format("(%s+%s)", a.toString(),b.toString());
+		String result = values[0].toString();
+		for(int i = 1; i < values.length; i++) result = String.format("(%s+%s)", result,values[i].toString());
+		return result;
 	}
 
 	@Override
 	public int compareTo(Value o) {
 		if(o instanceof SumValue){
 			SumValue other = (SumValue) o;
-			return a.compareTo(other.a);
+			return values[0].compareTo(other.values[0]);
 		}
 		return getTypeName().compareTo(o.getTypeName());
 	}
 
 	@Override
 	public Value replaceArgumentsBy(Value[] args) {
-		return new SumValue(a.replaceArgumentsBy(args),b.replaceArgumentsBy(args));
+		Value[] replacementValues = new Value[values.length];
+		for(int i = 0; i < values.length; i++) replacementValues[i] = values[i].replaceArgumentsBy(args);
+		return new SumValue(replacementValues);
 	}
 
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return new SumValue(a.getPreEvaluation(environment, args, output),b.getPreEvaluation(environment, args, output));
+		if(!containsPreEvaluatedValue) return this;
+		Value[] preEvaluatedValues = new Value[values.length];
+		for(int i = 0; i < values.length; i++) preEvaluatedValues[i] = values[i].getPreEvaluation(environment, args, output);
+		return new SumValue(preEvaluatedValues);
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return containsPreEvaluatedValue;
 	}
 
 	@Override
 	public boolean equals(Value other) {
 		if(!(other instanceof SumValue)) return false;
 		SumValue o = (SumValue) other;
-		return a.equals(o.a) && b.equals(o.b);
+		if(values.length != o.values.length) return false;
+		for(int i = 0; i < values.length; i++){
+			if(!values[i].equals(o.values[i])) return false;
+		}
+		return true;
 	}
 
 	@Override
@@ -106,4 +205,10 @@ public class SumValue implements Value{
 			throws EvaluationException {
 		return evaluate(environment, args, output).evaluateToFirstDivisible(environment, args, output);
 	}
+
+	@Override
+	public int getPurity() {
+		if(purity == Purity.NOT_ANALYZED) purity = Purity.of(values);
+		return purity;
+	}
 }
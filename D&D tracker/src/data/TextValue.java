@@ -174,6 +174,16 @@ public class TextValue implements PrimitiveValue{
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
 	}
 }
@@ -1,11 +1,22 @@
 package data;
 
+import java.io.OutputStream;
 import java.io.PrintStream;
 
 /**
  * A Value object represents values that can be stored, saved, printed and manipulated with basic operations.
  */
 public interface Value extends Comparable<Value> {
+	/** An empty array of arguments, which can be used instead of creating a new one. */
+	public static final Value[] NO_ARGUMENTS = new Value[0];
+
+	/** A PrintStream that discards everything, which can be used to evaluate Value objects without showing any output. */
+	public static final PrintStream NO_OUTPUT = new PrintStream(new OutputStream(){
+		@Override
+		public void write(int b){
+		}
+	});
+	
 	/**
 	 * Gives a String that accurately describes the contents of this Value object.
 	 * @return A String that accurately describes the contents of this Value object.
@@ -129,7 +140,8 @@ public interface Value extends Comparable<Value> {
 	/**
 	 * Obtains the preEvaluated version of this value object, i.e. a Value object in which all occurences of PreEvaluatedValue are once pre-evaluated.
 	 * To make this method effective it should be passed on to all Value objects contained in this Value object.
-	 * Note that this should always return a copy of the original value, as replacing value objects might have unexpected behavior elsewhere otherwise.
+	 * Note that this should return a copy of the original value if it contains a PreEvaluatedValue, as replacing value objects might have unexpected behavior elsewhere otherwise.
+	 * A Value object that contains no PreEvaluatedValue is not changed by pre-evaluation and should return itself, see containsPreEvaluatedValue.
 	 * @param environment The DataContainer in which this Value object must be preevaluated.
 	 * @param args Arguments that are given for preevaluating this Value object.
 	 * @param output A PrintStream object that can be used to print information to the user about the evaluation.
@@ -138,4 +150,30 @@ public interface Value extends Comparable<Value> {
 	 * Every implementation of a Value object should specify for what reasons this may occur.
 	 */
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException;
+	
+	/**
+	 * Checks whether this Value object is or contains a PreEvaluatedValue object, i.e. whether getPreEvaluation changes anything.
+	 * Implementations that contain other Value objects should determine this when they are constructed, such that it can be obtained in constant time.
+	 * @return TRUE if this Value object is or contains a PreEvaluatedValue object, FALSE otherwise.
+	 */
+	public boolean containsPreEvaluatedValue();
+	
+	/**
+	 * Checks whether any of the given Value objects is or contains a PreEvaluatedValue object.
+	 * @param values An array of Value objects.
+	 * @return TRUE if containsPreEvaluatedValue is TRUE for any of the given Value objects, FALSE otherwise.
+	 */
+	public static boolean anyContainsPreEvaluatedValue(Value... values){
+		for(Value value : values){
+			if(value.containsPreEvaluatedValue()) return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * Gives the purity of this Value object, i.e. whether evaluating it may have side effects and whether its result may differ between evaluations.
+	 * Implementations that contain other Value objects should remember the result, such that it can be obtained in constant time.
+	 * @return A combination of the flags defined in Purity that describes evaluating this Value object.
+	 */
+	public int getPurity();
 }
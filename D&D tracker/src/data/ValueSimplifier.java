@@ -0,0 +1,186 @@
+package data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simplifies Value objects once, such that this need not be done on every evaluation.
+ * A simplification always evaluates in exactly the same way as the original Value object, including the errors that may occur:
+ * - Sums, subtractions, products, divisions, comparisons and functions that are PURE, see Purity, are replaced by their evaluation.
+ * - The Value objects within these, within dice and within subvariables are simplified, such that constant parts are folded wherever they occur.
+ * - Nested sums are flattened into a single SumValue and the PURE Value objects at the start of such a sum are added up.
+ * - Further on in a sum, consecutive integers of the same sign are added up, which only changes the numbers in the message of an overflow.
+ * - VoidValue objects are removed from sums, as long as at least two Value objects remain.
+ * - The Value objects within DataContainer objects are simplified.
+ * Values that fail to evaluate are left as they are, such that the error still occurs during the evaluation.
+ * Dice, variables and arguments are never replaced, as they are not PURE.
+ * The arguments of a function keep printing as they were written, since commands such as 'text' and 'set' may print or store them.
+ */
+public final class ValueSimplifier {
+	private ValueSimplifier(){
+	}
+
+	/**
+	 * Simplifies a Value object.
+	 * @param value A Value object.
+	 * @return The given Value object if it can not be simplified or already is a SimplifiedValue object,
+	 * otherwise a SimplifiedValue object that is evaluated through the simplification, but printed and saved as the given Value object.
+	 * Note that the Value objects in a DataContainer are simplified in place.
+	 */
+	public static Value simplify(Value value){
+		if(value instanceof SimplifiedValue) return value;
+		Value simplifiedValue = simplifyValue(value);
+		return simplifiedValue == value ? value : new SimplifiedValue(value, simplifiedValue);
+	}
+
+	private static Value simplifyValue(Value value){
+		if(value instanceof SimplifiedValue) return ((SimplifiedValue) value).getSimplifiedValue();
+		if(value instanceof DataContainer) return simplifyDataContainer((DataContainer) value);
+		if(value instanceof SumValue) return simplifySum((SumValue) value);
+		if(value instanceof SubtractionValue){
+			SubtractionValue subtraction = (SubtractionValue) value;
+			Value a = simplifyValue(subtraction.getFirstValue());
+			Value b = simplifyValue(subtraction.getSecondValue());
+			return fold(a == subtraction.getFirstValue() && b == subtraction.getSecondValue() ? value : new SubtractionValue(a, b));
+		}
+		if(value instanceof ProductValue){
+			ProductValue product = (ProductValue) value;
+			Value a = simplifyValue(product.getFirstValue());
+			Value b = simplifyValue(product.getSecondValue());
+			return fold(a == product.getFirstValue() && b == product.getSecondValue() ? value : new ProductValue(a, b));
+		}
+		if(value instanceof DivisionValue){
+			DivisionValue division = (DivisionValue) value;
+			Value a = simplifyValue(division.getFirstValue());
+			Value b = simplifyValue(division.getSecondValue());
+			return fold(a == division.getFirstValue() && b == division.getSecondValue() ? value : new DivisionValue(a, b));
+		}
+		if(value instanceof ComparisonValue){
+			ComparisonValue comparison = (ComparisonValue) value;
+			Value a = simplifyValue(comparison.getFirstValue());
+			Value b = simplifyValue(comparison.getSecondValue());
+			return fold(a == comparison.getFirstValue() && b == comparison.getSecondValue() ? value : new ComparisonValue(a, b, comparison.getComparisonType()));
+		}
+		if(value instanceof CompositeValue) return simplifyComposite((CompositeValue) value);
+		if(value instanceof SubVariableValue) return simplifySubVariable((SubVariableValue) value);
+		if(value instanceof DiceValue) return simplifyDice((DiceValue) value);
+		return value;
+	}
+
+	private static DataContainer simplifyDataContainer(DataContainer dataContainer){
+		for(DataPair data : dataContainer){
+			Value value = simplify(data.getValue());
+			if(value != data.getValue()) data.setValue(value);
+		}
+		return dataContainer;
+	}
+
+	private static Value simplifySum(SumValue sum){
+		Value[] values = sum.getValues();
+		List<Value> simplifiedValues = new ArrayList<Value>();
+		Value first = simplifyValue(values[0]);
+		boolean changed = first != values[0];
+		if(first instanceof SumValue){
+			for(Value value : ((SumValue) first).getValues()) simplifiedValues.add(value);
+			changed = true;
+		} else simplifiedValues.add(first);
+		for(int i = 1; i < values.length; i++){
+			Value value = simplifyValue(values[i]);
+			changed = changed || value != values[i];
+			simplifiedValues.add(value);
+		}
+		for(int i = 0; i < simplifiedValues.size() && simplifiedValues.size() > 2;){
+			if(simplifiedValues.get(i) instanceof VoidValue){
+				simplifiedValues.remove(i);
+				changed = true;
+			} else i++;
+		}
+		int numberOfPureValues = 0;
+		while(numberOfPureValues < simplifiedValues.size() && Purity.isPure(simplifiedValues.get(numberOfPureValues).getPurity())) numberOfPureValues++;
+		if(numberOfPureValues >= 2){
+			List<Value> pureValues = simplifiedValues.subList(0, numberOfPureValues);
+			Value pureSum = new SumValue(pureValues.toArray(new Value[numberOfPureValues]));
+			Value foldedSum = fold(pureSum);
+			if(foldedSum != pureSum){
+				if(numberOfPureValues == simplifiedValues.size()) return foldedSum;
+				pureValues.clear();
+				simplifiedValues.add(0, foldedSum);
+				changed = true;
+			}
+		}
+		changed = addUpIntegers(simplifiedValues) || changed;
+		return changed ? new SumValue(simplifiedValues.toArray(new Value[simplifiedValues.size()])) : sum;
+	}
+
+	/**
+	 * Adds up the consecutive integers of the same sign after the first Value object of a sum.
+	 * Whatever the sum of the Value objects before them is, adding these integers one by one causes an overflow exactly when adding their total does,
+	 * since all intermediate results lie between the first and the last one. Any other error does not depend on the integers themselves.
+	 * @param values The Value objects of a sum, which is changed in place.
+	 * @return TRUE if any integers were added up, FALSE otherwise.
+	 */
+	private static boolean addUpIntegers(List<Value> values){
+		boolean changed = false;
+		for(int i = 1; i < values.size(); i++){
+			if(!(values.get(i) instanceof IntValue)) continue;
+			long total = ((IntValue) values.get(i)).getLong();
+			int end = i + 1;
+			for(; end < values.size() && values.get(end) instanceof IntValue; end++){
+				long next = ((IntValue) values.get(end)).getLong();
+				if(Long.signum(total) * Long.signum(next) < 0) break;
+				try{
+					total = Math.addExact(total, next);
+				} catch(ArithmeticException e){
+					break;
+				}
+			}
+			if(end > i + 1){
+				values.subList(i + 1, end).clear();
+				values.set(i, IntValue.of(total));
+				changed = true;
+			}
+		}
+		return changed;
+	}
+
+	private static Value simplifyComposite(CompositeValue composite){
+		Value function = simplify(composite.getValue());
+		Value[] args = composite.getArguments();
+		Value[] simplifiedArgs = args;
+		for(int i = 0; i < args.length; i++){
+			Value arg = simplify(args[i]);
+			if(arg != args[i]){
+				if(simplifiedArgs == args) simplifiedArgs = args.clone();
+				simplifiedArgs[i] = arg;
+			}
+		}
+		return fold(function == composite.getValue() && simplifiedArgs == args ? composite : new CompositeValue(function, simplifiedArgs));
+	}
+
+	private static Value simplifySubVariable(SubVariableValue subVariable){
+		Value value = simplifyValue(subVariable.getTopValue());
+		Value subValue = simplifyValue(subVariable.getSubValue());
+		if(subValue instanceof VoidValue) subValue = subVariable.getSubValue();
+		if(value == subVariable.getTopValue() && subValue == subVariable.getSubValue()) return subVariable;
+		return new SubVariableValue(value, subValue, subVariable.getLevel());
+	}
+
+	private static Value simplifyDice(DiceValue dice){
+		Value numberOfRolls = simplifyValue(dice.getNumberOfRolls());
+		Value sizeOfDice = simplifyValue(dice.getSizeOfDice());
+		Value numberToKeep = simplifyValue(dice.getNumberToKeep());
+		if(numberOfRolls == dice.getNumberOfRolls() && sizeOfDice == dice.getSizeOfDice() && numberToKeep == dice.getNumberToKeep()) return dice;
+		if(dice.keepsLowest() || dice.keepsHighest()) return new DiceValue(numberOfRolls, sizeOfDice, numberToKeep, dice.keepsLowest());
+		return new DiceValue(numberOfRolls, sizeOfDice);
+	}
+
+	private static Value fold(Value value){
+		if(!Purity.isPure(value.getPurity())) return value;
+		try{
+			PrimitiveValue result = value.evaluate(new DataContainer(), Value.NO_ARGUMENTS, Value.NO_OUTPUT);
+			return result instanceof DataContainer ? value : result;
+		} catch(EvaluationException e){
+			return value;
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package data;
+
+/**
+ * The verbosity of the output of dice rolls, see DiceValue, which is one of FULL, SUMMARY or SILENT.
+ * There is one global verbosity, which can be overridden on a single thread while a Value object is evaluated, see override.
+ * Dice rolls only format the text they print if it is printed at all, such that rolling many dice at a lower verbosity is also faster.
+ */
+public final class Verbosity {
+	/** Every dice roll prints all rolled faces. */
+	public static final int FULL = 0;
+	/** Every dice roll prints only its total and the number of dice. */
+	public static final int SUMMARY = 1;
+	/** Dice rolls print nothing. */
+	public static final int SILENT = 2;
+	public static final String[] NAMES = {"full","summary","silent"};
+
+	private static final int NO_OVERRIDE = -1;
+	private static final ThreadLocal<Integer> override = new ThreadLocal<Integer>();
+	private static volatile int globalLevel = FULL;
+
+	private Verbosity(){
+	}
+
+	/**
+	 * @return The verbosity of the current thread, which is its overridden verbosity if there is one and the global verbosity otherwise.
+	 */
+	public static int get(){
+		Integer result = override.get();
+		return result == null ? globalLevel : result;
+	}
+
+	/**
+	 * @return The global verbosity.
+	 */
+	public static int getGlobal(){
+		return globalLevel;
+	}
+
+	/**
+	 * @param level The new global verbosity.
+	 */
+	public static void setGlobal(int level){
+		globalLevel = level;
+	}
+
+	/**
+	 * Overrides the verbosity of the current thread until restore is called.
+	 * @param level The verbosity the current thread should use.
+	 * @return The previous override, which must be given to restore.
+	 */
+	public static int override(int level){
+		Integer previous = override.get();
+		override.set(level);
+		return previous == null ? NO_OVERRIDE : previous;
+	}
+
+	/**
+	 * Restores the override of the verbosity of the current thread to what it was before override was called.
+	 * @param previous The result of the matching call to override.
+	 */
+	public static void restore(int previous){
+		if(previous == NO_OVERRIDE) override.remove();
+		else override.set(previous);
+	}
+
+	/**
+	 * @param name The name of a verbosity, ignoring case.
+	 * @return The verbosity with the given name, or -1 if there is none.
+	 */
+	public static int of(String name){
+		for(int i = 0; i < NAMES.length; i++){
+			if(NAMES[i].equalsIgnoreCase(name)) return i;
+		}
+		return -1;
+	}
+}
@@ -7,6 +7,8 @@ import java.io.PrintStream;
  */
 public class VoidValue implements PrimitiveValue {
 	private static final String[] VALUE_TYPE_NAME = {"empty","void"};
+	/** A shared VoidValue object, which can be used instead of creating a new one. */
+	public static final VoidValue VOID = new VoidValue();
 	
 	/**
 	 * Returns other.
@@ -127,6 +129,16 @@ public class VoidValue implements PrimitiveValue {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
 	}
 }
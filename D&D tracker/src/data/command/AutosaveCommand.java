@@ -0,0 +1,80 @@
+package data.command;
+
+import java.awt.EventQueue;
+import java.io.PrintStream;
+
+import data.Autosave;
+import data.BinarySnapshot;
+import data.DataContainer;
+import data.EvaluationException;
+import data.IntValue;
+import data.PrimitiveValue;
+import data.TextValue;
+import data.Value;
+import data.VoidValue;
+
+/**
+ * A command that periodically saves all variables to a snapshot file on a background thread, see Autosave.
+ */
+public class AutosaveCommand extends CommandValue {
+	public static String COMMAND_WORD = "autosave";
+	public static String USAGE_DESCRIPTION = "autosave <interval in seconds> <filename>";
+
+	private static final int MAX_EXTENSION_SIZE = 4;
+	private static Autosave autosave;
+
+	@Override
+	public Value copy() {
+		return new AutosaveCommand();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(args.length < 1) throw new EvaluationException(String.format("The command \'autosave\' needs at least one argument to work: %s",USAGE_DESCRIPTION));
+		long interval = getInterval(args[0].evaluate(environment, Value.NO_ARGUMENTS, output));
+		if(autosave != null){
+			autosave.stop();
+			output.printf("Stopped autosaving to %s.\n", autosave.getFileName());
+			autosave = null;
+		}
+		if(interval == 0) return VoidValue.VOID;
+		if(args.length < 2) throw new EvaluationException(String.format("The command \'autosave\' needs a file name to save to: %s",USAGE_DESCRIPTION));
+		String fileName = getFullFileName(args[1].evaluate(environment, Value.NO_ARGUMENTS, output));
+		autosave = new Autosave(environment.getTopLevel(), fileName, output, EventQueue::invokeLater);
+		autosave.start(interval);
+		output.printf("Autosaving to %s every %d seconds.\n", fileName, interval);
+		return VoidValue.VOID;
+	}
+
+	private long getInterval(Value value) throws EvaluationException {
+		if(value instanceof IntValue && ((IntValue) value).getLong() >= 0) return ((IntValue) value).getLong();
+		throw new EvaluationException(String.format("The interval of the autosave command should be a non-negative integer, not %s.",value));
+	}
+
+	private String getFullFileName(Value value) throws EvaluationException{
+		if(value instanceof TextValue) return getFullFileName(((TextValue) value).getText());
+		throw new EvaluationException(String.format("The second argument of the autosave command should evaluate to a variable of type %s, not of type %s.",TextValue.VALUE_TYPE_NAMES[0],value.getTypeName()));
+	}
+
+	private String getFullFileName(String partialName) throws EvaluationException {
+		if(!hasFileExtension(partialName)) return String.format("%s.%s", partialName, BinarySnapshot.FILE_EXTENSION);
+		if(!getExtension(partialName).equalsIgnoreCase(BinarySnapshot.FILE_EXTENSION)) throw new EvaluationException(String.format("The autosave command can only save snapshots, whose extension is .%s.", BinarySnapshot.FILE_EXTENSION));
+		return partialName;
+	}
+
+	private boolean hasFileExtension(String s){
+		int j = s.lastIndexOf(".");
+		int k = s.length() - j;
+		return j != -1 && k > 1 && k <= MAX_EXTENSION_SIZE + 1;
+	}
+
+	private String getExtension(String s){
+		int j = s.lastIndexOf(".");
+		return s.substring(j+1);
+	}
+
+	@Override
+	public String getDefaultName() {
+		return COMMAND_WORD;
+	}
+}
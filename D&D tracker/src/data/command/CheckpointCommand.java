@@ -0,0 +1,42 @@
+package data.command;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import data.DataContainer;
+import data.EvaluationException;
+import data.Journal;
+import data.PrimitiveValue;
+import data.Value;
+import data.VoidValue;
+
+/**
+ * A command that writes a new snapshot of the variables that are recorded by the journal and empties the journal, see Journal.checkpoint.
+ */
+public class CheckpointCommand extends CommandValue {
+	public static String COMMAND_WORD = "checkpoint";
+	public static String USAGE_DESCRIPTION = "checkpoint";
+
+	@Override
+	public Value copy() {
+		return new CheckpointCommand();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		Journal journal = Journal.getActive();
+		if(journal == null) throw new EvaluationException("There is no journal to checkpoint, start one with: " + JournalCommand.USAGE_DESCRIPTION);
+		try{
+			long size = journal.checkpoint();
+			output.printf("Checkpoint of %d bytes written to %s.\n", size, journal.getSnapshotFileName());
+		} catch(IOException e){
+			throw new EvaluationException(String.format("Could not evaluate, since: %s",e.getMessage()),e);
+		}
+		return VoidValue.VOID;
+	}
+
+	@Override
+	public String getDefaultName() {
+		return COMMAND_WORD;
+	}
+}
@@ -26,7 +26,7 @@ public class ClearCommand extends CommandValue {
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		Tracker.mainInstance.screen.clearScreen();
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 }
@@ -5,6 +5,7 @@ import java.io.PrintStream;
 import data.DataContainer;
 import data.EvaluationException;
 import data.PrimitiveValue;
+import data.Purity;
 import data.Value;
 
 /**
@@ -78,6 +79,21 @@ public abstract class CommandValue implements Value {
 	@Override
 	public Value getPreEvaluation(DataContainer environment, Value[] args, PrintStream output)
 			throws EvaluationException {
-		return copy();
+		return this;
+	}
+
+	@Override
+	public boolean containsPreEvaluatedValue() {
+		return false;
+	}
+
+	/**
+	 * Returns IMPURE, as most commands print something or manipulate variables.
+	 * Commands that only evaluate their arguments should override this method.
+	 * Note that the purity of the arguments is not taken into account here.
+	 */
+	@Override
+	public int getPurity() {
+		return Purity.IMPURE;
 	}
 }
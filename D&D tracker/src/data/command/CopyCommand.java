@@ -37,13 +37,13 @@ public class CopyCommand extends CommandValue {
 			}
 			else{
 				Path result = Path.convertToPath(args[1], environment.getPath());
-				result.setValue(original.getValue().copy(), args.length >= 3 ? args[2].evaluate(environment, new Value[0], output).getBool() : true);
+				result.setValue(original.getValue().copy(), args.length >= 3 ? args[2].evaluate(environment, Value.NO_ARGUMENTS, output).getBool() : true);
 				output.printf("Variable \'%s\' copied to \'%s\'.\n",original.getPath(),result);
 			}
 		} catch (DataException|PathException e) {
 			throw new EvaluationException(String.format("Could not evaluate, since: %s.",e.getMessage()),e);
 		}
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	@Override
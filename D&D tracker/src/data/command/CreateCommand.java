@@ -31,7 +31,7 @@ public class CreateCommand extends CommandValue {
 				path.setValue(args[1], false);
 				output.printf("Value of \'%s\' set to \'%s\'.\n", path.toString(), args[1].toString());
 			}
-			return new VoidValue();
+			return VoidValue.VOID;
 		} catch(DataException|PathException e){
 			throw new EvaluationException(String.format("Can not evaluate, since: %s",e.getMessage()),e);
 		}
@@ -0,0 +1,51 @@
+package data.command;
+
+import java.io.PrintStream;
+
+import data.DataContainer;
+import data.Distribution;
+import data.EvaluationException;
+import data.PrimitiveValue;
+import data.Value;
+import data.VoidValue;
+
+/**
+ * A command that prints the exact probability distribution of a value that rolls dice, see Distribution.
+ */
+public class DistributionCommand extends CommandValue {
+	public static String COMMAND_WORD = "distribution";
+	public static String USAGE_DESCRIPTION = "distribution <value>";
+
+	private static final int MAX_LISTED_RESULTS = 100;
+	private static final double[] PERCENTILES = {0.05, 0.25, 0.5, 0.75, 0.95};
+
+	@Override
+	public Value copy() {
+		return new DistributionCommand();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(args.length < 1) throw new EvaluationException(String.format("The command \'distribution\' needs one argument to work: %s",USAGE_DESCRIPTION));
+		Distribution distribution = Distribution.of(args[0], environment, output);
+		double variance = distribution.getVariance();
+		output.printf("Distribution of %s:\n", args[0]);
+		output.printf("Mean %.3f, variance %.3f, standard deviation %.3f, results from %d to %d.\n", distribution.getMean(), variance, Math.sqrt(variance), distribution.getMinimum(), distribution.getMaximum());
+		StringBuilder sb = new StringBuilder();
+		for(double percentile : PERCENTILES) sb.append(sb.length() == 0 ? "" : ", ").append(String.format("%.0f%%: %d", percentile * 100, distribution.getPercentile(percentile)));
+		output.printf("Percentiles: %s.\n", sb.toString());
+		if(distribution.getMaximum() - distribution.getMinimum() >= MAX_LISTED_RESULTS) return VoidValue.VOID;
+		double atLeast = 1;
+		for(long result = distribution.getMinimum(); result <= distribution.getMaximum(); result++){
+			double probability = distribution.getProbability(result);
+			if(probability > 0) output.printf("%d: %.2f%% (at least %d: %.2f%%)\n", result, probability * 100, result, Math.max(atLeast, 0) * 100);
+			atLeast -= probability;
+		}
+		return VoidValue.VOID;
+	}
+
+	@Override
+	public String getDefaultName() {
+		return COMMAND_WORD;
+	}
+}
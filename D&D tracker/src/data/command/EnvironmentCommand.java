@@ -26,7 +26,7 @@ public class EnvironmentCommand extends CommandValue {
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		if(args.length >= 1) Tracker.mainInstance.currentContainer = getDataContainer(args[0],environment);
 		output.printf("Currently working in \'%s\'.\n", Tracker.mainInstance.currentContainer.getPath());
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 	
 	private DataContainer getDataContainer(Value value, DataContainer environment) throws EvaluationException{
@@ -7,6 +7,7 @@ import data.DataContainer;
 import data.DataPair;
 import data.EvaluationException;
 import data.PrimitiveValue;
+import data.Purity;
 import data.Value;
 import data.VoidValue;
 
@@ -23,9 +24,9 @@ public class ForCommand extends CommandValue {
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		if(args.length < 2) throw new EvaluationException(String.format("The \'while\' command needs at least two arguments: %s",USAGE_DESCRIPTION));
-		DataContainer dataContainer = args[0].evaluateToFirstDataContainer(environment, new Value[0], output);
+		DataContainer dataContainer = args[0].evaluateToFirstDataContainer(environment, Value.NO_ARGUMENTS, output);
 		boolean loopOverHidden = false;
-		if(args.length >= 3) loopOverHidden = !isFalse(args[2].evaluate(environment, new Value[0], output));
+		if(args.length >= 3) loopOverHidden = !isFalse(args[2].evaluate(environment, Value.NO_ARGUMENTS, output));
 		for(DataPair data : dataContainer) {
 			if(loopOverHidden || !data.isHidden()){
 				Value[] myArgs = new Value[1];
@@ -33,15 +34,20 @@ public class ForCommand extends CommandValue {
 				args[1].evaluate(dataContainer, myArgs, output);
 			}
 		} 
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	private boolean isFalse(PrimitiveValue condition) {
-		return condition instanceof VoidValue || (condition instanceof BooleanValue && condition.equals(new BooleanValue(false)));
+		return condition instanceof VoidValue || (condition instanceof BooleanValue && condition.equals(BooleanValue.FALSE));
 	}
 
 	@Override
 	public String getDefaultName() {
 		return COMMAND_WORD;
 	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
+	}
 }
@@ -6,6 +6,7 @@ import data.BooleanValue;
 import data.DataContainer;
 import data.EvaluationException;
 import data.PrimitiveValue;
+import data.Purity;
 import data.Value;
 import data.VoidValue;
 
@@ -21,21 +22,26 @@ public class IfCommand extends CommandValue {
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		if(args.length < 2) throw new EvaluationException(String.format("The \'if\' command needs at least two arguments: %s",USAGE_DESCRIPTION));
-		PrimitiveValue condition = args[0].evaluate(environment, new Value[0], output);
+		PrimitiveValue condition = args[0].evaluate(environment, Value.NO_ARGUMENTS, output);
 		if(isFalse(condition)){
-			if(args.length >= 3) return args[2].evaluate(environment, new Value[0], output);
-			return new VoidValue();
+			if(args.length >= 3) return args[2].evaluate(environment, Value.NO_ARGUMENTS, output);
+			return VoidValue.VOID;
 		} else{
-			return args[1].evaluate(environment, new Value[0], output);
+			return args[1].evaluate(environment, Value.NO_ARGUMENTS, output);
 		}
 	}
 
 	private boolean isFalse(PrimitiveValue condition) {
-		return condition instanceof VoidValue || (condition instanceof BooleanValue && condition.equals(new BooleanValue(false)));
+		return condition instanceof VoidValue || (condition instanceof BooleanValue && condition.equals(BooleanValue.FALSE));
 	}
 
 	@Override
 	public String getDefaultName() {
 		return COMMAND_WORD;
 	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
+	}
 }
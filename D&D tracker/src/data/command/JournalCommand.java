@@ -0,0 +1,65 @@
+package data.command;
+
+import java.io.IOException;
+import java.io.PrintStream;
+
+import data.BinarySnapshot;
+import data.DataContainer;
+import data.DataException;
+import data.EvaluationException;
+import data.Journal;
+import data.PrimitiveValue;
+import data.TextValue;
+import data.Value;
+import data.VoidValue;
+
+/**
+ * A command that records all changes to the variables in a journal, such that they can be restored after a crash, see Journal.
+ */
+public class JournalCommand extends CommandValue {
+	public static String COMMAND_WORD = "journal";
+	public static String USAGE_DESCRIPTION = "journal <filename> [force to disk?]";
+
+	private static final int MAX_EXTENSION_SIZE = 4;
+
+	@Override
+	public Value copy() {
+		return new JournalCommand();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(args.length < 1) throw new EvaluationException(String.format("The command \'journal\' needs at least one argument to work: %s",USAGE_DESCRIPTION));
+		String fileName = getFullFileName(args[0].evaluate(environment, Value.NO_ARGUMENTS, output));
+		boolean sync = args.length >= 2 ? args[1].evaluate(environment, Value.NO_ARGUMENTS, output).getBool() : true;
+		try{
+			Journal journal = Journal.open(fileName, environment.getTopLevel(), sync);
+			if(journal.getNumberOfRestoredChanges() > 0) output.printf("Restored %d changes from the journal of %s.\n", journal.getNumberOfRestoredChanges(), fileName);
+			output.printf("Changes are recorded in the journal of %s.\n", fileName);
+		} catch(IOException|DataException e){
+			throw new EvaluationException(String.format("Could not evaluate, since: %s",e.getMessage()),e);
+		}
+		return VoidValue.VOID;
+	}
+
+	private String getFullFileName(Value value) throws EvaluationException{
+		if(value instanceof TextValue) return getFullFileName(((TextValue) value).getText());
+		throw new EvaluationException(String.format("The first argument of the journal command should evaluate to a variable of type %s, not of type %s.",TextValue.VALUE_TYPE_NAMES[0],value.getTypeName()));
+	}
+
+	private String getFullFileName(String partialName) {
+		if(!hasFileExtension(partialName)) partialName = String.format("%s.%s", partialName, BinarySnapshot.FILE_EXTENSION);
+		return partialName;
+	}
+
+	private boolean hasFileExtension(String s){
+		int j = s.lastIndexOf(".");
+		int k = s.length() - j;
+		return j != -1 && k > 1 && k <= MAX_EXTENSION_SIZE + 1;
+	}
+
+	@Override
+	public String getDefaultName() {
+		return COMMAND_WORD;
+	}
+}
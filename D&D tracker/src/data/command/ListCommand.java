@@ -16,9 +16,9 @@ public class ListCommand extends CommandValue{
 
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
-		if(args.length >= 1) environment = args[0].evaluateToFirstDataContainer(environment, new Value[0], output);
+		if(args.length >= 1) environment = args[0].evaluateToFirstDataContainer(environment, Value.NO_ARGUMENTS, output);
 		printDataContainer(environment,0,output,args.length >= 2 ? args[1].evaluate(environment, new VoidValue[0], output).getBool() : false , args.length >= 3 ? args[2].evaluate(environment, new VoidValue[0], output).getBool() : false);
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	private void printDataContainer(DataContainer environment, int level, PrintStream output, boolean printSubDataContainers, boolean printHiddenDataPairs) {
@@ -1,10 +1,17 @@
 package data.command;
 
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.PrintStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
 
+import data.BinarySnapshot;
 import data.DataContainer;
 import data.DataException;
 import data.EvaluationException;
@@ -14,8 +21,11 @@ import data.PrimitiveValue;
 import data.SumValue;
 import data.TextValue;
 import data.Value;
+import data.ValueSimplifier;
 import data.VoidValue;
+import main.ParallelDataContainerReader;
 import main.ReadingException;
+import main.ValueLexer;
 import main.ValueReader;
 
 /**
@@ -23,9 +33,10 @@ import main.ValueReader;
  */
 public class LoadCommand extends CommandValue {
 	public static String COMMAND_WORD = "load";
-	public static String USAGE_DESCRIPTION = "load <fileName> <variable>";
+	public static String USAGE_DESCRIPTION = "load <fileName> <variable> [read in parallel]";
 	
 	private static final int MAX_EXTENSION_SIZE = 4;
+	private static final int BUFFER_SIZE = 1 << 16;
 	private static final String LINE_PREFIX = "line";
 	private static final TextValue END_OF_LINE = new TextValue("\n");
 
@@ -40,29 +51,42 @@ public class LoadCommand extends CommandValue {
 			throw new EvaluationException(String.format("Could not load data, since %s",e.getMessage()),e);
 		}
 		String fileName = getFullFileName(args[0].evaluate(environment, args, output));
-		FileReader fileReader = null;
+		boolean readInParallel = args.length >= 3 ? args[2].evaluate(environment, Value.NO_ARGUMENTS, output).getBool() : false;
+		Reader fileReader = null;
 		Scanner input = null;
 		try{
-			fileReader = new FileReader(fileName);
-			input = new Scanner(fileReader);
+			if(BinarySnapshot.isSnapshot(fileName)){
+				readSnapshot(fileName, loadPath, environment);
+				output.printf("File \"%s\" loaded to \'%s\'.\n", fileName, loadPath);
+				return VoidValue.VOID;
+			}
 			String extension = getExtension(fileName);
-			if(extension.equalsIgnoreCase("dat")) readDatFile(input,loadPath,new ValueReader());
-			else if(extension.equalsIgnoreCase("txt")) readTxtFile(input,loadPath);
+			if(extension.equalsIgnoreCase(SaveCommand.COMPRESSED_FILE_EXTENSION)){
+				extension = getExtension(fileName.substring(0, fileName.length() - extension.length() - 1));
+				fileReader = new InputStreamReader(new GZIPInputStream(new FileInputStream(fileName), BUFFER_SIZE));
+			}
+			else fileReader = new FileReader(fileName);
+			if(extension.equalsIgnoreCase("dat") && readInParallel) readDatFileInParallel(fileReader,loadPath,new ValueReader());
+			else if(extension.equalsIgnoreCase("dat")) readDatFile(fileReader,loadPath,new ValueReader());
+			else if(extension.equalsIgnoreCase("txt")){
+				input = new Scanner(fileReader);
+				readTxtFile(input,loadPath);
+			}
 			else{
 				closeReaders(fileReader, input);
 				throw new EvaluationException(String.format("Can not load files with extension %s.", extension));
 			}
 			output.printf("File \"%s\" loaded to \'%s\'.\n", fileName, loadPath);
-			input.close();
+			if(input != null) input.close();
 			fileReader.close();
 		} catch(IOException e){
 			closeReaders(fileReader, input);
 			throw new EvaluationException(String.format("Problem occured with reading a file: %s",e.getMessage()),e);
 		}
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
-	private void closeReaders(FileReader fileReader, Scanner input) throws EvaluationException {
+	private void closeReaders(Reader fileReader, Scanner input) throws EvaluationException {
 		try{
 			if(input != null) input.close();
 			if(fileReader != null) fileReader.close();
@@ -71,6 +95,14 @@ public class LoadCommand extends CommandValue {
 		}
 	}
 	
+	private void readSnapshot(String fileName, Path loadPath, DataContainer environment) throws IOException, EvaluationException {
+		try{
+			loadPath.setValue(BinarySnapshot.load(fileName, environment), true);
+		} catch(DataException e){
+			throw new EvaluationException(String.format("Could not load, since: %s", e.getMessage()),e);
+		}
+	}
+
 	private void readTxtFile(Scanner input, Path loadPath) throws EvaluationException {
 		try{
 			loadPath.setValue(readLines(input), true);
@@ -82,7 +114,7 @@ public class LoadCommand extends CommandValue {
 	private Value readLines(Scanner input) throws ReadingException {
 		DataContainer result = new DataContainer();
 		int lineNumber = 1;
-		Value total = new VoidValue();
+		Value total = VoidValue.VOID;
 		while(input.hasNextLine()){
 			String name = LINE_PREFIX + String.valueOf(lineNumber);
 			result.removeData(name);
@@ -97,10 +129,51 @@ public class LoadCommand extends CommandValue {
 		return result;
 	}
 
-	private void readDatFile(Scanner input, Path loadPath, ValueReader valueReader) throws EvaluationException {
-		input.useDelimiter("\\s");
+	/**
+	 * Reads a .dat file while streaming it from the given Reader object.
+	 * If the file contains a DataContainer, as files written by the save command do, its variables are added one by one,
+	 * such that only the characters of the variable that is currently being read are kept in memory.
+	 * The loaded value is only stored at the load path once the whole file has been read successfully.
+	 */
+	private void readDatFile(Reader reader, Path loadPath, ValueReader valueReader) throws IOException, EvaluationException {
+		ValueLexer input = new ValueLexer(reader, BUFFER_SIZE);
 		try{
-			loadPath.setValue(valueReader.readValue(input), true);
+			Value value;
+			if(input.nextIs('{')){
+				DataContainer dataContainer = new DataContainer();
+				valueReader.readDataContainer(input, dataContainer);
+				if(input.hasNext()) throw new ReadingException(String.format("Attempting to read the end of the file after its variables, but read \'%s\'", input.restOfLine()));
+				value = dataContainer;
+			}
+			else value = valueReader.readValue(input);
+			loadPath.setValue(ValueSimplifier.simplify(value), true);
+		} catch(ReadingException|DataException e){
+			throw new EvaluationException(String.format("Could not load, since: %s", e.getMessage()),e);
+		} catch(UncheckedIOException e){
+			throw e.getCause();
+		}
+	}
+
+	/**
+	 * Reads a .dat file as a whole, after which the variables of a DataContainer in it are read in parallel, see ParallelDataContainerReader.
+	 * The loaded value is only stored at the load path once the whole file has been read successfully.
+	 */
+	private void readDatFileInParallel(Reader reader, Path loadPath, ValueReader valueReader) throws IOException, EvaluationException {
+		StringBuilder contents = new StringBuilder();
+		char[] buffer = new char[BUFFER_SIZE];
+		for(int read = reader.read(buffer); read != -1; read = reader.read(buffer)) contents.append(buffer, 0, read);
+		ValueLexer input = new ValueLexer(contents);
+		try{
+			Value value;
+			if(input.nextIs('{')){
+				DataContainer dataContainer = new DataContainer();
+				int end = new ParallelDataContainerReader(valueReader, ForkJoinPool.commonPool()).readDataContainer(contents, input.getPosition(), dataContainer);
+				input = new ValueLexer(contents, end, contents.length());
+				if(input.hasNext()) throw new ReadingException(String.format("Attempting to read the end of the file after its variables, but read \'%s\'", input.restOfLine()));
+				value = dataContainer;
+			}
+			else value = valueReader.readValue(input);
+			loadPath.setValue(ValueSimplifier.simplify(value), true);
 		} catch(ReadingException|DataException e){
 			throw new EvaluationException(String.format("Could not load, since: %s", e.getMessage()),e);
 		}
@@ -21,7 +21,7 @@ public class PrintCommand extends CommandValue {
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		for(int i = 0; i < args.length ; i++ ) printValue(args[i].evaluate(environment, args, output),output);
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	private void printValue(Value value, PrintStream output) {
@@ -0,0 +1,64 @@
+package data.command;
+
+import java.io.PrintStream;
+
+import data.DataContainer;
+import data.EvaluationException;
+import data.IntValue;
+import data.NamedValue;
+import data.PrimitiveValue;
+import data.TextValue;
+import data.Value;
+import data.Verbosity;
+import data.VoidValue;
+
+/**
+ * A command that sets how much is printed when dice are rolled, either globally or only while evaluating a given value, see Verbosity.
+ */
+public class QuietCommand extends CommandValue {
+	public static String COMMAND_WORD = "quiet";
+	public static String USAGE_DESCRIPTION = "quiet [full/summary/silent] [value]";
+
+	@Override
+	public Value copy() {
+		return new QuietCommand();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(args.length == 0){
+			output.printf("The verbosity of dice rolls is %s.\n", Verbosity.NAMES[Verbosity.getGlobal()]);
+			return VoidValue.VOID;
+		}
+		int level = getLevel(args[0], environment, output);
+		if(args.length == 1){
+			Verbosity.setGlobal(level);
+			output.printf("The verbosity of dice rolls is now %s.\n", Verbosity.NAMES[level]);
+			return VoidValue.VOID;
+		}
+		int previous = Verbosity.override(level);
+		try{
+			return args[1].evaluate(environment, Value.NO_ARGUMENTS, output);
+		} finally{
+			Verbosity.restore(previous);
+		}
+	}
+
+	/**
+	 * Gives the verbosity given by a name, which may also be given as a text or as its number.
+	 */
+	private int getLevel(Value value, DataContainer environment, PrintStream output) throws EvaluationException {
+		if(!(value instanceof NamedValue)) value = value.evaluate(environment, Value.NO_ARGUMENTS, output);
+		int result = -1;
+		if(value instanceof NamedValue) result = Verbosity.of(value.toString());
+		else if(value instanceof TextValue) result = Verbosity.of(((TextValue) value).getText());
+		else if(value instanceof IntValue && ((IntValue) value).getLong() >= 0 && ((IntValue) value).getLong() < Verbosity.NAMES.length) result = (int) ((IntValue) value).getLong();
+		if(result == -1) throw new EvaluationException(String.format("The verbosity should be full, summary or silent, not %s.",value));
+		return result;
+	}
+
+	@Override
+	public String getDefaultName() {
+		return COMMAND_WORD;
+	}
+}
@@ -21,7 +21,7 @@ public class QuitCommand extends CommandValue {
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		Tracker.mainInstance.quit();
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 	
 	@Override
@@ -35,7 +35,7 @@ public class RemoveCommand extends CommandValue {
 		} catch(DataException|PathException e){
 			throw new EvaluationException(String.format("Can not evaluate, since: %s.",e.getMessage()),e);
 		}
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	@Override
@@ -40,7 +40,7 @@ public class RunCommand extends CommandValue {
 			closeReaders(fileReader, input);
 			throw new EvaluationException(String.format("Problem occured with reading a file: %s",e.getMessage()),e);
 		}
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	private void closeReaders(FileReader fileReader, Scanner input) throws EvaluationException {
@@ -1,17 +1,30 @@
 package data.command;
 
-import java.io.FileWriter;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
 
+import data.BinarySnapshot;
 import data.DataContainer;
 import data.DataException;
 import data.DataPair;
 import data.EvaluationException;
+import data.IntValue;
 import data.Path;
 import data.PathException;
 import data.PrimitiveValue;
+import data.SimplifiedValue;
+import data.SplitSnapshot;
 import data.TextValue;
 import data.Value;
 import data.VoidValue;
@@ -21,31 +34,89 @@ import data.VoidValue;
  */
 public class SaveCommand extends CommandValue {
 	public static String COMMAND_WORD = "save";
-	public static String USAGE_DESCRIPTION = "save <filename> [variable]";
+	public static String USAGE_DESCRIPTION = "save <filename> [variable] [save simplified values] [depth of parts]";
 	
 	public static final String TAB = "    ";
+	public static final String COMPRESSED_FILE_EXTENSION = "gz";
 	private static final int MAX_EXTENSION_SIZE = 4;
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final String TEMPORARY_FILE_EXTENSION = "tmp";
 
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		if(args.length < 1) throw new EvaluationException(String.format("The command \'save\' needs at least one argument to work: %s",USAGE_DESCRIPTION));
 		String fileName = getFullFileName(args[0].evaluate(environment, args, output));
 		Value variable = args.length >= 2 ? getVariable(args[1],environment) : environment;
-		FileWriter fileWriter = null;
-		try{
-			fileWriter = new FileWriter(fileName);
-			writeValue(variable,fileWriter,0);
-			fileWriter.close();
+		boolean saveSimplified = args.length >= 3 ? args[2].evaluate(environment, Value.NO_ARGUMENTS, output).getBool() : false;
+		if(getExtension(fileName).equalsIgnoreCase(BinarySnapshot.FILE_EXTENSION)){
+			saveSnapshot(variable, fileName, saveSimplified);
 			output.printf("Variable saved to %s.\n",fileName);
+			return VoidValue.VOID;
+		}
+		if(getExtension(fileName).equalsIgnoreCase(SplitSnapshot.FILE_EXTENSION)){
+			int depth = args.length >= 4 ? getDepth(args[3].evaluate(environment, Value.NO_ARGUMENTS, output)) : 1;
+			SplitSnapshot snapshot = saveSplitSnapshot(variable, fileName, depth, saveSimplified);
+			output.printf("Variable saved to %s, writing %d changed parts.\n",fileName,snapshot.getNumberOfWrittenParts());
+			return VoidValue.VOID;
+		}
+		try{
+			long start = System.nanoTime();
+			long size = saveText(variable, fileName, saveSimplified);
+			long duration = Math.max(System.nanoTime() - start, 1);
+			output.printf("Variable saved to %s, writing %d bytes in %d ms (%.1f MB/s).\n",fileName,size,TimeUnit.NANOSECONDS.toMillis(duration),size * 1e3 / duration);
 		} catch(IOException e){
-			try{
-				if(fileWriter != null) fileWriter.close();
-			} catch(IOException e2){
-				throw new EvaluationException(String.format("Unable to close the file writer."),e2);
+			throw new EvaluationException(String.format("Could not evaluate, since: %s",e.getMessage()),e);
+		}
+		return VoidValue.VOID;
+	}
+
+	/**
+	 * Writes a variable as text to a temporary file next to the given file, which replaces the given file once it was completely written and forced to the disk.
+	 * A crash while saving therefore leaves either the old or the new file, but never a partially written one.
+	 * The text is written through a large buffer, and is compressed with gzip if the file has the extension ".gz", e.g. "campaign.dat.gz".
+	 * @return The size of the written file in bytes.
+	 */
+	private long saveText(Value variable, String fileName, boolean saveSimplified) throws IOException {
+		java.nio.file.Path file = Paths.get(fileName);
+		java.nio.file.Path temporaryFile = Paths.get(String.format("%s.%s", fileName, TEMPORARY_FILE_EXTENSION));
+		try{
+			try(FileOutputStream fileOutput = new FileOutputStream(temporaryFile.toFile())){
+				OutputStream stream = getExtension(fileName).equalsIgnoreCase(COMPRESSED_FILE_EXTENSION) ? new GZIPOutputStream(fileOutput, BUFFER_SIZE) : fileOutput;
+				try(Writer writer = new BufferedWriter(new OutputStreamWriter(stream), BUFFER_SIZE)){
+					writeValue(variable,writer,0,saveSimplified);
+					writer.flush();
+					if(stream instanceof GZIPOutputStream) ((GZIPOutputStream) stream).finish();
+					fileOutput.getFD().sync();
+				}
 			}
+			Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally{
+			Files.deleteIfExists(temporaryFile);
+		}
+		return Files.size(file);
+	}
+
+	private void saveSnapshot(Value variable, String fileName, boolean saveSimplified) throws EvaluationException {
+		try{
+			BinarySnapshot.write(variable, fileName, saveSimplified);
+		} catch(IOException e){
+			throw new EvaluationException(String.format("Could not evaluate, since: %s",e.getMessage()),e);
+		}
+	}
+
+	private SplitSnapshot saveSplitSnapshot(Value variable, String fileName, int depth, boolean saveSimplified) throws EvaluationException {
+		try{
+			SplitSnapshot result = new SplitSnapshot(fileName, depth, saveSimplified);
+			result.write(variable);
+			return result;
+		} catch(IOException e){
 			throw new EvaluationException(String.format("Could not evaluate, since: %s",e.getMessage()),e);
 		}
-		return new VoidValue();
+	}
+
+	private int getDepth(Value value) throws EvaluationException {
+		if(value instanceof IntValue && ((IntValue) value).getLong() >= 1 && ((IntValue) value).getLong() <= Integer.MAX_VALUE) return (int) ((IntValue) value).getLong();
+		throw new EvaluationException(String.format("The depth of the parts should be a positive integer, not %s.",value));
 	}
 
 	private Value getVariable(Value value, DataContainer environment) throws EvaluationException {
@@ -75,35 +146,41 @@ public class SaveCommand extends CommandValue {
 		return j != -1 && k > 1 && k <= MAX_EXTENSION_SIZE + 1;
 	}
 
-	private void writeValue(Value value,FileWriter fileWriter,int level) throws IOException{
-		if(value instanceof DataContainer) writeDataContainer((DataContainer) value, fileWriter, level);
-		else writeNormalValue(value, fileWriter);
+	private String getExtension(String s){
+		int j = s.lastIndexOf(".");
+		return s.substring(j+1);
+	}
+
+	private void writeValue(Value value,Writer writer,int level,boolean saveSimplified) throws IOException{
+		if(value instanceof DataContainer) writeDataContainer((DataContainer) value, writer, level, saveSimplified);
+		else writeNormalValue(value, writer, saveSimplified);
 	}
 	
-	private void writeDataContainer(DataContainer dataContainer, FileWriter fileWriter, int level) throws IOException{
-		fileWriter.append("{\n");
+	private void writeDataContainer(DataContainer dataContainer, Writer writer, int level, boolean saveSimplified) throws IOException{
+		writer.append("{\n");
 		Iterator<DataPair> iterator = dataContainer.iterator();
 		while(iterator.hasNext()){
-			writeDataPair(iterator.next(),fileWriter,level + 1);
-			fileWriter.append(iterator.hasNext() ? " ,\n" : " }");
+			writeDataPair(iterator.next(),writer,level + 1,saveSimplified);
+			writer.append(iterator.hasNext() ? " ,\n" : " }");
 		}
 	}
 	
-	private void writeDataPair(DataPair data, FileWriter fileWriter, int level) throws IOException{
+	private void writeDataPair(DataPair data, Writer writer, int level, boolean saveSimplified) throws IOException{
 		if(!(data instanceof Command)){
-			indentLevel(fileWriter,level);
-			fileWriter.append(data.getName()).append(" = ");
-			writeValue(data.getValue(),fileWriter,level);
+			indentLevel(writer,level);
+			writer.append(data.getName()).append(" = ");
+			writeValue(data.getValue(),writer,level,saveSimplified);
 		}
 	}
 	
-	private void writeNormalValue(Value value, FileWriter fileWriter) throws IOException{
-		fileWriter.append(value.toString());
+	private void writeNormalValue(Value value, Writer writer, boolean saveSimplified) throws IOException{
+		if(saveSimplified && value instanceof SimplifiedValue) value = ((SimplifiedValue) value).getSimplifiedValue();
+		writer.append(value.toString());
 	}
 	
-	private void indentLevel(FileWriter fileWriter,int level) throws IOException{
+	private void indentLevel(Writer writer,int level) throws IOException{
 		for(int i = 0; i < level; i++){
-			fileWriter.append(TAB);
+			writer.append(TAB);
 		}
 	}
 
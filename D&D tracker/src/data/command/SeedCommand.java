@@ -0,0 +1,43 @@
+package data.command;
+
+import java.io.PrintStream;
+
+import data.DataContainer;
+import data.EvaluationException;
+import data.IntValue;
+import data.PrimitiveValue;
+import data.RandomSource;
+import data.Value;
+import data.VoidValue;
+
+/**
+ * A command that seeds all random numbers, such that the same dice rolls are made in the same order afterwards, see RandomSource.
+ */
+public class SeedCommand extends CommandValue {
+	public static String COMMAND_WORD = "seed";
+	public static String USAGE_DESCRIPTION = "seed [number]";
+
+	@Override
+	public Value copy() {
+		return new SeedCommand();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(args.length == 0){
+			RandomSource.unseed();
+			output.printf("Dice rolls are no longer seeded.\n");
+			return VoidValue.VOID;
+		}
+		Value seed = args[0].evaluate(environment, Value.NO_ARGUMENTS, output);
+		if(!(seed instanceof IntValue)) throw new EvaluationException(String.format("The seed should be an integer, not %s.",seed));
+		RandomSource.seed(((IntValue) seed).getLong());
+		output.printf("Dice rolls are seeded with %d.\n", ((IntValue) seed).getLong());
+		return VoidValue.VOID;
+	}
+
+	@Override
+	public String getDefaultName() {
+		return COMMAND_WORD;
+	}
+}
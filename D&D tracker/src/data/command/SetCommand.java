@@ -29,9 +29,9 @@ public class SetCommand extends CommandValue{
 		if(args.length < 2) throw new EvaluationException(String.format("The set command needs at least two argument: %s",USAGE_DESCRIPTION));
 		try{
 			Path path = Path.convertToPath(args[0], environment.getPath());
-			path.setValue(args[1],args.length >= 3 ? args[3].evaluate(environment, new Value[0], output).getBool() : true);
+			path.setValue(args[1],args.length >= 3 ? args[3].evaluate(environment, Value.NO_ARGUMENTS, output).getBool() : true);
 			output.printf("Value of \'%s\' set to \'%s\'.\n", path.toString(), args[1].toString());
-			return new VoidValue();
+			return VoidValue.VOID;
 		} catch(DataException|PathException e){
 			throw new EvaluationException(String.format("Can not evaluate, since: %s",e.getMessage()),e);
 		}
@@ -0,0 +1,71 @@
+package data.command;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import data.DataContainer;
+import data.EvaluationException;
+import data.IntValue;
+import data.PrimitiveValue;
+import data.Simulation;
+import data.Value;
+import data.VoidValue;
+
+/**
+ * A command that evaluates a value many times in parallel and prints statistics of the results, see Simulation.
+ */
+public class SimulateCommand extends CommandValue {
+	public static String COMMAND_WORD = "simulate";
+	public static String USAGE_DESCRIPTION = "simulate <value> <number of trials>";
+
+	private static final int MAX_BARS = 40;
+	private static final int BAR_WIDTH = 50;
+
+	@Override
+	public Value copy() {
+		return new SimulateCommand();
+	}
+
+	@Override
+	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
+		if(args.length < 2) throw new EvaluationException(String.format("The command \'simulate\' needs two arguments to work: %s",USAGE_DESCRIPTION));
+		long numberOfTrials = getNumberOfTrials(args[1].evaluate(environment, Value.NO_ARGUMENTS, output));
+		long start = System.nanoTime();
+		Simulation simulation = Simulation.run(args[0], environment, numberOfTrials, ForkJoinPool.commonPool());
+		long duration = System.nanoTime() - start;
+		output.printf("Simulated %s %d times in %d ms:\n", args[0], numberOfTrials, TimeUnit.NANOSECONDS.toMillis(duration));
+		output.printf("Mean %.3f, standard deviation %.3f, results from %d to %d.\n", simulation.getMean(), simulation.getStandardDeviation(), simulation.getMinimum(), simulation.getMaximum());
+		printHistogram(simulation, output);
+		return VoidValue.VOID;
+	}
+
+	private long getNumberOfTrials(Value value) throws EvaluationException {
+		if(value instanceof IntValue && ((IntValue) value).getLong() > 0) return ((IntValue) value).getLong();
+		throw new EvaluationException(String.format("The number of trials should be a positive integer, not %s.",value));
+	}
+
+	/**
+	 * Prints how often each result occurred, where results are grouped into at most MAX_BARS ranges of equal width.
+	 */
+	private void printHistogram(Simulation simulation, PrintStream output) {
+		long width = (simulation.getMaximum() - simulation.getMinimum()) / MAX_BARS + 1;
+		long[] counts = new long[(int) ((simulation.getMaximum() - simulation.getMinimum()) / width + 1)];
+		for(Map.Entry<Long,Long> count : simulation.getCounts().entrySet()) counts[(int) ((count.getKey() - simulation.getMinimum()) / width)] += count.getValue();
+		long highestCount = 0;
+		for(long count : counts) highestCount = Math.max(highestCount, count);
+		for(int i = 0; i < counts.length; i++){
+			long from = simulation.getMinimum() + i * width;
+			String range = width == 1 ? String.valueOf(from) : String.format("%d to %d", from, from + width - 1);
+			StringBuilder bar = new StringBuilder();
+			for(long j = counts[i] * BAR_WIDTH / highestCount; j > 0; j--) bar.append('#');
+			output.printf("%s: %.2f%% %s\n", range, counts[i] * 100.0 / simulation.getNumberOfTrials(), bar.toString());
+		}
+	}
+
+	@Override
+	public String getDefaultName() {
+		return COMMAND_WORD;
+	}
+}
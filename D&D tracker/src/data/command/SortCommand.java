@@ -43,7 +43,7 @@ public class SortCommand extends CommandValue {
 		exportData(collectionToSort,dataToSort);
 		if(subPath.depth() > 0) output.printf("Collection \'%s\' sorted by \'%s\'.\n", collectionToSort.getPath().toString(), subPath.toString());
 		else output.printf("Collection \'%s\' sorted.\n", collectionToSort.getPath().toString());
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	private void exportData(DataContainer collection, List<DataPair> data) throws EvaluationException {
@@ -56,14 +56,12 @@ public class SortCommand extends CommandValue {
 	}
 
 	private DataPair createOrGetDataPair(DataContainer collection, String name) throws EvaluationException {
+		DataPair result = collection.findData(name);
+		if(result != null) return result;
 		try{
-			return collection.getData(name);
+			return collection.addData(name, VoidValue.VOID);
 		} catch(DataException e){
-			try{
-				return collection.addData(name, new VoidValue());
-			} catch(DataException e1){
-				throw new EvaluationException(String.format("Can not evaluate, since: %s", e1.getMessage()),e1);
-			}
+			throw new EvaluationException(String.format("Can not evaluate, since: %s", e.getMessage()),e);
 		}
 	}
 
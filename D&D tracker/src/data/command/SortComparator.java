@@ -2,7 +2,6 @@ package data.command;
 
 import java.util.Comparator;
 
-import data.DataException;
 import data.DataPair;
 import data.Path;
 import data.Value;
@@ -25,11 +24,8 @@ public class SortComparator implements Comparator<DataPair> {
 	}
 
 	private Value getCorrespondingValue(Path path) {
-		try{
-			return path.getLowestValue();
-		} catch(DataException e){
-			return new VoidValue();
-		}
+		Value result = path.findLowestValue();
+		return result == null ? VoidValue.VOID : result;
 	}
 
 }
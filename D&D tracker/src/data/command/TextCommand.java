@@ -5,6 +5,7 @@ import java.io.PrintStream;
 import data.DataContainer;
 import data.EvaluationException;
 import data.PrimitiveValue;
+import data.Purity;
 import data.TextValue;
 import data.Value;
 
@@ -32,4 +33,9 @@ public class TextCommand extends CommandValue{
 	public String getDefaultName() {
 		return COMMAND_WORD;
 	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
+	}
 }
@@ -5,6 +5,7 @@ import java.io.PrintStream;
 import data.DataContainer;
 import data.EvaluationException;
 import data.PrimitiveValue;
+import data.Purity;
 import data.Value;
 import data.VoidValue;
 
@@ -19,12 +20,17 @@ public class VoidCommand extends CommandValue {
 
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
-		for(int i = 0; i < args.length ; i++) args[i].evaluate(environment,new Value[0],output);
-		return new VoidValue();
+		for(int i = 0; i < args.length ; i++) args[i].evaluate(environment,Value.NO_ARGUMENTS,output);
+		return VoidValue.VOID;
 	}
 
 	@Override
 	public String getDefaultName() {
 		return COMMAND_WORD;
 	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
+	}
 }
@@ -6,6 +6,7 @@ import data.BooleanValue;
 import data.DataContainer;
 import data.EvaluationException;
 import data.PrimitiveValue;
+import data.Purity;
 import data.Value;
 import data.VoidValue;
 
@@ -22,23 +23,28 @@ public class WhileCommand extends CommandValue {
 	@Override
 	public PrimitiveValue evaluate(DataContainer environment, Value[] args, PrintStream output) throws EvaluationException {
 		if(args.length < 2) throw new EvaluationException(String.format("The \'while\' command needs at least two arguments: %s",USAGE_DESCRIPTION));
-		PrimitiveValue condition = args[0].evaluate(environment, new Value[0], output);
+		PrimitiveValue condition = args[0].evaluate(environment, Value.NO_ARGUMENTS, output);
 		int count = 0;
 		while(!isFalse(condition)){
-			args[1].evaluate(environment, new Value[0], output);
-			condition = args[0].evaluate(environment, new Value[0], output);
+			args[1].evaluate(environment, Value.NO_ARGUMENTS, output);
+			condition = args[0].evaluate(environment, Value.NO_ARGUMENTS, output);
 			count += 1;
 			if(count > MAXIMAL_LOOP_SIZE) throw new EvaluationException(String.format("Reached maximal number of loops (%d).",MAXIMAL_LOOP_SIZE));
 		} 
-		return new VoidValue();
+		return VoidValue.VOID;
 	}
 
 	private boolean isFalse(PrimitiveValue condition) {
-		return condition instanceof VoidValue || (condition instanceof BooleanValue && condition.equals(new BooleanValue(false)));
+		return condition instanceof VoidValue || (condition instanceof BooleanValue && condition.equals(BooleanValue.FALSE));
 	}
 
 	@Override
 	public String getDefaultName() {
 		return COMMAND_WORD;
 	}
+
+	@Override
+	public int getPurity() {
+		return Purity.PURE;
+	}
 }
@@ -0,0 +1,157 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import data.DataContainer;
+import data.DataException;
+import data.Value;
+
+/**
+ * A class that reads a DataContainer whose variables are read in parallel, which is useful for large files with many independent variables.
+ * The characters are first scanned once for the commas that separate the variables of the DataContainer, skipping text and anything between brackets.
+ * The variables are then read on a ForkJoinPool and added to the DataContainer in their original order.
+ * If any variable can not be read in this way, the whole DataContainer is read again by ValueReader.readDataContainer,
+ * such that exactly the same DataContainer or error is obtained as when it is read normally.
+ */
+public class ParallelDataContainerReader {
+	private static final int ENTRIES_PER_TASK = 64;
+
+	private final ValueReader valueReader;
+	private final ForkJoinPool pool;
+
+	/**
+	 * Initializes this ParallelDataContainerReader object.
+	 * @param valueReader The ValueReader object that is used to read the variables.
+	 * @param pool The ForkJoinPool on which the variables are read.
+	 */
+	public ParallelDataContainerReader(ValueReader valueReader, ForkJoinPool pool){
+		this.valueReader = valueReader;
+		this.pool = pool;
+	}
+
+	/**
+	 * Reads a DataContainer and adds its variables to a given DataContainer object.
+	 * @param input The characters from which the DataContainer is read.
+	 * @param start The index from which the DataContainer is read, which may be followed by whitespace before the character '{'.
+	 * @param result The DataContainer object to which the variables that are read are added.
+	 * @return The index directly after the DataContainer that was read.
+	 * @throws ReadingException If no DataContainer could be read, or if one of its variables could not be added.
+	 */
+	public int readDataContainer(CharSequence input, int start, DataContainer result) throws ReadingException {
+		ValueLexer lexer = new ValueLexer(input, start, input.length());
+		lexer.skipWhitespace();
+		List<Integer> separators = findSeparators(input, lexer.getPosition());
+		if(separators != null){
+			int entries = separators.size() - 1;
+			if(entries == 1 && !new ValueLexer(input, separators.get(0) + 1, separators.get(1)).hasNext()) entries = 0;
+			String[] names = new String[entries];
+			Value[] values = new Value[entries];
+			EntryReadingTask task = new EntryReadingTask(input, separators, names, values, 0, entries);
+			pool.invoke(task);
+			if(!task.failed){
+				for(int i = 0; i < entries; i++){
+					try {
+						result.addData(names[i], values[i]);
+					} catch (DataException e) {
+						throw new ReadingException(String.format("Can not read variable \'%s\', since: %s",names[i],e.getMessage()),e);
+					}
+				}
+				return separators.get(entries == 0 ? 1 : entries) + 1;
+			}
+		}
+		valueReader.readDataContainer(lexer, result);
+		return lexer.getPosition();
+	}
+
+	/**
+	 * Finds the separators of the variables in a DataContainer.
+	 * @param input The characters from which the DataContainer is read.
+	 * @param start The index of the character '{' that starts the DataContainer.
+	 * @return The indices of the character '{', of each comma that separates two variables and of the matching character '}',
+	 * or null if the brackets are not balanced.
+	 */
+	private static List<Integer> findSeparators(CharSequence input, int start){
+		if(start >= input.length() || input.charAt(start) != '{') return null;
+		List<Integer> result = new ArrayList<Integer>();
+		result.add(start);
+		int depth = 0;
+		for(int i = start; i < input.length(); i++){
+			char c = input.charAt(i);
+			if(c == '\"'){
+				for(i++; i < input.length() && input.charAt(i) != '\"'; i++){
+					if(input.charAt(i) == '\\') i++;
+				}
+			} else if(c == '{' || c == '(' || c == '[' || c == '<'){
+				depth += 1;
+			} else if(c == '}' || c == ')' || c == ']' || c == '>'){
+				depth -= 1;
+				if(depth <= 0){
+					if(depth < 0 || c != '}') return null;
+					result.add(i);
+					return result;
+				}
+			} else if(c == ',' && depth == 1){
+				result.add(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * A task that reads the variables between a range of separators, splitting itself into smaller tasks if there are many.
+	 */
+	private class EntryReadingTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final CharSequence input;
+		private final List<Integer> separators;
+		private final String[] names;
+		private final Value[] values;
+		private final int from;
+		private final int to;
+		private boolean failed;
+
+		private EntryReadingTask(CharSequence input, List<Integer> separators, String[] names, Value[] values, int from, int to){
+			this.input = input;
+			this.separators = separators;
+			this.names = names;
+			this.values = values;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute(){
+			if(to - from > ENTRIES_PER_TASK){
+				int middle = (from + to) / 2;
+				EntryReadingTask first = new EntryReadingTask(input, separators, names, values, from, middle);
+				EntryReadingTask second = new EntryReadingTask(input, separators, names, values, middle, to);
+				invokeAll(first, second);
+				failed = first.failed || second.failed;
+				return;
+			}
+			for(int i = from; i < to && !failed; i++) failed = !readEntry(i);
+		}
+
+		/**
+		 * Reads a single variable. The ValueLexer is not bounded by the separator after the variable,
+		 * since ValueReader may look at the character after a value to decide what it has read.
+		 * @param i The index of the variable.
+		 * @return TRUE if the variable was read and ends exactly at its separator, FALSE otherwise.
+		 */
+		private boolean readEntry(int i){
+			ValueLexer lexer = new ValueLexer(input, separators.get(i) + 1, input.length());
+			try{
+				names[i] = valueReader.readNameString(lexer);
+				valueReader.readCharacter(lexer, '=');
+				values[i] = valueReader.readValue(lexer);
+			} catch(ReadingException e){
+				return false;
+			}
+			lexer.skipWhitespace();
+			return lexer.getPosition() == separators.get(i + 1);
+		}
+	}
+}
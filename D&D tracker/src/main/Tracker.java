@@ -9,26 +9,35 @@ import java.util.Scanner;
 
 import data.DataContainer;
 import data.EvaluationException;
+import data.Journal;
 import data.TextValue;
 import data.Value;
+import data.ValueSimplifier;
 import data.VoidValue;
+import data.command.AutosaveCommand;
+import data.command.CheckpointCommand;
 import data.command.ClearCommand;
 import data.command.Command;
 import data.command.CommandValue;
 import data.command.CopyCommand;
 import data.command.CreateCommand;
+import data.command.DistributionCommand;
 import data.command.EnvironmentCommand;
 import data.command.ForCommand;
 import data.command.IfCommand;
+import data.command.JournalCommand;
 import data.command.ListCommand;
 import data.command.LoadCommand;
 import data.command.MoveCommand;
 import data.command.PrintCommand;
+import data.command.QuietCommand;
 import data.command.QuitCommand;
 import data.command.RemoveCommand;
 import data.command.RunCommand;
 import data.command.SaveCommand;
+import data.command.SeedCommand;
 import data.command.SetCommand;
+import data.command.SimulateCommand;
 import data.command.SortCommand;
 import data.command.TextCommand;
 import data.command.VoidCommand;
@@ -54,29 +63,38 @@ public class Tracker {
 	}
 
 	public boolean dispatchLine(String line, PrintStream output){
-		Scanner lineScanner = new Scanner(line);
-		lineScanner.useDelimiter("\\s*");
+		ValueLexer lineLexer = new ValueLexer(line);
 		ValueReader valueReader = new ValueReader();
-		if(lineScanner.hasNext()){
+		if(lineLexer.hasNext()){
 			try{
-				Value value = valueReader.readValue(lineScanner).getPreEvaluation(currentContainer,  new Value[0], output);
+				Value value = ValueSimplifier.simplify(valueReader.readValue(lineLexer).getPreEvaluation(currentContainer,  Value.NO_ARGUMENTS, output));
 				List<Value> args = new ArrayList<Value>();
-				while(lineScanner.hasNext()){
-					if(lineScanner.hasNext("\\,")) valueReader.readCharacter(lineScanner,',');
-					args.add(valueReader.readValue(lineScanner).getPreEvaluation(currentContainer, new Value[0], output));
+				while(lineLexer.hasNext()){
+					if(lineLexer.nextIs(',')) valueReader.readCharacter(lineLexer,',');
+					args.add(ValueSimplifier.simplify(valueReader.readValue(lineLexer).getPreEvaluation(currentContainer, Value.NO_ARGUMENTS, output)));
 				}
 				value = value.evaluate(currentContainer, args.toArray(new Value[args.size()]), output);
 				printValue(value,output);
 			} catch(ReadingException|EvaluationException e){
 				output.printf("Error: %s\n", e.getMessage());
 			}
-			lineScanner.close();
+			commitJournal(output);
 			return true;
 		}
-		lineScanner.close();
 		return false;
 	}
 
+	private void commitJournal(PrintStream output) {
+		Journal journal = Journal.getActive();
+		if(journal == null) return;
+		try{
+			journal.commit();
+		} catch(IOException e){
+			journal.discard();
+			output.printf("Error: Changes are no longer recorded in the journal, since: %s\n", e.getMessage());
+		}
+	}
+
 	private void printValue(Value value, PrintStream output) {
 		if(value instanceof TextValue) printTextValue((TextValue) value,output);
 		else if(value instanceof VoidValue) return;
@@ -142,6 +160,13 @@ public class Tracker {
 		loadCommand(new RunCommand(),output);
 		loadCommand(new WhileCommand(),output);
 		loadCommand(new ForCommand(),output);
+		loadCommand(new JournalCommand(),output);
+		loadCommand(new CheckpointCommand(),output);
+		loadCommand(new AutosaveCommand(),output);
+		loadCommand(new SeedCommand(),output);
+		loadCommand(new DistributionCommand(),output);
+		loadCommand(new SimulateCommand(),output);
+		loadCommand(new QuietCommand(),output);
 	}
 	
 	private void loadCommand(CommandValue value, PrintStream output){
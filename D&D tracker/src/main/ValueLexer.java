@@ -0,0 +1,221 @@
+package main;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * A class that splits a sequence of characters into the parts read by ValueReader, such as single characters, names and digits.
+ * The parts are read on demand rather than all at once, since their meaning depends on what ValueReader is reading:
+ * a '(' or '.' directly after a term means something else than one after whitespace,
+ * and a 'd' after a number starts a dice roll rather than a name.
+ * Whitespace consists of the characters ' ', '\t', '\n', '\u000B', '\f' and '\r'.
+ */
+public class ValueLexer {
+	private CharSequence input;
+	private int end;
+	private int position;
+	private final Reader reader;
+	private char[] chunk;
+	private int offset;
+
+	/**
+	 * Initializes this ValueLexer object to read a whole sequence of characters.
+	 * @param input The characters to be read.
+	 */
+	public ValueLexer(CharSequence input){
+		this(input, 0, input.length());
+	}
+
+	/**
+	 * Initializes this ValueLexer object to read a part of a sequence of characters.
+	 * @param input The characters to be read.
+	 * @param start The index of the first character to be read.
+	 * @param end The index after the last character to be read.
+	 */
+	public ValueLexer(CharSequence input, int start, int end){
+		this.input = input;
+		this.position = start;
+		this.end = end;
+		this.reader = null;
+	}
+
+	/**
+	 * Initializes this ValueLexer object to read all characters from a Reader object.
+	 * The characters are read in chunks of the given size when they are needed and forgotten once they have been read,
+	 * such that only the characters of the part that is currently being read are kept in memory.
+	 * @param reader The Reader object from which characters will be read.
+	 * @param chunkSize The number of characters that is read from the Reader object at once.
+	 */
+	public ValueLexer(Reader reader, int chunkSize){
+		this.reader = reader;
+		this.chunk = new char[chunkSize];
+		this.input = CharBuffer.wrap(chunk);
+		this.position = 0;
+		this.end = 0;
+	}
+
+	/**
+	 * @return The index of the next character that will be read.
+	 */
+	public int getPosition(){
+		return offset + position;
+	}
+
+	/**
+	 * Checks whether there is a character at a given index, reading the next chunk from the Reader object if necessary.
+	 * The characters before the current position are forgotten when a chunk is read, since they are never looked at again.
+	 * @param index An index that is at least the current position.
+	 * @return TRUE if there is a character at the given index, FALSE otherwise.
+	 * @throws UncheckedIOException If reading from the Reader object failed.
+	 */
+	private boolean isAvailable(int index){
+		if(index < end) return true;
+		if(reader == null) return false;
+		try{
+			while(index >= end){
+				if(position > 0){
+					System.arraycopy(chunk, position, chunk, 0, end - position);
+					offset += position;
+					index -= position;
+					end -= position;
+					position = 0;
+				}
+				if(end == chunk.length){
+					chunk = Arrays.copyOf(chunk, 2 * chunk.length);
+					input = CharBuffer.wrap(chunk);
+				}
+				int read = reader.read(chunk, end, chunk.length - end);
+				if(read == -1) return false;
+				end += read;
+			}
+			return true;
+		} catch(IOException e){
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	/**
+	 * Skips all whitespace directly ahead.
+	 */
+	public void skipWhitespace(){
+		while(isAvailable(position) && isWhitespace(input.charAt(position))) position++;
+	}
+
+	/**
+	 * @return TRUE if a character other than whitespace is ahead, FALSE otherwise.
+	 */
+	public boolean hasNext(){
+		skipWhitespace();
+		return isAvailable(position);
+	}
+
+	/**
+	 * @return TRUE if any character is ahead, including whitespace, FALSE otherwise.
+	 */
+	public boolean hasNextCharacter(){
+		return isAvailable(position);
+	}
+
+	/**
+	 * Checks whether the next character after whitespace is a given character, without reading it.
+	 * @param c A character.
+	 * @return TRUE if the first character ahead that is not whitespace is c, FALSE otherwise.
+	 */
+	public boolean nextIs(char c){
+		return hasNext() && input.charAt(position) == c;
+	}
+
+	/**
+	 * Checks whether the next character after whitespace is one of the given characters, without reading it.
+	 * @param characters A String containing the characters to check for.
+	 * @return TRUE if the first character ahead that is not whitespace is in the given String, FALSE otherwise.
+	 */
+	public boolean nextIsOneOf(String characters){
+		return hasNext() && characters.indexOf(input.charAt(position)) >= 0;
+	}
+
+	/**
+	 * Checks whether the character directly ahead is a given character, without skipping whitespace.
+	 * @param c A character.
+	 * @return TRUE if the character directly ahead is c, FALSE otherwise.
+	 */
+	public boolean directlyFollowedBy(char c){
+		return isAvailable(position) && input.charAt(position) == c;
+	}
+
+	/**
+	 * @return TRUE if the character directly ahead is whitespace, FALSE otherwise.
+	 */
+	public boolean directlyFollowedByWhitespace(){
+		return isAvailable(position) && isWhitespace(input.charAt(position));
+	}
+
+	/**
+	 * @return TRUE if the character directly ahead is whitespace or if no character is ahead, FALSE otherwise.
+	 */
+	public boolean directlyFollowedByWhitespaceOrEnd(){
+		return !isAvailable(position) || isWhitespace(input.charAt(position));
+	}
+
+	/**
+	 * @return TRUE if the character directly ahead is a digit, FALSE otherwise.
+	 */
+	public boolean directlyFollowedByDigit(){
+		return isAvailable(position) && isDigit(input.charAt(position));
+	}
+
+	/**
+	 * @return TRUE if the character directly ahead is a letter or a digit, FALSE otherwise.
+	 */
+	public boolean directlyFollowedByAlphaNumericalCharacter(){
+		return isAvailable(position) && isAlphaNumericalCharacter(input.charAt(position));
+	}
+
+	/**
+	 * Gives the next character that is not whitespace, without reading it.
+	 * This should only be called if hasNext is TRUE.
+	 * @return The first character ahead that is not whitespace.
+	 */
+	public char peek(){
+		skipWhitespace();
+		return input.charAt(position);
+	}
+
+	/**
+	 * Reads the character directly ahead, without skipping whitespace.
+	 * This should only be called if hasNextCharacter is TRUE.
+	 * @return The character that was read.
+	 */
+	public char nextCharacter(){
+		return input.charAt(position++);
+	}
+
+	/**
+	 * Gives the rest of the current line, without reading it.
+	 * @return The characters from the current position until the next line break or the end of the input.
+	 */
+	public String restOfLine(){
+		int length = 0;
+		while(isAvailable(position + length) && input.charAt(position + length) != '\n' && input.charAt(position + length) != '\r') length++;
+		return input.subSequence(position, position + length).toString();
+	}
+
+	public static boolean isWhitespace(char c){
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	public static boolean isDigit(char c){
+		return c >= '0' && c <= '9';
+	}
+
+	public static boolean isLetter(char c){
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	public static boolean isAlphaNumericalCharacter(char c){
+		return isLetter(c) || isDigit(c);
+	}
+}
@@ -2,8 +2,6 @@ package main;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Scanner;
-import java.util.regex.Pattern;
 
 import data.ArgumentValue;
 import data.BooleanValue;
@@ -28,82 +26,71 @@ import data.Value;
 import data.VoidValue;
 
 /**
- * A class that gives the basic implementation of reading Values from Scanner and String objects.
+ * A class that gives the basic implementation of reading Values from ValueLexer and String objects.
+ * Values are read by recursive descent, where each method reads one rule of the grammar directly from the characters of the ValueLexer.
  */
 public class ValueReader {
-	private static final char[] DICE_CHARACTERS = {'D','d'};
-	private static final char[] DICE_LOW_CHARACTERS = {'L','l'};
-	private static final char[] DICE_HIGH_CHARACTERS = {'H','h'};
+	private static final String DICE_CHARACTERS = "Dd";
+	private static final String DICE_LOW_CHARACTERS = "Ll";
+	private static final String DICE_HIGH_CHARACTERS = "Hh";
 
 	public ValueReader(){
 	}
 
 	public Value readValue(String string) throws ReadingException {
-		Scanner scanner = new Scanner(string);
-		Value result = readValue(scanner);
-		scanner.close();
-		return result;
+		return readValue(new ValueLexer(string));
 	}
 
-	public Value readValue(Scanner input) throws ReadingException {
-		Pattern originalDelimiter = input.delimiter();
-		input.useDelimiter("\\s*");
-		Value result = readPossibleEquality(input);
-		input.useDelimiter(originalDelimiter);
-		return result;
+	public Value readValue(ValueLexer input) throws ReadingException {
+		return readPossibleEquality(input);
 	}
 	
-	public Value readPossibleEquality(Scanner input) throws ReadingException {
+	public Value readPossibleEquality(ValueLexer input) throws ReadingException {
 		Value result = readSum(input);
-		if(input.hasNext("\\=")){
+		if(input.nextIs('=')){
 			readCharacter(input, '=');
 			return new ComparisonValue(result,readSum(input));
 		}
 		return result;
 	}
 
-	public Value readSum(Scanner input) throws ReadingException {
+	public Value readSum(ValueLexer input) throws ReadingException {
 		Value result = readProduct(input);
-		while(input.hasNext("[\\+\\-]")){
-			if(input.hasNext("\\+")){
+		while(input.nextIsOneOf("+-")){
+			if(input.nextIs('+')){
 				readCharacter(input,'+');
 				result = new SumValue(result,readProduct(input));
-			}
-			else if(input.hasNext("\\-")) {
+			} else {
 				readCharacter(input,'-');
 				result = new SubtractionValue(result,readProduct(input));
-			} else{
-				throw new ReadingException("Attempting to read \'+\' or \'-\', but found nothing.");
 			}
 		}
 		return result;
 	}
 
-	public Value readProduct(Scanner input) throws ReadingException {
+	public Value readProduct(ValueLexer input) throws ReadingException {
 		Value result = readPossibleDice(input);
-		while(input.hasNext("[\\*\\/]")){
-			if(input.hasNext("\\*")){
+		while(input.nextIsOneOf("*/")){
+			if(input.nextIs('*')){
 				readCharacter(input,'*');
 				result = new ProductValue(result,readPossibleDice(input));
-			} else if(input.hasNext("\\/")) {
+			} else {
 				readCharacter(input,'/');
 				result = new DivisionValue(result,readPossibleDice(input));
-			} else{
-				throw new ReadingException("Attempting to read \'*\' or \'/\', but found nothing.");
 			}
 		}
 		return result;
 	}
 
-	public Value readPossibleDice(Scanner input) throws ReadingException {
+	public Value readPossibleDice(ValueLexer input) throws ReadingException {
 		Value amount = readSubValueTree(input);
-		if(input.hasNext("[Dd]")){
+		if(input.nextIsOneOf(DICE_CHARACTERS)){
 			readOneOfCharacters(input,DICE_CHARACTERS);
 			Value size = readSubValueTree(input);
-			if(input.hasNext("[Ll]")){
+			if(input.nextIsOneOf(DICE_LOW_CHARACTERS)){
 				readOneOfCharacters(input,DICE_LOW_CHARACTERS);
 				return new DiceValue(amount,size,readSubValueTree(input),true);
-			} else if(input.hasNext("[Hh]")){
+			} else if(input.nextIsOneOf(DICE_HIGH_CHARACTERS)){
 				readOneOfCharacters(input,DICE_HIGH_CHARACTERS);
 				return new DiceValue(amount,size,readSubValueTree(input),false);
 			} else return new DiceValue(amount, size);
@@ -111,95 +98,91 @@ public class ValueReader {
 		return amount;
 	}
 
-	private Value readSubValueTree(Scanner input) throws ReadingException {
+	private Value readSubValueTree(ValueLexer input) throws ReadingException {
 		Value result;
-		boolean isGlobal = false;
-		input.skip("\\s*");
-		if(input.hasNext("\\:")) isGlobal = true;
-		if(input.hasNext("\\.")) result = new CurrentDataContainerValue();
+		input.skipWhitespace();
+		boolean isGlobal = input.directlyFollowedBy(':');
+		if(input.directlyFollowedBy('.')) result = new CurrentDataContainerValue();
 		else result = readTermWithPossibleArguments(input);
-		Pattern oldDelimiter = input.delimiter();
-		input.useDelimiter("");
-		if(isGlobal || input.hasNext("\\.")){
+		if(isGlobal || input.directlyFollowedBy('.')){
 			if(!isGlobal) readCharacter(input, '.');
 			int level = 0;
-			while(input.hasNext("\\.")){
+			while(input.directlyFollowedBy('.')){
 				readCharacter(input, '.');
 				level += 1;
 			}
-			if(input.hasNext("\\s") || !input.hasNext()){
-				input.useDelimiter(oldDelimiter);
-				return new SubVariableValue(result, level);
-			}
-			input.useDelimiter(oldDelimiter);
+			if(input.directlyFollowedByWhitespaceOrEnd()) return new SubVariableValue(result, level);
 			return new SubVariableValue(result,readSubValueTree(input),level);
 		}
-		input.useDelimiter(oldDelimiter);
 		return result;
 	}
 
-	private Value readGlobalValue(Scanner input) throws ReadingException {
+	private Value readGlobalValue(ValueLexer input) throws ReadingException {
 		readCharacter(input, ':');
 		return new GlobalValue();
 	}
 	
-	private Value readTermWithPossibleArguments(Scanner input) throws ReadingException {
+	private Value readTermWithPossibleArguments(ValueLexer input) throws ReadingException {
 		Value result = readTerm(input);
-		Pattern oldDelimiter = input.delimiter();
-		input.useDelimiter("");
-		if(input.hasNext("\\(")){
-			input.useDelimiter(oldDelimiter);
-			return readArgumentsForValue(input,result);
-		}
-		input.useDelimiter(oldDelimiter);
+		if(input.directlyFollowedBy('(')) return readArgumentsForValue(input,result);
 		return result;
 	}
 
-	private Value readTerm(Scanner input) throws ReadingException {
-		if(input.hasNext("\\(")) return readBracketTerm(input);
-		if(input.hasNext("\\[")) return readPreEvaluatedTerm(input);
-		if(input.hasNext("[0-9\\-]")) return readInteger(input);
-		if(input.hasNext("[a-zA-Z\\_]")) return readName(input);
-		if(input.hasNext("\\\"")) return readText(input);
-		if(input.hasNext("\\#")) return readArgument(input);
-		if(input.hasNext("\\$")) return readBooleanValue(input);
-		if(input.hasNext("\\{")) return readDataContainer(input);
-		if(input.hasNext("\\<")) return readInterpretedTerm(input);
-		if(input.hasNext("\\%")) return readCurrentEnvironmentTerm(input);
-		if(input.hasNext("\\:")) return readGlobalValue(input);
-		if(input.hasNext()) throw new ReadingException(String.format("Attempting to read a term at \'%s\', but no term found.", input.nextLine()));
-		throw new ReadingException("Attempting to read a term, but encountered the end of the input.");
+	private Value readTerm(ValueLexer input) throws ReadingException {
+		if(!input.hasNext()) throw new ReadingException("Attempting to read a term, but encountered the end of the input.");
+		char c = input.peek();
+		if(c == '(') return readBracketTerm(input);
+		if(c == '[') return readPreEvaluatedTerm(input);
+		if(ValueLexer.isDigit(c) || c == '-') return readInteger(input);
+		if(isLetterOrLowerDash(c)) return readName(input);
+		if(c == '\"') return readText(input);
+		if(c == '#') return readArgument(input);
+		if(c == '$') return readBooleanValue(input);
+		if(c == '{') return readDataContainer(input);
+		if(c == '<') return readInterpretedTerm(input);
+		if(c == '%') return readCurrentEnvironmentTerm(input);
+		if(c == ':') return readGlobalValue(input);
+		throw new ReadingException(String.format("Attempting to read a term at \'%s\', but no term found.", input.restOfLine()));
 	}
 
-	private Value readCurrentEnvironmentTerm(Scanner input) throws ReadingException {
+	private Value readCurrentEnvironmentTerm(ValueLexer input) throws ReadingException {
 		readCharacter(input, '%');
 		return new CurrentDataContainerValue();
 	}
 
-	private BooleanValue readBooleanValue(Scanner input) throws ReadingException {
+	private BooleanValue readBooleanValue(ValueLexer input) throws ReadingException {
 		readCharacter(input,'$');
-		Pattern oldDelimiter = input.delimiter();
-		input.useDelimiter("");
-		if(input.hasNext("\\s")) throw new ReadingException("May not contain whitespace after \'$\'.");
-		input.useDelimiter(oldDelimiter);
+		if(input.directlyFollowedByWhitespace()) throw new ReadingException("May not contain whitespace after \'$\'.");
 		String text = readNameString(input);
-		if(text.equalsIgnoreCase(BooleanValue.TRUE_TEXT)) return new BooleanValue(true);
-		if(text.equalsIgnoreCase(BooleanValue.FALSE_TEXT)) return new BooleanValue(false);
+		if(text.equalsIgnoreCase(BooleanValue.TRUE_TEXT)) return BooleanValue.TRUE;
+		if(text.equalsIgnoreCase(BooleanValue.FALSE_TEXT)) return BooleanValue.FALSE;
 		throw new ReadingException(String.format("Only \'$%s\' and \'$%s\' are allowed, not \'$%s\'.", BooleanValue.TRUE_TEXT,BooleanValue.FALSE_TEXT,text));
 	}
 
-	private InterpretedValue readInterpretedTerm(Scanner input) throws ReadingException {
+	private InterpretedValue readInterpretedTerm(ValueLexer input) throws ReadingException {
 		readCharacter(input,'<');
 		Value value = readValue(input);
 		readCharacter(input,'>');
 		return new InterpretedValue(value);
 	}
 
-	private DataContainer readDataContainer(Scanner input) throws ReadingException {
-		readCharacter(input,'{');
+	private DataContainer readDataContainer(ValueLexer input) throws ReadingException {
 		DataContainer result = new DataContainer();
+		readDataContainer(input, result);
+		return result;
+	}
+
+	/**
+	 * Reads a DataContainer, but adds its variables to a given DataContainer object.
+	 * Each variable is added as soon as it has been read, such that the characters it was read from are no longer needed while reading the next one.
+	 * @param input The ValueLexer from which the DataContainer is read.
+	 * @param result The DataContainer object to which the variables that are read are added.
+	 * @throws ReadingException If no DataContainer could be read, or if one of its variables could not be added.
+	 */
+	public void readDataContainer(ValueLexer input, DataContainer result) throws ReadingException {
+		readCharacter(input,'{');
 		int i = 0;
-		while(!input.hasNext("\\}")){
+		while(!input.nextIs('}')){
 			if(i > 0) readCharacter(input,',');
 			String name = readNameString(input);
 			readCharacter(input,'=');
@@ -211,24 +194,20 @@ public class ValueReader {
 			i += 1;
 		}
 		readCharacter(input,'}');
-		return result;
 	}
 
-	private Value readArgument(Scanner input) throws ReadingException {
-		input.useDelimiter("");
-		input.skip("\\s*");
+	private Value readArgument(ValueLexer input) throws ReadingException {
 		readCharacter(input, '#');
 		IntValue number = readInteger(input);
-		input.useDelimiter("\\s*");
 		if(number.getLong() < 1 || number.getLong() > Integer.MAX_VALUE) throw new ReadingException(String.format("The number %s is invalid as an argument number.",number.toString()));
 		return new ArgumentValue((int) number.getLong());
 	}
 
-	private Value readArgumentsForValue(Scanner input, Value value) throws ReadingException {
+	private Value readArgumentsForValue(ValueLexer input, Value value) throws ReadingException {
 		readCharacter(input,'(');
 		List<Value> args = new ArrayList<Value>();
 		int i = 0;
-		while(!input.hasNext("\\)")){
+		while(!input.nextIs(')')){
 			if(i > 0) readCharacter(input,',');
 			args.add(readValue(input));
 			i += 1;
@@ -236,59 +215,49 @@ public class ValueReader {
 		readCharacter(input,')');
 		return new CompositeValue(value,args);
 	}
-	private NamedValue readName(Scanner input) throws ReadingException {
+	private NamedValue readName(ValueLexer input) throws ReadingException {
 		return new NamedValue(readNameString(input));
 	}
 
-	private String readNameString(Scanner input) throws ReadingException {
-		Pattern oldPattern = input.delimiter();
-		input.skip("\\s*");
-		input.useDelimiter("");
+	String readNameString(ValueLexer input) throws ReadingException {
+		input.skipWhitespace();
 		StringBuilder sb = new StringBuilder ();
 		sb.append(readLetterOrLowerDash(input));
-		while(input.hasNext("[0-9a-zA-Z]")) sb.append(readAlphaNumericalCharacter(input));
-		input.useDelimiter(oldPattern);
+		while(input.directlyFollowedByAlphaNumericalCharacter()) sb.append(input.nextCharacter());
 		return sb.toString();
 	}
 
-	private Value readText(Scanner input) throws ReadingException {
-		input.skip("\\s*");
-		input.useDelimiter("");
+	private Value readText(ValueLexer input) throws ReadingException {
 		readCharacter(input,'\"');
 		StringBuilder sb = new StringBuilder();
-		while(!input.hasNext("\"")){
-			if(!input.hasNext()) break;
-			String s = input.next();
-			if(s.length() != 1) throw new ReadingException(String.format("Attempting to read a character, but read \'%s\'",s));
-			char c = s.charAt(0);
+		while(!input.directlyFollowedBy('\"')){
+			if(!input.hasNextCharacter()) break;
+			char c = input.nextCharacter();
 			if(c == '\\'){
-				if(!input.hasNext()) throw new ReadingException("Attempting to read a character, but the input ended.");
-				s = input.next();
-				if(s.length() != 1) throw new ReadingException(String.format("Attempting to read a character, but read \'%s\'",s));
-				c = s.charAt(0);
+				if(!input.hasNextCharacter()) throw new ReadingException("Attempting to read a character, but the input ended.");
+				c = input.nextCharacter();
 				if(c == 'n') c = '\n';
 			}
 			sb.append(c);
 		}
 		readCharacter(input,'\"');
-		input.useDelimiter("\\s*");
 		return new TextValue(sb.toString());
 	}
 
-	private Value readBracketTerm(Scanner input) throws ReadingException {
+	private Value readBracketTerm(ValueLexer input) throws ReadingException {
 		readCharacter(input,'(');
-		if(input.hasNext("\\)")){
+		if(input.nextIs(')')){
 			readCharacter(input,')');
-			return new VoidValue();
+			return VoidValue.VOID;
 		}
 		Value result = readValue(input);
 		readCharacter(input,')');
 		return result;
 	}
 
-	private Value readPreEvaluatedTerm(Scanner input) throws ReadingException {
+	private Value readPreEvaluatedTerm(ValueLexer input) throws ReadingException {
 		int delay = 0;
-		while(input.hasNext("\\[")){
+		while(input.nextIs('[')){
 			delay += 1;
 			readCharacter(input,'[');
 		}
@@ -297,86 +266,58 @@ public class ValueReader {
 		return new PreEvaluatedValue(unEvaluatedResult,delay);
 	}
 
-	private IntValue readInteger(Scanner input) throws ReadingException {
-		Pattern oldPattern = input.delimiter();
-		input.useDelimiter("");
-		input.skip("\\s*");
-		boolean negative = input.hasNext("\\-");
+	private IntValue readInteger(ValueLexer input) throws ReadingException {
+		input.skipWhitespace();
+		boolean negative = input.directlyFollowedBy('-');
 		if(negative) readCharacter(input, '-');
 		long resultNumber = 0;
 		try{
 			do{
 				resultNumber = Math.addExact(Math.multiplyExact(10, resultNumber),readDigit(input));
-			} while(input.hasNext("[0-9]"));
+			} while(input.directlyFollowedByDigit());
 			if(negative) resultNumber = Math.multiplyExact(-1, resultNumber);
 		} catch(ArithmeticException e){
 			throw new ReadingException("Attempting to read an integer that is too big.",e);
 		}
-		input.useDelimiter(oldPattern);
-		return new IntValue(resultNumber);
+		return IntValue.of(resultNumber);
 	}
 
-	private int readDigit(Scanner input) throws ReadingException {
-		if(!input.hasNext()) throw new ReadingException("Attempting to read a digit, but reached the end of the input.");
-		String s = input.next();
-		if(!isDigit(s)) throw new ReadingException(String.format("Attempting to read a digit, but read \'%s\'",s));
-		return (int) (s.charAt(0) - '0');
+	private int readDigit(ValueLexer input) throws ReadingException {
+		if(!input.hasNextCharacter()) throw new ReadingException("Attempting to read a digit, but reached the end of the input.");
+		char c = input.nextCharacter();
+		if(!ValueLexer.isDigit(c)) throw new ReadingException(String.format("Attempting to read a digit, but read \'%c\'",c));
+		return (int) (c - '0');
 	}
 	
-	private char readLetterOrLowerDash(Scanner input) throws ReadingException {
-		if(!input.hasNext()) throw new ReadingException("Attempting to read a letter, but reached the end of the input.");
-		String s = input.next();
-		if(!isLetterOrLowerDash(s)) throw new ReadingException(String.format("Attempting to read a letter, but read \'%s\'",s));
-		return s.charAt(0);
+	private char readLetterOrLowerDash(ValueLexer input) throws ReadingException {
+		if(!input.hasNextCharacter()) throw new ReadingException("Attempting to read a letter, but reached the end of the input.");
+		char c = input.nextCharacter();
+		if(!isLetterOrLowerDash(c)) throw new ReadingException(String.format("Attempting to read a letter, but read \'%c\'",c));
+		return c;
 	}
 	
-	private boolean isLetterOrLowerDash(String s) {
-		return isLetter(s) || isLowerDash(s);
-	}
-
-	private boolean isLowerDash(String s) {
-		return s.length() == 1 && s.charAt(0) == '_';
+	private boolean isLetterOrLowerDash(char c) {
+		return ValueLexer.isLetter(c) || c == '_';
 	}
 
-	private char readAlphaNumericalCharacter(Scanner input) throws ReadingException {
-		if(!input.hasNext()) throw new ReadingException("Attempting to read an alpha-numerical character, but reached the end of the input.");
-		String s = input.next();
-		if(!isAlphaNumericalCharacter(s)) throw new ReadingException(String.format("Attempting to read an alpha-numerical character, but read \'%s\'",s));
-		return s.charAt(0);
-	}
-	
-	private boolean isDigit(String s){
-		return s.length() == 1 && s.charAt(0) >= '0' && s.charAt(0) <= '9';
-	}
-	
-	private boolean isLetter(String s){
-		return s.length() == 1 && ((s.charAt(0) >= 'a' && s.charAt(0) <= 'z') || (s.charAt(0) >= 'A' && s.charAt(0) <= 'Z'));
-	}
-	
-	private boolean isAlphaNumericalCharacter(String s){
-		return isLetter(s) || isDigit(s);
+	public void readCharacter(ValueLexer input, char c) throws ReadingException{
+		if(!input.hasNext()) throw new ReadingException(String.format("Attempting to read \'%c\', but reached the end of the input.",c));
+		char read = input.nextCharacter();
+		if(read != c) throw new ReadingException(String.format("Attempting to read \'%c\', but read \'%c\'",c,read));
 	}
 
-	public void readCharacter(Scanner input, char c) throws ReadingException{
-		if(!input.hasNext()) throw new ReadingException(String.format("Attempting to read \'%c\', but reached the end of the input.",c));
-		String s = input.next();
-		if(s.length() != 1 || s.charAt(0) != c) throw new ReadingException(String.format("Attempting to read \'%c\', but read \'%s\'",c,s));
+	private void readOneOfCharacters(ValueLexer input, String characters) throws ReadingException{
+		if(!input.hasNext()) throw new ReadingException(String.format("Attempting to read %s, but reached the end of the input.",describeCharacters(characters)));
+		char read = input.nextCharacter();
+		if(characters.indexOf(read) < 0) throw new ReadingException(String.format("Attempting to read %s, but read \'%c\'",describeCharacters(characters),read));
 	}
 
-	private void readOneOfCharacters(Scanner input, char[] c) throws ReadingException{
-		if(!input.hasNext()) throw new ReadingException(String.format("Attempting to read \'%c\', but reached the end of the input.",c));
-		String s = input.next();
-		if(s.length() == 1){
-			for(int i = 0;i < c.length;i++){
-				if(s.charAt(0) == c[i]) return;
-			}
-		}
-		if(c.length == 1) throw new ReadingException(String.format("Attempting to read \'%c\', but read \'%s\'",c[0],s));
+	private String describeCharacters(String characters){
+		if(characters.length() == 1) return String.format("\'%c\'", characters.charAt(0));
 		StringBuilder sb = new StringBuilder();
-		sb.append("\'").append(c[0]).append("\'");
-		for(int i = 1; i < c.length - 1; i++) sb.append(", \'").append(c[i]).append("\'");
-		sb.append(" or \'").append(c[c.length - 1]).append("\'");
-		throw new ReadingException(String.format("Attempting to read %s, but read \'%s\'",sb.toString(),s));
+		sb.append("\'").append(characters.charAt(0)).append("\'");
+		for(int i = 1; i < characters.length() - 1; i++) sb.append(", \'").append(characters.charAt(i)).append("\'");
+		sb.append(" or \'").append(characters.charAt(characters.length() - 1)).append("\'");
+		return sb.toString();
 	}
 }
-
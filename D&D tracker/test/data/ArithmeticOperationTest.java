@@ -0,0 +1,63 @@
+package data;
+
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that arithmetic Value objects give the same results after replacing their operation, see ArithmeticOperation.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class ArithmeticOperationTest {
+	private static final String[] EXPRESSIONS = {"x + 2", "2 + x + 3", "x - 1", "x * 3", "x / 2", "((x + 1) * (x - 1)) / 2", "1000000 * x + x * x - 7 + (x / 3)", "(x - 1) + 5 + (x * 2000) + x"};
+
+	public static void main(String[] args) throws Exception {
+		testChangingTypes();
+		testOverflow();
+		System.out.println("ArithmeticOperationTest passed.");
+	}
+
+	private static void testChangingTypes() throws Exception {
+		DataContainer environment = new DataContainer();
+		DataPair x = environment.addData("x", IntValue.of(5));
+		Value[] values = new Value[EXPRESSIONS.length];
+		for(int i = 0; i < values.length; i++) values[i] = read(EXPRESSIONS[i]);
+		checkResults(values, environment, "7", "10", "4", "15", "2", "12", "5000019", "10014");
+		x.setValue(VoidValue.VOID);
+		checkResults(values, environment, "2", "5", "1", "3", "2", "0", "999996", "2006");
+		x.setValue(read("{_value = 9}"));
+		checkResults(values, environment, "11", "14", "8", "27", "4", "40", "9000077", "18022");
+		x.setValue(IntValue.of(-3));
+		checkResults(values, environment, "-1", "2", "-4", "-9", "-2", "4", "-2999999", "-6002");
+		x.setValue(read("\"text\""));
+		checkResults(values, environment, "Error", "Error", "Error", "Error", "Error", "Error", "Error", "Error");
+		x.setValue(IntValue.of(1));
+		checkResults(values, environment, "3", "6", "0", "3", "0", "0", "999994", "2006");
+	}
+
+	private static void testOverflow() throws Exception {
+		DataContainer environment = new DataContainer();
+		environment.addData("x", IntValue.of(Long.MAX_VALUE));
+		Value[] values = {read("x + 1"), read("x - 1"), read("0 - x - 2"), read("x * 2"), read("x / 0")};
+		checkResults(values, environment, "Error", Long.toString(Long.MAX_VALUE - 1), "Error", "Error", "Error");
+	}
+
+	private static void checkResults(Value[] values, DataContainer environment, String... expected){
+		for(int i = 0; i < values.length; i++){
+			String result;
+			try{
+				result = values[i].evaluate(environment, Value.NO_ARGUMENTS, Value.NO_OUTPUT).toString();
+			} catch(EvaluationException e){
+				result = "Error";
+			}
+			check(result.equals(expected[i]), String.format("%s should evaluate to %s, not to %s", values[i], expected[i], result));
+		}
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return new ValueReader().readValue(text);
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
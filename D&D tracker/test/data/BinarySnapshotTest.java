@@ -0,0 +1,185 @@
+package data;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import data.command.Command;
+import data.command.PrintCommand;
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that Value objects saved in a snapshot are loaded unchanged, both when the snapshot is read completely and when it is loaded lazily.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class BinarySnapshotTest {
+	private static final String[] VALUES = {
+		"0", "-1", "9223372036854775807", "-9223372036854775807 - 1", "true", "false", "\"text\"", "\"\"", "\"\u00e9\u00e8 \u4e2d\"",
+		"DEX", "#1", "#2", "prof + 2 - level", "(STR * 3 + DEX * 5 - level) / 4", "1 + 2 + 3 + 4", "DEX = 10", "DEX + 1 = level * 2",
+		"bonus(DEX, 2)", "2d6 + 3", "4d6h3", "2d20l1", "(level)d(8)", "char.DEX", "{DEX = 14, bonus = (#1 - 10) / 2}", "{}",
+		"{a = {b = {c = 1}}, d = \"e\"}", "{_hidden = 1, shown = 2}"
+	};
+
+	public static void main(String[] args) throws Exception {
+		testStream(false);
+		testStream(true);
+		testFile(false);
+		testFile(true);
+		testSaveOverLoadedFile();
+		testSegments();
+		testCommand();
+		testDamagedSnapshot();
+		System.out.println("BinarySnapshotTest passed.");
+	}
+
+	private static void testStream(boolean saveSimplified) throws Exception {
+		DataContainer environment = createEnvironment();
+		for(String text : VALUES){
+			Value value = read(text);
+			ByteArrayOutputStream output = new ByteArrayOutputStream();
+			BinarySnapshot.write(value, output, saveSimplified);
+			Value result = BinarySnapshot.read(new ByteArrayInputStream(output.toByteArray()), environment);
+			check(describe(result).equals(describe(saved(value, saveSimplified))), String.format("%s should be loaded unchanged from a stream, not as %s", text, describe(result)));
+		}
+	}
+
+	private static void testFile(boolean saveSimplified) throws Exception {
+		DataContainer environment = createEnvironment();
+		java.nio.file.Path file = Files.createTempFile("snapshot", "." + BinarySnapshot.FILE_EXTENSION);
+		try{
+			for(String text : VALUES){
+				Value value = read(text);
+				BinarySnapshot.write(value, file.toString(), saveSimplified);
+				check(BinarySnapshot.isSnapshot(file.toString()), "a saved file should be recognized as a snapshot");
+				Value result = BinarySnapshot.load(file.toString(), environment);
+				Value expected = saved(value, saveSimplified);
+				if(!(expected instanceof DataContainer)) expected = ValueSimplifier.simplify(expected);
+				check(describe(result).equals(describe(expected)), String.format("%s should be loaded unchanged from a file, not as %s", text, describe(result)));
+			}
+		} finally{
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static void testSaveOverLoadedFile() throws Exception {
+		DataContainer environment = createEnvironment();
+		DataContainer campaign = new DataContainer();
+		for(int i = 0; i < 2000; i++){
+			DataContainer character = (DataContainer) campaign.addSubDataContainer("c" + i).getValue();
+			character.addData("name", new TextValue("Character number " + i));
+			character.addData("level", IntValue.of(i % 20 + 1));
+			character.addData("bonus", read("(DEX - 10) / 2 + prof"));
+			character.addData("DEX", IntValue.of(i));
+		}
+		java.nio.file.Path file = Files.createTempFile("snapshot", "." + BinarySnapshot.FILE_EXTENSION);
+		try{
+			BinarySnapshot.write(campaign, file.toString(), false);
+			check(Files.size(file) > 1 << 16, "the snapshot should be bigger than a block of 64 KB");
+			Value loaded = BinarySnapshot.load(file.toString(), environment);
+			check(!isMapped(file), "a loaded snapshot file should not stay mapped into memory");
+			BinarySnapshot.write(loaded, file.toString(), false);
+			check(describe(BinarySnapshot.load(file.toString(), environment)).equals(describe(campaign)), "a big collection should be saved unchanged over the file it was loaded from");
+			Value unread = BinarySnapshot.load(file.toString(), environment);
+			BinarySnapshot.write(read("{other = 1}"), file.toString(), false);
+			check(describe(unread).equals(describe(campaign)), "a collection that is loaded lazily should not change when its file is replaced");
+		} finally{
+			Files.deleteIfExists(file);
+		}
+	}
+
+	private static void testSegments() throws Exception {
+		DataContainer environment = createEnvironment();
+		DataContainer campaign = (DataContainer) read("{name = \"The campaign\", party = {a = {DEX = 14, bonus = (DEX - 10) / 2}, b = {text = \"\u00e9\u00e9\u00e9\"}}, size = 9223372036854775807}");
+		java.nio.file.Path file = Files.createTempFile("snapshot", "." + BinarySnapshot.FILE_EXTENSION);
+		try{
+			BinarySnapshot.write(campaign, file.toString(), false);
+			for(int segmentBits = 0; segmentBits <= 6; segmentBits++){
+				Value result = BinarySnapshot.load(file.toString(), environment, segmentBits);
+				check(describe(result).equals(describe(campaign)), String.format("a collection should be loaded unchanged from a file read in segments of %d bytes", 1 << segmentBits));
+			}
+		} finally{
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * @return TRUE if the file is mapped into the memory of this process, FALSE if it is not or if the system does not list its mappings in /proc/self/maps.
+	 */
+	private static boolean isMapped(java.nio.file.Path file) throws IOException {
+		java.nio.file.Path mappings = Paths.get("/proc/self/maps");
+		if(!Files.isReadable(mappings)) return false;
+		String path = file.toRealPath().toString();
+		for(String line : Files.readAllLines(mappings, StandardCharsets.ISO_8859_1)){
+			if(line.endsWith(path)) return true;
+		}
+		return false;
+	}
+
+	private static void testCommand() throws Exception {
+		DataContainer environment = createEnvironment();
+		DataContainer saved = new DataContainer();
+		saved.addData(new Command(new PrintCommand(), saved));
+		saved.addData("say", new CompositeValue(new PrintCommand(), new Value[]{new TextValue("hello")}));
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		BinarySnapshot.write(saved, output, false);
+		DataContainer result = (DataContainer) BinarySnapshot.read(new ByteArrayInputStream(output.toByteArray()), environment);
+		check(!result.containsName(PrintCommand.COMMAND_WORD), "system commands in a collection should not be saved");
+		Value say = result.getData("say").getValue();
+		check(say instanceof CompositeValue && ((CompositeValue) say).getValue() instanceof PrintCommand, "a command elsewhere should be loaded as the system command");
+		try{
+			BinarySnapshot.read(new ByteArrayInputStream(output.toByteArray()), new DataContainer());
+			throw new AssertionError("a command that does not exist should not be loaded");
+		} catch(DataException e){
+		}
+	}
+
+	private static void testDamagedSnapshot() throws Exception {
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		BinarySnapshot.write(read("{a = \"text\", b = {c = 1 + 2}}"), output, false);
+		byte[] bytes = output.toByteArray();
+		for(int length = 0; length < bytes.length; length++){
+			try{
+				BinarySnapshot.read(new ByteArrayInputStream(bytes, 0, length), createEnvironment());
+				throw new AssertionError(String.format("a snapshot cut off after %d bytes should not be loaded", length));
+			} catch(DataException e){
+			}
+		}
+	}
+
+	private static DataContainer createEnvironment() throws DataException {
+		DataContainer result = new DataContainer();
+		result.addData(new Command(new PrintCommand(), result));
+		return result;
+	}
+
+	private static Value saved(Value value, boolean saveSimplified){
+		if(!(value instanceof SimplifiedValue)) return value;
+		return saveSimplified ? ((SimplifiedValue) value).getSimplifiedValue() : ((SimplifiedValue) value).getOriginalValue();
+	}
+
+	/**
+	 * @return The text of a Value object, where the DataPairs of a DataContainer are sorted by name and include hidden ones.
+	 */
+	private static String describe(Value value){
+		if(!(value instanceof DataContainer)) return value.toString();
+		List<String> contents = new ArrayList<String>();
+		for(DataPair data : (DataContainer) value) contents.add(String.format("%s=%s", data.getName(), describe(data.getValue())));
+		Collections.sort(contents);
+		return contents.toString();
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return ValueSimplifier.simplify(new ValueReader().readValue(text));
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
@@ -0,0 +1,96 @@
+package data;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that a ConsistentSnapshot saves the variables as they were when it was taken, whatever is modified afterwards.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class ConsistentSnapshotTest {
+	public static void main(String[] args) throws Exception {
+		java.nio.file.Path file = Files.createTempFile("snapshot", "." + BinarySnapshot.FILE_EXTENSION);
+		try{
+			testModifications(file);
+			testMovedCollection(file);
+			testNewCollections(file);
+		} finally{
+			Files.deleteIfExists(file);
+		}
+		System.out.println("ConsistentSnapshotTest passed.");
+	}
+
+	private static void testModifications(java.nio.file.Path file) throws Exception {
+		DataContainer root = createCampaign();
+		String expected = describe(root);
+		ConsistentSnapshot snapshot = ConsistentSnapshot.take(root);
+		DataContainer a = (DataContainer) root.getDataAbsolute("a").getValue();
+		a.getDataAbsolute("x").setValue(IntValue.of(5));
+		((DataContainer) a.getDataAbsolute("inner").getValue()).addData("z", IntValue.of(3));
+		root.removeData("b");
+		root.addData("c", read("{w = 4}"));
+		root.getDataAbsolute("name").setValue(new TextValue("changed"));
+		snapshot.write(file.toString(), false);
+		check(describe(BinarySnapshot.load(file.toString(), new DataContainer())).equals(expected), "modifications after the snapshot was taken should not be saved");
+	}
+
+	private static void testMovedCollection(java.nio.file.Path file) throws Exception {
+		DataContainer root = createCampaign();
+		String expected = describe(root);
+		ConsistentSnapshot snapshot = ConsistentSnapshot.take(root);
+		DataPair b = root.getDataAbsolute("b");
+		DataContainer moved = (DataContainer) b.getValue();
+		root.removeData(b);
+		DataContainer other = new DataContainer();
+		other.addData(new DataPair("b", moved, other));
+		check(moved.getTopLevel() == other, "the collection should be moved out of the snapshot");
+		moved.getDataAbsolute("y").setValue(IntValue.of(7));
+		moved.addData("extra", IntValue.of(8));
+		snapshot.write(file.toString(), false);
+		check(describe(BinarySnapshot.load(file.toString(), new DataContainer())).equals(expected), "a collection that was moved out of the snapshot should be saved as it was");
+	}
+
+	private static void testNewCollections(java.nio.file.Path file) throws Exception {
+		DataContainer root = createCampaign();
+		String expected = describe(root);
+		ConsistentSnapshot snapshot = ConsistentSnapshot.take(root);
+		DataContainer loaded = (DataContainer) read("{d = {v = 1}}");
+		((DataContainer) loaded.getDataAbsolute("d").getValue()).addData("u", IntValue.of(2));
+		root.addData("loaded", loaded);
+		loaded.addData("later", IntValue.of(3));
+		snapshot.write(file.toString(), false);
+		check(describe(BinarySnapshot.load(file.toString(), new DataContainer())).equals(expected), "a collection that was created after the snapshot was taken should not be saved");
+	}
+
+	private static DataContainer createCampaign() throws Exception {
+		DataContainer root = new DataContainer();
+		root.addData("name", new TextValue("The campaign"));
+		root.addData("a", read("{x = 1, inner = {y = 2}}"));
+		root.addData("b", read("{y = 2, bonus = (y - 10) / 2}"));
+		return root;
+	}
+
+	/**
+	 * @return The text of a Value object, where the DataPairs of a DataContainer are sorted by name and include hidden ones.
+	 */
+	private static String describe(Value value){
+		if(!(value instanceof DataContainer)) return value.toString();
+		List<String> contents = new ArrayList<String>();
+		for(DataPair data : (DataContainer) value) contents.add(String.format("%s=%s", data.getName(), describe(data.getValue())));
+		Collections.sort(contents);
+		return contents.toString();
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return ValueSimplifier.simplify(new ValueReader().readValue(text));
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
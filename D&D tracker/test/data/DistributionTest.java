@@ -0,0 +1,147 @@
+package data;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that Distribution computes exact probabilities, by comparing them to ones computed by brute force:
+ * small pools of dice are enumerated roll by roll, while large pools, whose distributions are convolved with the fast Fourier transform, are convolved directly.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class DistributionTest {
+	private static final double TOLERANCE = 1e-9;
+
+	public static void main(String[] args) throws Exception {
+		DataContainer environment = new DataContainer();
+		environment.addData("STR", IntValue.of(3));
+		testSmallPools(environment);
+		testLargePools(environment);
+		testStatistics(environment);
+		testCache(environment);
+		System.out.println("DistributionTest passed.");
+	}
+
+	private static void testSmallPools(DataContainer environment) throws Exception {
+		check("1d6", dice(1, 6, 1, true), environment);
+		check("3d6", dice(3, 6, 3, true), environment);
+		check("4d6h3", dice(4, 6, 3, true), environment);
+		check("5d6l2", dice(5, 6, 2, false), environment);
+		check("6d10h4", dice(6, 10, 4, true), environment);
+		check("3d20h1", dice(3, 20, 1, true), environment);
+		check("4d8h3 + 2d4 - 3", add(add(dice(4, 8, 3, true), dice(2, 4, 2, true)), constant(-3)), environment);
+		check("4d6h3 + STR", add(dice(4, 6, 3, true), constant(3)), environment);
+		check("(2d6 + 1) * 3", multiply(add(dice(2, 6, 2, true), constant(1)), 3), environment);
+		check("3d6 / 2", divide(dice(3, 6, 3, true), 2), environment);
+		check("(1 - 3d6) / 4", divide(add(constant(1), multiply(dice(3, 6, 3, true), -1)), 4), environment);
+		check("10 - 2d4", add(constant(10), multiply(dice(2, 4, 2, true), -1)), environment);
+		check("6d6h3 - 3d4l1", add(dice(6, 6, 3, true), multiply(dice(3, 4, 1, false), -1)), environment);
+	}
+
+	private static void testLargePools(DataContainer environment) throws Exception {
+		check("20d20", repeat(dice(1, 20, 1, true), 20), environment);
+		check("40d6 + 30d10", add(repeat(dice(1, 6, 1, true), 40), repeat(dice(1, 10, 1, true), 30)), environment);
+		check("100d6 - 50d4", add(repeat(dice(1, 6, 1, true), 100), multiply(repeat(dice(1, 4, 1, true), 50), -1)), environment);
+		check("6d10h4 + 20d20", add(dice(6, 10, 4, true), repeat(dice(1, 20, 1, true), 20)), environment);
+		check("(3d100 + 3d100) * 2", multiply(repeat(dice(1, 100, 1, true), 6), 2), environment);
+	}
+
+	private static void testStatistics(DataContainer environment) throws Exception {
+		Distribution distribution = Distribution.of(read("2d6"), environment, Value.NO_OUTPUT);
+		checkClose(distribution.getMean(), 7, "the mean of 2d6 should be 7");
+		checkClose(distribution.getVariance(), 35.0 / 6, "the variance of 2d6 should be 35/6");
+		checkClose(distribution.getProbabilityOfAtLeast(11), 3.0 / 36, "the probability of at least 11 on 2d6 should be 3/36");
+		check(distribution.getPercentile(0.5) == 7, "the median of 2d6 should be 7");
+		check(distribution.getMinimum() == 2 && distribution.getMaximum() == 12, "2d6 should range from 2 to 12");
+	}
+
+	private static void testCache(DataContainer environment) throws Exception {
+		check("STR + 4d6h3", add(dice(4, 6, 3, true), constant(3)), environment);
+		environment.getDataAbsolute("STR").setValue(IntValue.of(5));
+		check("4d6h3 + STR", add(dice(4, 6, 3, true), constant(5)), environment);
+		check("STR + 4d6h3", add(dice(4, 6, 3, true), constant(5)), environment);
+		environment.getDataAbsolute("STR").setValue(IntValue.of(3));
+	}
+
+	private static void check(String expression, TreeMap<Long,Double> expected, DataContainer environment) throws Exception {
+		Distribution distribution = Distribution.of(read(expression), environment, Value.NO_OUTPUT);
+		check(distribution.getMinimum() == expected.firstKey(), String.format("the minimum of %s should be %d, not %d", expression, expected.firstKey(), distribution.getMinimum()));
+		check(distribution.getMaximum() == expected.lastKey(), String.format("the maximum of %s should be %d, not %d", expression, expected.lastKey(), distribution.getMaximum()));
+		for(long result = distribution.getMinimum(); result <= distribution.getMaximum(); result++){
+			double probability = expected.containsKey(result) ? expected.get(result) : 0;
+			checkClose(distribution.getProbability(result), probability, String.format("the probability of %d for %s should be %s, not %s", result, expression, probability, distribution.getProbability(result)));
+		}
+	}
+
+	/**
+	 * Enumerates all rolls of a number of dice, keeping the sum of the highest or the lowest of them.
+	 */
+	private static TreeMap<Long,Double> dice(int numberOfRolls, int sizeOfDice, int numberToKeep, boolean keepHighest){
+		TreeMap<Long,Double> result = new TreeMap<Long,Double>();
+		int[] rolls = new int[numberOfRolls];
+		Arrays.fill(rolls, 1);
+		double probability = Math.pow(sizeOfDice, -numberOfRolls);
+		int[] sorted = new int[numberOfRolls];
+		while(true){
+			System.arraycopy(rolls, 0, sorted, 0, numberOfRolls);
+			Arrays.sort(sorted);
+			long sum = 0;
+			for(int i = 0; i < numberToKeep; i++) sum += sorted[keepHighest ? numberOfRolls - 1 - i : i];
+			result.merge(sum, probability, Double::sum);
+			int i = 0;
+			while(i < numberOfRolls && rolls[i] == sizeOfDice) rolls[i++] = 1;
+			if(i == numberOfRolls) return result;
+			rolls[i]++;
+		}
+	}
+
+	private static TreeMap<Long,Double> constant(long value){
+		TreeMap<Long,Double> result = new TreeMap<Long,Double>();
+		result.put(value, 1.0);
+		return result;
+	}
+
+	/**
+	 * Convolves two distributions directly.
+	 */
+	private static TreeMap<Long,Double> add(TreeMap<Long,Double> a, TreeMap<Long,Double> b){
+		TreeMap<Long,Double> result = new TreeMap<Long,Double>();
+		for(Map.Entry<Long,Double> x : a.entrySet()){
+			for(Map.Entry<Long,Double> y : b.entrySet()) result.merge(x.getKey() + y.getKey(), x.getValue() * y.getValue(), Double::sum);
+		}
+		return result;
+	}
+
+	private static TreeMap<Long,Double> repeat(TreeMap<Long,Double> distribution, int times){
+		TreeMap<Long,Double> result = constant(0);
+		for(int i = 0; i < times; i++) result = add(result, distribution);
+		return result;
+	}
+
+	private static TreeMap<Long,Double> multiply(TreeMap<Long,Double> distribution, long factor){
+		TreeMap<Long,Double> result = new TreeMap<Long,Double>();
+		for(Map.Entry<Long,Double> x : distribution.entrySet()) result.merge(x.getKey() * factor, x.getValue(), Double::sum);
+		return result;
+	}
+
+	private static TreeMap<Long,Double> divide(TreeMap<Long,Double> distribution, long divisor){
+		TreeMap<Long,Double> result = new TreeMap<Long,Double>();
+		for(Map.Entry<Long,Double> x : distribution.entrySet()) result.merge(Math.floorDiv(x.getKey(), divisor), x.getValue(), Double::sum);
+		return result;
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return ValueSimplifier.simplify(new ValueReader().readValue(text));
+	}
+
+	private static void checkClose(double actual, double expected, String message){
+		check(Math.abs(actual - expected) <= TOLERANCE, message);
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
@@ -0,0 +1,60 @@
+package data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+
+import main.ValueReader;
+
+/**
+ * Measures how long it takes to evaluate arithmetic expressions: directly, through a variable and through a function stored in a variable,
+ * and how many bytes are allocated per evaluation, which unlike the time does not depend on other processes running at the same time.
+ * A call of a function reads its arguments, so its evaluation is never remembered and the stored Value object is evaluated every time.
+ * Run it as a Java application, optionally with the number of evaluations per round as argument.
+ * It only uses the public methods of Value, DataContainer and ValueReader, such that it can be run against older versions as well.
+ */
+public class EvaluationBenchmark {
+	private static final String[] EXPRESSIONS = {
+		"(DEX - 10) / 2 + prof",
+		"modifier + level",
+		"bonus(DEX)",
+		"bonus(DEX) + bonus(STR) + level * 2",
+		"(STR * 3 + DEX * 5 - level) / 4",
+		"hp + 150000 * level - 2000",
+		"big(hp)",
+	};
+	private static final int ROUNDS = 7;
+
+	public static void main(String[] args) throws Exception {
+		int evaluations = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		PrintStream output = new PrintStream(new ByteArrayOutputStream());
+		DataContainer environment = new DataContainer();
+		environment.addData("DEX", new IntValue(14));
+		environment.addData("STR", new IntValue(9));
+		environment.addData("prof", new IntValue(2));
+		environment.addData("level", new IntValue(5));
+		environment.addData("hp", new IntValue(123456));
+		environment.addData("modifier", new ValueReader().readValue("(DEX - 10) / 2 + prof"));
+		environment.addData("bonus", new ValueReader().readValue("(#1 - 10) / 2 + prof"));
+		environment.addData("big", new ValueReader().readValue("#1 * 1000 + 7 * #1 - 500000"));
+		Value[] noArguments = new Value[0];
+		for(String expression : EXPRESSIONS){
+			Value value = new ValueReader().readValue(expression);
+			long best = Long.MAX_VALUE;
+			long bestAllocation = Long.MAX_VALUE;
+			PrimitiveValue result = null;
+			for(int round = 0; round < ROUNDS; round++){
+				long allocation = getAllocatedBytes();
+				long start = System.nanoTime();
+				for(int i = 0; i < evaluations; i++) result = value.evaluate(environment, noArguments, output);
+				best = Math.min(best, System.nanoTime() - start);
+				bestAllocation = Math.min(bestAllocation, getAllocatedBytes() - allocation);
+			}
+			System.out.println(String.format("%-40s = %-10s %6.1f ns %6.1f bytes per evaluation", expression, result, (double) best / evaluations, (double) bestAllocation / evaluations));
+		}
+	}
+
+	private static long getAllocatedBytes(){
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+}
@@ -0,0 +1,167 @@
+package data;
+
+import java.lang.ref.WeakReference;
+
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests which remembered evaluations EvaluationCache forgets when variables change.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class EvaluationCacheTest {
+	public static void main(String[] args) throws Exception {
+		testChangedVariable();
+		testUnrelatedChanges();
+		testShadowingVariable();
+		testRemovedVariable();
+		testTemplate();
+		testMovedCollection();
+		testDice();
+		testFunction();
+		testRemovedEnvironment();
+		System.out.println("EvaluationCacheTest passed.");
+	}
+
+	private static void testChangedVariable() throws Exception {
+		DataContainer root = new DataContainer();
+		DataContainer character = createCharacter(root);
+		DataPair bonus = character.getDataAbsolute("bonus");
+		check(evaluate("bonus", character) == 4, "bonus should be 4");
+		check(isCached(bonus, character), "bonus should be remembered");
+		character.getDataAbsolute("DEX").setValue(IntValue.of(16));
+		check(!isCached(bonus, character), "bonus should be forgotten when DEX changes");
+		check(evaluate("bonus", character) == 5, "bonus should be 5 after DEX changed");
+	}
+
+	private static void testUnrelatedChanges() throws Exception {
+		DataContainer root = new DataContainer();
+		DataContainer character = createCharacter(root);
+		DataContainer goblin = (DataContainer) root.addSubDataContainer("goblin").getValue();
+		goblin.addData("hp", IntValue.of(7));
+		DataPair bonus = character.getDataAbsolute("bonus");
+		evaluate("bonus", character);
+		goblin.getDataAbsolute("hp").setValue(IntValue.of(3));
+		goblin.addData("DEX", IntValue.of(12));
+		root.addData("other", IntValue.of(1));
+		goblin.removeData("hp");
+		root.addSubDataContainer("orc");
+		check(isCached(bonus, character), "bonus should be remembered after unrelated changes");
+	}
+
+	private static void testShadowingVariable() throws Exception {
+		DataContainer root = new DataContainer();
+		DataContainer character = createCharacter(root);
+		DataPair bonus = character.getDataAbsolute("bonus");
+		evaluate("bonus", character);
+		character.addData("prof", IntValue.of(5));
+		check(!isCached(bonus, character), "bonus should be forgotten when prof is created closer to it");
+		check(evaluate("bonus", character) == 7, "bonus should use the new prof");
+	}
+
+	private static void testRemovedVariable() throws Exception {
+		DataContainer root = new DataContainer();
+		DataContainer character = createCharacter(root);
+		character.addData("prof", IntValue.of(5));
+		DataPair bonus = character.getDataAbsolute("bonus");
+		check(evaluate("bonus", character) == 7, "bonus should use the prof of the character");
+		character.removeData("prof");
+		check(!isCached(bonus, character), "bonus should be forgotten when prof is removed");
+		check(evaluate("bonus", character) == 4, "bonus should use the global prof again");
+	}
+
+	private static void testTemplate() throws Exception {
+		DataContainer root = new DataContainer();
+		DataContainer template = (DataContainer) root.addSubDataContainer("tmpl").getValue();
+		template.addData("speed", IntValue.of(30));
+		DataContainer character = (DataContainer) root.addSubDataContainer("char").getValue();
+		character.addData(DataContainer.TEMPLATE_NAME, read(":tmpl"));
+		DataPair move = character.addData("move", read("speed * 2"));
+		check(evaluate("move", character) == 60, "move should use the speed of the template");
+		check(isCached(move, character), "move should be remembered");
+		template.getDataAbsolute("speed").setValue(IntValue.of(25));
+		check(evaluate("move", character) == 50, "move should use the changed speed of the template");
+		character.addData("speed", IntValue.of(40));
+		check(!isCached(move, character), "move should be forgotten when speed is created in the character");
+		check(evaluate("move", character) == 80, "move should use the speed of the character");
+		character.removeData("speed");
+		root.getDataAbsolute("tmpl").setValue(read("{speed=35}"));
+		check(evaluate("move", character) == 70, "move should use the speed of the new template");
+	}
+
+	private static void testMovedCollection() throws Exception {
+		DataContainer root = new DataContainer();
+		root.addData("size", IntValue.of(1));
+		DataContainer party = (DataContainer) root.addSubDataContainer("party").getValue();
+		party.addData("size", IntValue.of(4));
+		DataContainer character = new DataContainer();
+		DataPair twice = character.addData("twice", read("size * 2"));
+		DataPair characterData = root.addData("char", character);
+		check(evaluate("twice", character) == 2, "twice should use the global size");
+		root.removeData(characterData);
+		party.addData(new DataPair("char", character, party));
+		check(!isCached(twice, character), "twice should be forgotten when its collection moves");
+		check(evaluate("twice", character) == 8, "twice should use the size of the party");
+	}
+
+	private static void testDice() throws Exception {
+		DataContainer root = new DataContainer();
+		DataContainer character = createCharacter(root);
+		DataPair roll = character.addData("roll", read("1d20 + bonus"));
+		evaluate("roll", character);
+		check(!isCached(roll, character), "rolls should never be remembered");
+	}
+
+	private static void testFunction() throws Exception {
+		DataContainer root = new DataContainer();
+		DataContainer character = createCharacter(root);
+		character.addData("double", read("(#1 + DEX) * 2"));
+		DataPair total = character.addData("total", read("double(1) + 1"));
+		check(evaluate("total", character) == 31, "total should be 31");
+		check(isCached(total, character), "total should be remembered, even though the function it calls is not");
+		character.getDataAbsolute("DEX").setValue(IntValue.of(18));
+		check(!isCached(total, character), "total should be forgotten when a variable read by the function it calls changes");
+		check(evaluate("total", character) == 39, "total should be 39 after DEX changed");
+	}
+
+	private static void testRemovedEnvironment() throws Exception {
+		DataContainer root = new DataContainer();
+		DataPair twice = root.addData("twice", read("size * 2"));
+		DataContainer goblin = (DataContainer) root.addSubDataContainer("goblin").getValue();
+		goblin.addData("size", IntValue.of(3));
+		check(evaluate("twice", goblin) == 6, "twice should use the size of the goblin");
+		check(isCached(twice, goblin), "twice should be remembered for the goblin");
+		WeakReference<DataContainer> removed = new WeakReference<DataContainer>(goblin);
+		root.removeData("goblin");
+		goblin = null;
+		for(int i = 0; i < 100 && removed.get() != null; i++){
+			System.gc();
+			Thread.sleep(10);
+		}
+		check(removed.get() == null, "a removed collection should not be kept alive by the evaluations remembered for it");
+	}
+
+	private static DataContainer createCharacter(DataContainer root) throws Exception {
+		root.addData("prof", IntValue.of(2));
+		DataContainer character = (DataContainer) root.addSubDataContainer("char").getValue();
+		character.addData("DEX", IntValue.of(14));
+		character.addData("bonus", read("(DEX - 10) / 2 + prof"));
+		return character;
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return ValueSimplifier.simplify(new ValueReader().readValue(text));
+	}
+
+	private static long evaluate(String name, DataContainer environment) throws EvaluationException {
+		return ((IntValue) new NamedValue(name).evaluate(environment, Value.NO_ARGUMENTS, Value.NO_OUTPUT)).getLong();
+	}
+
+	private static boolean isCached(DataPair data, DataContainer environment){
+		return data.getCachedEvaluation(environment, EvaluationCache.EVALUATE) != null;
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
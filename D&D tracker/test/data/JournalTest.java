@@ -0,0 +1,157 @@
+package data;
+
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that a Journal restores all complete commits, also when the journal file ends in a commit that was only partially written.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class JournalTest {
+	public static void main(String[] args) throws Exception {
+		java.nio.file.Path directory = Files.createTempDirectory("journal");
+		try{
+			testReplay(directory);
+			testTornTail(directory);
+			testDamagedCommit(directory);
+			testCheckpoint(directory);
+			testCheckpointAfterRestore(directory);
+		} finally{
+			for(java.nio.file.Path file : Files.newDirectoryStream(directory)) Files.delete(file);
+			Files.delete(directory);
+		}
+		System.out.println("JournalTest passed.");
+	}
+
+	private static void testReplay(java.nio.file.Path directory) throws Exception {
+		String snapshot = directory.resolve("replay.tdb").toString();
+		DataContainer root = new DataContainer();
+		Journal journal = Journal.open(snapshot, root, false);
+		makeChanges(root, journal, 3);
+		journal.close();
+		DataContainer restored = new DataContainer();
+		Journal reopened = Journal.open(snapshot, restored, false);
+		reopened.discard();
+		check(describe(restored).equals(describe(root)), String.format("the variables should be restored as %s, not as %s", describe(root), describe(restored)));
+		check(reopened.getNumberOfRestoredChanges() > 0, "the changes should be restored from the journal");
+	}
+
+	private static void testTornTail(java.nio.file.Path directory) throws Exception {
+		String snapshot = directory.resolve("torn.tdb").toString();
+		java.nio.file.Path journalFile = directory.resolve("torn.tdb." + Journal.FILE_EXTENSION);
+		DataContainer root = new DataContainer();
+		Journal journal = Journal.open(snapshot, root, false);
+		makeChanges(root, journal, 2);
+		String expected = describe(root);
+		long completeSize = Files.size(journalFile);
+		makeChanges(root, journal, 1);
+		journal.close();
+		byte[] bytes = Files.readAllBytes(journalFile);
+		check(bytes.length > completeSize, "the last commit should be written");
+		for(int length = (int) completeSize; length < bytes.length; length++){
+			Files.write(journalFile, Arrays.copyOf(bytes, length));
+			for(int attempt = 0; attempt < 2; attempt++){
+				DataContainer restored = new DataContainer();
+				Journal.open(snapshot, restored, false).discard();
+				check(describe(restored).equals(expected), String.format("a commit cut off after %d of %d bytes should be discarded", length - completeSize, bytes.length - completeSize));
+				check(Files.size(journalFile) == completeSize, "a partially written commit should be removed from the journal file");
+			}
+		}
+	}
+
+	private static void testDamagedCommit(java.nio.file.Path directory) throws Exception {
+		String snapshot = directory.resolve("damaged.tdb").toString();
+		java.nio.file.Path journalFile = directory.resolve("damaged.tdb." + Journal.FILE_EXTENSION);
+		DataContainer root = new DataContainer();
+		Journal journal = Journal.open(snapshot, root, false);
+		makeChanges(root, journal, 2);
+		String expected = describe(root);
+		long completeSize = Files.size(journalFile);
+		makeChanges(root, journal, 1);
+		journal.close();
+		byte[] bytes = Files.readAllBytes(journalFile);
+		bytes[bytes.length - 1] ^= 1;
+		Files.write(journalFile, bytes);
+		DataContainer restored = new DataContainer();
+		Journal.open(snapshot, restored, false).discard();
+		check(describe(restored).equals(expected), "a commit with a wrong checksum should be discarded");
+		check(Files.size(journalFile) == completeSize, "a commit with a wrong checksum should be removed from the journal file");
+	}
+
+	private static void testCheckpoint(java.nio.file.Path directory) throws Exception {
+		String snapshot = directory.resolve("checkpoint.tdb").toString();
+		java.nio.file.Path journalFile = directory.resolve("checkpoint.tdb." + Journal.FILE_EXTENSION);
+		DataContainer root = new DataContainer();
+		Journal journal = Journal.open(snapshot, root, false);
+		makeChanges(root, journal, 3);
+		byte[] bytes = Files.readAllBytes(journalFile);
+		journal.checkpoint();
+		journal.close();
+		Files.write(journalFile, bytes);
+		DataContainer restored = new DataContainer();
+		Journal.open(snapshot, restored, false).discard();
+		check(describe(restored).equals(describe(root)), "changes that are already in the snapshot should be replayed again without effect");
+	}
+
+	private static void testCheckpointAfterRestore(java.nio.file.Path directory) throws Exception {
+		String snapshot = directory.resolve("restored.tdb").toString();
+		DataContainer root = new DataContainer();
+		Journal journal = Journal.open(snapshot, root, false);
+		makeChanges(root, journal, 2);
+		journal.checkpoint();
+		journal.close();
+		DataContainer restored = new DataContainer();
+		Journal reopened = Journal.open(snapshot, restored, false);
+		makeChanges(restored, reopened, 1);
+		reopened.checkpoint();
+		reopened.close();
+		DataContainer reloaded = new DataContainer();
+		Journal.open(snapshot, reloaded, false).discard();
+		check(describe(reloaded).equals(describe(restored)), "a checkpoint should replace the snapshot that the variables were restored from");
+	}
+
+	/**
+	 * Makes a number of commits, each of which adds, changes and removes variables, also in a nested collection.
+	 */
+	private static void makeChanges(DataContainer root, Journal journal, int numberOfCommits) throws Exception {
+		for(int i = 0; i < numberOfCommits; i++){
+			DataPair counter = root.findDataAbsolute("counter");
+			long number = counter == null ? 0 : ((IntValue) counter.getValue()).getLong() + 1;
+			if(counter == null) root.addData("counter", IntValue.of(number));
+			else counter.setValue(IntValue.of(number));
+			DataPair party = root.findDataAbsolute("party");
+			if(party == null) party = root.addSubDataContainer("party");
+			DataContainer members = (DataContainer) party.getValue();
+			members.addData("m" + number, read(String.format("{DEX = %d, bonus = (DEX - 10) / 2, name = \"member %d\"}", 10 + number, number)));
+			if(number == 1) members.removeData("m0");
+			root.addData("temporary", new TextValue("removed before the commit"));
+			root.removeData("temporary");
+			journal.commit();
+		}
+	}
+
+	/**
+	 * @return The text of a Value object, where the DataPairs of a DataContainer are sorted by name and include hidden ones.
+	 */
+	private static String describe(Value value){
+		if(!(value instanceof DataContainer)) return value.toString();
+		List<String> contents = new ArrayList<String>();
+		for(DataPair data : (DataContainer) value) contents.add(String.format("%s=%s", data.getName(), describe(data.getValue())));
+		Collections.sort(contents);
+		return contents.toString();
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return ValueSimplifier.simplify(new ValueReader().readValue(text));
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
@@ -0,0 +1,79 @@
+package data;
+
+import java.util.concurrent.ForkJoinPool;
+
+import data.command.Command;
+import data.command.PrintCommand;
+import data.command.SetCommand;
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that a Simulation only runs trials without side effects, and that its results only depend on the seed.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class SimulationTest {
+	private static final int NUMBER_OF_TRIALS = 10000;
+
+	public static void main(String[] args) throws Exception {
+		DataContainer environment = createEnvironment();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try{
+			testResults(environment, pool);
+			testSideEffects(environment, pool);
+		} finally{
+			pool.shutdown();
+			RandomSource.unseed();
+		}
+		System.out.println("SimulationTest passed.");
+	}
+
+	private static void testResults(DataContainer environment, ForkJoinPool pool) throws Exception {
+		RandomSource.seed(42);
+		Simulation first = Simulation.run(read("1d6 + bonus"), environment, NUMBER_OF_TRIALS, pool);
+		check(first.getMinimum() == 3 && first.getMaximum() == 8, "1d6 + bonus should range from 3 to 8");
+		long total = 0;
+		for(long count : first.getCounts().values()) total += count;
+		check(total == NUMBER_OF_TRIALS, "every trial should be counted once");
+		RandomSource.seed(42);
+		Simulation second = Simulation.run(read("1d6 + bonus"), environment, NUMBER_OF_TRIALS, ForkJoinPool.commonPool());
+		check(first.getCounts().equals(second.getCounts()), "the results should only depend on the seed, not on the number of threads");
+		Simulation comparison = Simulation.run(read("1d2 = 1"), environment, NUMBER_OF_TRIALS, pool);
+		check(comparison.getMinimum() == 0 && comparison.getMaximum() == 1, "booleans should count as 0 and 1");
+	}
+
+	private static void testSideEffects(DataContainer environment, ForkJoinPool pool) throws Exception {
+		checkRejected("print(1d6)", environment, pool, "print");
+		checkRejected("noisy + 1", environment, pool, "print");
+		checkRejected("change", environment, pool, "set");
+		check(environment.getDataAbsolute("bonus").getValue().toString().equals("2"), "a rejected simulation should not change any variable");
+	}
+
+	private static void checkRejected(String text, DataContainer environment, ForkJoinPool pool, String command) throws Exception {
+		try{
+			Simulation.run(read(text), environment, NUMBER_OF_TRIALS, pool);
+		} catch(EvaluationException e){
+			check(e.getMessage().contains(String.format("\'%s\'", command)), String.format("simulating %s should fail because of %s, not because: %s", text, command, e.getMessage()));
+			return;
+		}
+		throw new AssertionError(String.format("simulating %s should fail, since it has side effects", text));
+	}
+
+	private static DataContainer createEnvironment() throws Exception {
+		DataContainer result = new DataContainer();
+		result.addData(new Command(new PrintCommand(), result));
+		result.addData(new Command(new SetCommand(), result));
+		result.addData("bonus", IntValue.of(2));
+		result.addData("noisy", read("print(\"roll\") + 1d4"));
+		result.addData("change", read("set(:bonus, 1d6)"));
+		return result;
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return ValueSimplifier.simplify(new ValueReader().readValue(text));
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
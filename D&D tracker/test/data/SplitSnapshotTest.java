@@ -0,0 +1,141 @@
+package data;
+
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that a SplitSnapshot only writes the files of modified DataContainer objects, and that a manifest loads unchanged.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class SplitSnapshotTest {
+	private static final FileTime UNTOUCHED = FileTime.fromMillis(0);
+
+	public static void main(String[] args) throws Exception {
+		java.nio.file.Path directory = Files.createTempDirectory("split");
+		try{
+			testRoundTrip(directory);
+			testIncrementalSave(directory);
+			testRemovedPart(directory);
+			testLoadedManifest(directory);
+		} finally{
+			try(Stream<java.nio.file.Path> files = Files.walk(directory)){
+				files.sorted(Collections.reverseOrder()).forEach(file -> file.toFile().delete());
+			}
+		}
+		System.out.println("SplitSnapshotTest passed.");
+	}
+
+	private static void testRoundTrip(java.nio.file.Path directory) throws Exception {
+		DataContainer campaign = createCampaign();
+		String manifest = directory.resolve("round.tdm").toString();
+		SplitSnapshot snapshot = new SplitSnapshot(manifest, 2, false);
+		snapshot.write(campaign);
+		check(snapshot.getNumberOfWrittenParts() == 5, String.format("all 5 parts should be written the first time, not %d", snapshot.getNumberOfWrittenParts()));
+		check(Files.exists(directory.resolve("round.parts/c1.parts/stats.tdb")), "a part at depth 2 should be saved in the directory of the part that contains it");
+		check(describe(BinarySnapshot.load(manifest, new DataContainer())).equals(describe(campaign)), "a manifest should be loaded unchanged");
+	}
+
+	private static void testIncrementalSave(java.nio.file.Path directory) throws Exception {
+		DataContainer campaign = createCampaign();
+		String manifest = directory.resolve("incremental.tdm").toString();
+		new SplitSnapshot(manifest, 2, false).write(campaign);
+		List<java.nio.file.Path> files = listFiles(directory.resolve("incremental.parts"));
+		files.add(directory.resolve("incremental.tdm"));
+		for(java.nio.file.Path file : files) Files.setLastModifiedTime(file, UNTOUCHED);
+		SplitSnapshot snapshot = new SplitSnapshot(manifest, 2, false);
+		snapshot.write(campaign);
+		check(snapshot.getNumberOfWrittenParts() == 0, "no parts should be written when nothing changed");
+		for(java.nio.file.Path file : files) check(Files.getLastModifiedTime(file).equals(UNTOUCHED), String.format("%s should not be written when nothing changed", file));
+		DataContainer stats = (DataContainer) ((DataContainer) campaign.getDataAbsolute("c1").getValue()).getDataAbsolute("stats").getValue();
+		stats.getDataAbsolute("DEX").setValue(IntValue.of(18));
+		snapshot.write(campaign);
+		check(snapshot.getNumberOfWrittenParts() == 2, String.format("only the changed part and the part that contains it should be written, not %d parts", snapshot.getNumberOfWrittenParts()));
+		for(java.nio.file.Path file : files){
+			boolean written = !Files.getLastModifiedTime(file).equals(UNTOUCHED);
+			boolean changed = file.endsWith("incremental.tdm") || file.endsWith("c1.tdb") || file.endsWith("stats.tdb") && file.getParent().endsWith("c1.parts");
+			check(written == changed, String.format("%s should %sbe written after a change in c1.stats", file, changed ? "" : "not "));
+		}
+		check(describe(BinarySnapshot.load(manifest, new DataContainer())).equals(describe(campaign)), "a manifest should be loaded with the change");
+	}
+
+	private static void testRemovedPart(java.nio.file.Path directory) throws Exception {
+		DataContainer campaign = createCampaign();
+		String manifest = directory.resolve("removed.tdm").toString();
+		SplitSnapshot snapshot = new SplitSnapshot(manifest, 2, false);
+		snapshot.write(campaign);
+		campaign.removeData("c2");
+		((DataContainer) campaign.getDataAbsolute("c1").getValue()).removeData("stats");
+		snapshot.write(campaign);
+		check(!Files.exists(directory.resolve("removed.parts/c2.tdb")), "the part of a removed collection should be removed");
+		check(!Files.exists(directory.resolve("removed.parts/c2.parts")), "the parts within a removed collection should be removed");
+		check(!Files.exists(directory.resolve("removed.parts/c1.parts/stats.tdb")), "the part of a removed collection at depth 2 should be removed");
+		check(Files.exists(directory.resolve("removed.parts/c3.tdb")), "the part of a collection that was not removed should be kept");
+		check(describe(BinarySnapshot.load(manifest, new DataContainer())).equals(describe(campaign)), "a manifest should be loaded without the removed collections");
+	}
+
+	private static void testLoadedManifest(java.nio.file.Path directory) throws Exception {
+		String manifest = directory.resolve("loaded.tdm").toString();
+		new SplitSnapshot(manifest, 2, false).write(createCampaign());
+		DataContainer campaign = (DataContainer) BinarySnapshot.load(manifest, new DataContainer());
+		List<java.nio.file.Path> files = listFiles(directory.resolve("loaded.parts"));
+		for(java.nio.file.Path file : files) Files.setLastModifiedTime(file, UNTOUCHED);
+		campaign.addData("round", IntValue.of(2));
+		SplitSnapshot snapshot = new SplitSnapshot(manifest, 2, false);
+		snapshot.write(campaign);
+		check(snapshot.getNumberOfWrittenParts() == 0, "parts that were loaded and not changed should not be written");
+		for(java.nio.file.Path file : files) check(Files.getLastModifiedTime(file).equals(UNTOUCHED), String.format("%s should not be written when only the manifest changed", file));
+		((DataContainer) campaign.getDataAbsolute("c3").getValue()).addData("hp", IntValue.of(5));
+		snapshot.write(campaign);
+		check(snapshot.getNumberOfWrittenParts() == 1, "only the changed part that was loaded should be written");
+		DataContainer reloaded = (DataContainer) BinarySnapshot.load(manifest, new DataContainer());
+		check(describe(reloaded).equals(describe(campaign)), "a manifest that was saved after it was loaded should be loaded unchanged");
+	}
+
+	/**
+	 * @return A campaign with parts at depth 1 and 2: c1, c1.stats, c2, c2.stats and c3.
+	 */
+	private static DataContainer createCampaign() throws Exception {
+		DataContainer campaign = new DataContainer();
+		campaign.addData("name", new TextValue("The campaign"));
+		for(int i = 1; i <= 3; i++){
+			DataContainer character = (DataContainer) campaign.addSubDataContainer("c" + i).getValue();
+			character.addData("level", IntValue.of(i));
+			if(i < 3) character.addData("stats", read(String.format("{DEX = %d, bonus = (DEX - 10) / 2}", 12 + i)));
+		}
+		return campaign;
+	}
+
+	private static List<java.nio.file.Path> listFiles(java.nio.file.Path directory) throws Exception {
+		List<java.nio.file.Path> result = new ArrayList<java.nio.file.Path>();
+		try(Stream<java.nio.file.Path> files = Files.walk(directory)){
+			files.filter(Files::isRegularFile).forEach(result::add);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The text of a Value object, where the DataPairs of a DataContainer are sorted by name and include hidden ones.
+	 */
+	private static String describe(Value value){
+		if(!(value instanceof DataContainer)) return value.toString();
+		List<String> contents = new ArrayList<String>();
+		for(DataPair data : (DataContainer) value) contents.add(String.format("%s=%s", data.getName(), describe(data.getValue())));
+		Collections.sort(contents);
+		return contents.toString();
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return ValueSimplifier.simplify(new ValueReader().readValue(text));
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
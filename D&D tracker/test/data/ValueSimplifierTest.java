@@ -0,0 +1,98 @@
+package data;
+
+import main.ReadingException;
+import main.ValueReader;
+
+/**
+ * Tests that ValueSimplifier folds constant parts wherever they occur, without changing how Value objects print or evaluate.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class ValueSimplifierTest {
+	private static final String[] EXPRESSIONS = {
+		"1 + 2 * 3",
+		"x + 1 + 2",
+		"x + 5 + (0 - 5)",
+		"(x + 1) + (2 + 3)",
+		"x + 9223372036854775806 + 1 + 1",
+		"0 - 9223372036854775807 + x - 1 - 1",
+		"((x - 10) / 2) + (2 * 3)",
+		"(1 + 2) = 3",
+		"x = (4 + 1)",
+		"if((1 = 1), (2 + 3), x)",
+		"(#1 + (2 * 3))(x)",
+		"c.(y + (1 + 1))",
+		"\"a\" + (1 + 2)",
+		"() + x + ()",
+		"(1 / 0) + x",
+	};
+
+	public static void main(String[] args) throws Exception {
+		testSimplifiedValueIsKept();
+		testFolding();
+		testSameEvaluation();
+		System.out.println("ValueSimplifierTest passed.");
+	}
+
+	private static void testSimplifiedValueIsKept() throws Exception {
+		Value simplified = ValueSimplifier.simplify(read("x + 1 + 2"));
+		check(simplified instanceof SimplifiedValue, "x + 1 + 2 should be simplified");
+		check(ValueSimplifier.simplify(simplified) == simplified, "a SimplifiedValue object should be returned unchanged");
+	}
+
+	private static void testFolding() throws Exception {
+		checkSimplification("x + 1 + 2", "(x+3)");
+		checkSimplification("x + 5 + (0 - 5)", "((x+5)+-5)");
+		checkSimplification("(1 + 2) = 3", "$TRUE");
+		checkSimplification("x = (4 + 1)", "(x = 5)");
+		checkSimplification("(1 + 1)d(2 * 3)", "(2D6)");
+		checkSimplification("c.(y + (1 + 1))", "c.(y+2)");
+		Value composite = ((SimplifiedValue) ValueSimplifier.simplify(read("f((2 * 3), x)"))).getSimplifiedValue();
+		Value arg = ((CompositeValue) composite).getArguments()[0];
+		check(arg instanceof SimplifiedValue && ((SimplifiedValue) arg).getSimplifiedValue().equals(IntValue.of(6)), "the arguments of a function should be simplified");
+		check(composite.toString().equals(read("f((2 * 3), x)").toString()), "a function should still print its arguments as written");
+	}
+
+	private static void testSameEvaluation() throws Exception {
+		DataContainer environment = new DataContainer();
+		environment.addData("x", IntValue.of(7));
+		environment.addData("if", new data.command.IfCommand());
+		DataContainer c = (DataContainer) environment.addSubDataContainer("c").getValue();
+		c.addData("y", IntValue.of(3));
+		for(String expression : EXPRESSIONS){
+			Value original = read(expression);
+			Value simplified = ValueSimplifier.simplify(read(expression));
+			check(original.toString().equals(simplified.toString()), String.format("%s should print as before", expression));
+			String expected = evaluate(original, environment);
+			String result = evaluate(simplified, environment);
+			check(expected.equals(result), String.format("%s should evaluate to %s, not to %s", expression, expected, result));
+		}
+	}
+
+	private static void checkSimplification(String expression, String expected){
+		Value simplified;
+		try{
+			simplified = ValueSimplifier.simplify(read(expression));
+		} catch(ReadingException e){
+			throw new AssertionError(e.getMessage(), e);
+		}
+		check(simplified instanceof SimplifiedValue, String.format("%s should be simplified", expression));
+		String result = ((SimplifiedValue) simplified).getSimplifiedValue().toString();
+		check(result.equals(expected), String.format("%s should be simplified to %s, not to %s", expression, expected, result));
+	}
+
+	private static String evaluate(Value value, DataContainer environment){
+		try{
+			return value.evaluate(environment, Value.NO_ARGUMENTS, Value.NO_OUTPUT).toString();
+		} catch(EvaluationException e){
+			return "Error";
+		}
+	}
+
+	private static Value read(String text) throws ReadingException {
+		return new ValueReader().readValue(text);
+	}
+
+	private static void check(boolean condition, String message){
+		if(!condition) throw new AssertionError(message);
+	}
+}
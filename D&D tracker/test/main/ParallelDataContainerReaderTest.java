@@ -0,0 +1,90 @@
+package main;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import data.DataContainer;
+import data.DataPair;
+
+/**
+ * Tests that ParallelDataContainerReader reads a DataContainer in the same way as ValueReader.readDataContainer,
+ * giving the same variables in the same order and ending at the same index, or failing with the same message.
+ * Run it as a Java application, it throws an AssertionError at the first check that fails.
+ */
+public class ParallelDataContainerReaderTest {
+	private static final String[] VALUES = {
+		"1", "-7", "\"text\"", "\"a, b}\"", "\"say \\\"hi, {there}\\\"\"", "\"<no description>\"", "\"\"", "{}", "{ x = 1 , y = { z = \"}\" } }",
+		"(1 + 2) * 3", "bonus(DEX, 2)", "4d6h3 + STR", "[1d6]", "<\"1 + 1\">", "char.stats.DEX", "#1 + #2", ":tmpl", "DEX = 10"
+	};
+
+	private static final String[] INPUTS = {
+		"{}", "{ }", "{a=1}", " \n{ a = 1 , b = 2 }\n", "{a=\"x,y}\", b=\"q\\\"uote, }\", c={d=1,e={f=2}}, g=(1+2)*3, h=[1d6], i=<\"1+1\">}",
+		"{a=1,,b=2}", "{a=1, a=2}", "{a=}", "{a=1", "{a=(1,}", "{a=1} trailing", "{a=1, b=2,}", "{1=a}", "{a=1)}", "{a=\"unfinished}"
+	};
+
+	public static void main(String[] args) throws Exception {
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try{
+			for(String input : INPUTS) compare(input, pool);
+			compare(generate(1000), pool);
+			compare(generate(1000).replace("v500 = ", "v500 = ("), pool);
+			compare(generate(1000).replace("v999 = ", "v0 = "), pool);
+		} finally{
+			pool.shutdown();
+		}
+		System.out.println("ParallelDataContainerReaderTest passed.");
+	}
+
+	/**
+	 * @return A DataContainer with the given number of variables, which have all kinds of values in turn.
+	 */
+	private static String generate(int numberOfVariables){
+		StringBuilder result = new StringBuilder("{");
+		for(int i = 0; i < numberOfVariables; i++){
+			if(i > 0) result.append(i % 7 == 0 ? ",\n" : ", ");
+			result.append(String.format("v%d = %s", i, VALUES[i % VALUES.length]));
+		}
+		return result.append("}").toString();
+	}
+
+	private static void compare(String input, ForkJoinPool pool){
+		String expected = readSequentially(input);
+		String result = readInParallel(input, pool);
+		if(!result.equals(expected)) throw new AssertionError(String.format("%s%n  should be read as %s%n  but was read as %s", shorten(input), shorten(expected), shorten(result)));
+	}
+
+	private static String readSequentially(String input){
+		try{
+			ValueLexer lexer = new ValueLexer(input);
+			DataContainer result = new DataContainer();
+			new ValueReader().readDataContainer(lexer, result);
+			return describe(result, lexer.getPosition());
+		} catch(ReadingException e){
+			return "! " + e.getMessage();
+		}
+	}
+
+	private static String readInParallel(String input, ForkJoinPool pool){
+		try{
+			DataContainer result = new DataContainer();
+			int end = new ParallelDataContainerReader(new ValueReader(), pool).readDataContainer(input, 0, result);
+			return describe(result, end);
+		} catch(ReadingException e){
+			return "! " + e.getMessage();
+		}
+	}
+
+	/**
+	 * @return The index at which reading ended, followed by the names and values of all variables in their order.
+	 */
+	private static String describe(DataContainer dataContainer, int end){
+		List<String> contents = new ArrayList<String>();
+		for(DataPair data : dataContainer) contents.add(String.format("%s=%s", data.getName(), data.getValue()));
+		return String.format("= %d %s", end, contents);
+	}
+
+	private static String shorten(String text){
+		return text.length() <= 200 ? text : text.substring(0, 200) + "...";
+	}
+}
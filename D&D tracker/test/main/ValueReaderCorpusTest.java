@@ -0,0 +1,65 @@
+package main;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import data.Value;
+
+/**
+ * Tests that ValueReader reads every line of ValueReaderCorpus.txt in the same way as the Scanner-based ValueReader it replaced,
+ * giving the same values or failing with the same message.
+ * Run it as a Java application from the project directory, it throws an AssertionError listing the lines that are read differently.
+ */
+public class ValueReaderCorpusTest {
+	private static final String CORPUS = "test/main/ValueReaderCorpus.txt";
+	private static final int REPORTED_DIFFERENCES = 20;
+
+	public static void main(String[] args) throws IOException {
+		List<String> lines = Files.readAllLines(Paths.get(args.length > 0 ? args[0] : CORPUS), StandardCharsets.UTF_8);
+		List<String> differences = new ArrayList<String>();
+		int entries = 0;
+		for(int i = 0; i < lines.size(); i++){
+			if(!lines.get(i).startsWith("> ")) continue;
+			String input = lines.get(i).substring(2);
+			String expected = lines.get(++i);
+			String result = read(input);
+			entries++;
+			if(!result.equals(expected)) differences.add(String.format("%s%n  expected %s%n  but got  %s", input, expected, result));
+		}
+		if(!differences.isEmpty()){
+			StringBuilder message = new StringBuilder(String.format("%d of %d lines are read differently:", differences.size(), entries));
+			for(int i = 0; i < Math.min(differences.size(), REPORTED_DIFFERENCES); i++) message.append(String.format("%n")).append(differences.get(i));
+			throw new AssertionError(message.toString());
+		}
+		System.out.println(String.format("ValueReaderCorpusTest passed (%d lines).", entries));
+	}
+
+	/**
+	 * Reads a line in the same way Tracker reads a command.
+	 * @return '=' followed by the values that were read, or '!' followed by the message of the ReadingException that was thrown.
+	 */
+	private static String read(String line){
+		try{
+			ValueReader reader = new ValueReader();
+			ValueLexer input = new ValueLexer(line);
+			StringBuilder result = new StringBuilder("= ");
+			if(input.hasNext()){
+				Value value = reader.readValue(input);
+				result.append(value);
+				while(input.hasNext()){
+					if(input.nextIs(',')) reader.readCharacter(input, ',');
+					result.append(" | ").append(reader.readValue(input));
+				}
+			}
+			return result.toString();
+		} catch(ReadingException e){
+			return "! " + e.getMessage();
+		} catch(RuntimeException e){
+			return "! " + e.getClass().getName();
+		}
+	}
+}